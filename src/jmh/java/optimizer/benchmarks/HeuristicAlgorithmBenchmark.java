@@ -0,0 +1,33 @@
+package optimizer.benchmarks;
+
+import optimizer.algorithms.VariablesAlg;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Full allocation of all demands from an empty network
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeuristicAlgorithmBenchmark {
+
+   @Param({ "FF", "RF", "GRD" })
+   public String algorithm;
+
+   @Benchmark
+   public VariablesAlg allocateServices(ScenarioState state) {
+      return state.allocate(algorithm);
+   }
+}
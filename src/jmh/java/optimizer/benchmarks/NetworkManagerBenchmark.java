@@ -0,0 +1,90 @@
+package optimizer.benchmarks;
+
+import optimizer.Parameters;
+import optimizer.algorithms.NetworkManager;
+import optimizer.algorithms.VariablesAlg;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static optimizer.Definitions.*;
+
+// Capacity checks of the network manager over all services, demands, paths and servers of an allocated network, and
+// online admission and release of single demands
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkManagerBenchmark {
+
+   @State(Scope.Benchmark)
+   public static class AllocatedNetwork {
+      Parameters pm;
+      NetworkManager networkManager;
+
+      @Setup(Level.Trial)
+      public void setUp(ScenarioState state) {
+         pm = state.pm;
+         networkManager = new NetworkManager(pm, state.allocate(FF));
+      }
+   }
+
+   @State(Scope.Thread)
+   public static class OnlineNetwork {
+      Parameters pm;
+      NetworkManager networkManager;
+      Random rnd;
+
+      @Setup(Level.Trial)
+      public void setUp(ScenarioState state) {
+         pm = state.pm;
+         networkManager = new NetworkManager(pm, new VariablesAlg(pm, null, state.sce.getObjFunc()));
+         rnd = new Random(0);
+      }
+   }
+
+   @Benchmark
+   public void findServersForFunctionsInPath(AllocatedNetwork network, Blackhole blackhole) {
+      Parameters pm = network.pm;
+      for (int s = 0; s < pm.getServices().size(); s++)
+         for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+            for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
+               blackhole.consume(network.networkManager.findServersForFunctionsInPath(s, d, p));
+   }
+
+   @Benchmark
+   public void checkIfFreeResourcesToExpandFunction(AllocatedNetwork network, Blackhole blackhole) {
+      Parameters pm = network.pm;
+      for (int s = 0; s < pm.getServices().size(); s++) {
+         int numFunctions = pm.getServices().get(s).getFunctions().size();
+         for (int x = 0; x < pm.getServers().size(); x++)
+            for (int v = 0; v < numFunctions; v++)
+               for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+                  blackhole.consume(network.networkManager.checkIfFreeResourcesToExpandFunction(s, x, v, d,
+                        numFunctions - v, true));
+      }
+   }
+
+   // admits a random demand if it is not admitted yet and releases it otherwise
+   @Benchmark
+   public boolean admitOrReleaseDemand(OnlineNetwork network) {
+      int s = network.rnd.nextInt(network.pm.getServices().size());
+      int d = network.rnd.nextInt(network.pm.getServices().get(s).getTrafficFlow().getDemands().size());
+      if (network.networkManager.isDemandAdmitted(s, d))
+         return network.networkManager.releaseDemand(s, d);
+      return network.networkManager.admitDemand(s, d);
+   }
+}
@@ -0,0 +1,51 @@
+package optimizer.benchmarks;
+
+import optimizer.algorithms.LauncherAlg;
+import optimizer.algorithms.VariablesAlg;
+import optimizer.results.Results;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static optimizer.Definitions.*;
+
+// Post-processing of an allocated network into the variables and summaries of the results
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultsBenchmark {
+
+   @State(Scope.Benchmark)
+   public static class AllocatedVariables {
+      VariablesAlg vars;
+
+      @Setup(Level.Trial)
+      public void setUp(ScenarioState state) {
+         vars = state.allocate(FF);
+         vars.generateRestOfVariablesForResults();
+      }
+   }
+
+   @Benchmark
+   public VariablesAlg generateRestOfVariablesForResults(AllocatedVariables allocated) {
+      allocated.vars.generateRestOfVariablesForResults();
+      return allocated.vars;
+   }
+
+   @Benchmark
+   public Results initializeResults(ScenarioState state, AllocatedVariables allocated) {
+      return LauncherAlg.generateResults(state.pm, state.sce, allocated.vars, allocated.vars.fXSVinitial);
+   }
+}
@@ -0,0 +1,54 @@
+package optimizer.benchmarks;
+
+import optimizer.Manager;
+import optimizer.Parameters;
+import optimizer.algorithms.NetworkManager;
+import optimizer.algorithms.VariablesAlg;
+import optimizer.algorithms.heuristics.HeuristicAlgorithm;
+import optimizer.gui.ResultsGUI;
+import optimizer.gui.Scenario;
+import optimizer.results.Auxiliary;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import static optimizer.Definitions.*;
+
+// Input scenario shared by all benchmarks, relative to the scenarios folder
+@State(Scope.Benchmark)
+public class ScenarioState {
+
+   @Param({ "example", "journal/N7/7nodes_bench", "journal/N45/palmetto_bench" })
+   public String scenario;
+   public Parameters pm;
+   public Scenario sce;
+
+   @Setup(Level.Trial)
+   public void setUp() {
+      new ResultsGUI();
+      String path = Auxiliary.getResourcesPath(scenario + ".yml");
+      if (path == null)
+         throw new IllegalStateException(scenario + ".yml file not found");
+      String graphName = Manager.readYamlFile(path, scenario.substring(scenario.lastIndexOf('/') + 1));
+      Manager.readTopologyFiles(path, graphName);
+      pm = Manager.getParameters();
+      Manager.determineUsedDemands(pm, false);
+      sce = new Scenario();
+      sce.setName(FF);
+      sce.setObjFunc(UTILIZATION);
+      sce.setConstraint(SYNC_TRAFFIC, false);
+   }
+
+   // network state after allocating all demands with the given heuristic
+   public VariablesAlg allocate(String algorithm) {
+      VariablesAlg vars = new VariablesAlg(pm, null, sce.getObjFunc());
+      HeuristicAlgorithm heuristicAlgorithm = new HeuristicAlgorithm(pm, vars, new NetworkManager(pm, vars));
+      if (algorithm.equals(GRD))
+         heuristicAlgorithm.allocateServicesGreedy(algorithm);
+      else
+         heuristicAlgorithm.allocateServices(algorithm);
+      return vars;
+   }
+}
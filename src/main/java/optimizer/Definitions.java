@@ -31,6 +31,10 @@ public class Definitions {
    public static final String FF = "FF";
    public static final String RF = "RF";
    public static final String GRD = "GRD";
+   public static final String LP_DEC = "LP_DEC";
+   public static final String LP_RELAX = "LP_RELAX";
+   public static final String ROLLING_HORIZON = "ROLLING_HORIZON";
+   public static final String SIM = "SIM";
    // scenarios journal
    public static final String JOURNAL_GRD_FIRST = "JOURNAL_GRD_FIRST";
    public static final String JOURNAL_LP_INIT = "JOURNAL_LP_INIT";
@@ -123,6 +127,7 @@ public class Definitions {
    public static final String NODE_TYPE = "node_type";
    public static final int NODE_TYPE_CLOUD = 0;
    public static final int NODE_TYPE_UNKNOWN = -1;
+   public static final String NODE_CLOUD = "node_cloud"; // cloud marker of older topology files
    public static final String SERVER_DIMENSIONING_CAPACITY = "server_dimensioning_capacity";
    public static final String OVERPROVISIONING_NUM_SERVERS = "overprovisioning_num_servers";
    public static final String OVERPROVISIONING_SERVER_CAPACITY = "overprovisioning_server_capacity";
@@ -160,6 +165,42 @@ public class Definitions {
    public static final String LINK_CAPACITY_TYPES = "link_capacity_types";
    public static final String SERVER_CAPACITY_TYPES = "server_capacity_types";
    public static final String COMPUTE_ISS = "compute_iss";
+   public static final String RESULTS_THREADS = "results_threads";
+
+   // decomposition parameters
+   public static final String DEC_MAX_ITERATIONS = "dec_max_iterations";
+   public static final String DEC_THREADS = "dec_threads";
+   public static final String DEC_NUM_CANDIDATES = "dec_num_candidates";
+   public static final String DEC_NO_GOOD_CUT = "DEC_NO_GOOD_CUT";
+
+   // randomized rounding parameters
+   public static final String ROUNDING_DRAWS = "rounding_draws";
+   public static final String ROUNDING_THREADS = "rounding_threads";
+
+   // rolling horizon parameters
+   public static final String ROLLING_ALGORITHM = "rolling_algorithm";
+
+   // topology generator
+   public static final String GRID = "grid";
+   public static final String WAXMAN = "waxman";
+   public static final String BARABASI_ALBERT = "barabasi_albert";
+   public static final String FAT_TREE = "fat_tree";
+
+   // simulation parameters
+   public static final String SIM_EVENTS = "sim_events";
+   public static final String SIM_ARRIVAL_RATE = "sim_arrival_rate";
+   public static final String SIM_HOLDING_TIME = "sim_holding_time";
+
+   // profiling phases
+   public static final String PHASE_READ_PARAMETERS = "read_parameters";
+   public static final String PHASE_TOPOLOGY_LOAD = "topology_load";
+   public static final String PHASE_PATH_IMPORT = "path_import";
+   public static final String PHASE_PARAMETER_GENERATION = "parameter_generation";
+   public static final String PHASE_MODEL_BUILD = "model_build";
+   public static final String PHASE_CONSTRAINT_GENERATION = "constraint_generation";
+   public static final String PHASE_SOLVE = "solve";
+   public static final String PHASE_RESULT_EXTRACTION = "result_extraction";
+   public static final String PHASE_JSON_EXPORT = "json_export";
 
    // GUI parameters
    public static final String NODE_COLOR = "Black";
@@ -172,6 +213,37 @@ public class Definitions {
    public static final String Y_SCALING = "y_scaling";
    public static final int MAX_NUM_SERVERS = 24;
    public static final int PORT = 8082;
+   public static final int EVENT_BUFFER_SIZE = 4096;
+   public static final long EVENT_HEARTBEAT_MILLIS = 15000;
+   public static final String EVENT_LOG = "log";
+   public static final String EVENT_INCUMBENT = "incumbent";
+   public static final String EVENT_UTILIZATION = "utilization";
+
+   // jobs
+   public static final String JOB_WORKERS = "job_workers";
+   public static final int JOB_WORKERS_DEFAULT = 2;
+   public static final int JOB_MAX_FINISHED = 100;
+   public static final int JOB_MAX_MESSAGES = 100;
+   public static final String JOB_QUEUED = "queued";
+   public static final String JOB_RUNNING = "running";
+   public static final String JOB_FINISHED = "finished";
+   public static final String JOB_FAILED = "failed";
+   public static final String JOB_CANCELLED = "cancelled";
+
+   // results export
+   public static final String JSON_GZIP = "json_gzip";
+   public static final int JSON_BUFFER_SIZE = 65536;
+   public static final String COLUMNS_EXPORT = "columns_export";
+
+   // results statistics
+   public static final double QUANTILE_ACCURACY = 0.001; // relative
+   public static final int[] SUMMARY_PERCENTILES = { 50, 95, 99 };
+
+   // results cache
+   public static final String RESULTS_CACHE_QUOTA = "results_cache_quota_mb";
+   public static final long RESULTS_CACHE_QUOTA_DEFAULT = 1024;
+   public static final String RESULTS_CACHE_FOLDER = "cache";
+   public static final String RESULTS_CACHE_VERSION = "3";
 
    // DRL parameters
    public static final int NUM_HIDDEN_LAYERS = 150;
@@ -186,6 +258,19 @@ public class Definitions {
    public static final String EPSILON_STEPPER = "epsilon_stepper";
    public static final String ROUTING_DRL_CONF_FILE = "routing_drl_conf";
    public static final String PLACEMENT_DRL_CONF_FILE = "placement_drl_conf";
+   public static final String PRIORITIZED_REPLAY = "prioritized_replay";
+   public static final double PRIORITY_ALPHA = 0.6;
+   public static final double PRIORITY_BETA = 0.4; // annealed linearly to 1 over PRIORITY_BETA_UPDATES
+   public static final int PRIORITY_BETA_UPDATES = 100000;
+   public static final double PRIORITY_EPSILON = 0.01;
+   public static final String DRL_ACTORS = "drl_actors";
+   public static final long LEARNER_WAIT = 10; // ms
+   public static final int LEARNER_UPDATES_PER_EXPERIENCE = 1;
+   public static final String DRL_CHECKPOINT = "drl_checkpoint";
+   public static final String DRL_INFERENCE = "drl_inference";
+   public static final String ROUTING_DRL_CHECKPOINT = "routing_drl";
+   public static final String PLACEMENT_DRL_CHECKPOINT = "placement_drl";
+   public static final String PLACEMENT2_DRL_CHECKPOINT = "placement2_drl";
 
    // logs and messages
    public static final String ERROR = "ERROR - ";
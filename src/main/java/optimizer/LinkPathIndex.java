@@ -0,0 +1,135 @@
+package optimizer;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Incidence of links and paths in compressed rows: the links of path p are pathLinks[pathLinksStart(p)] up to
+// pathLinks[pathLinksEnd(p) - 1] and the paths of link l, in ascending order, are linkPaths[linkPathsStart(l)] up to
+// linkPaths[linkPathsEnd(l) - 1]. Paths are numbered as in the paths list, followed by any path of a traffic flow that
+// is not in the list, so indices of the paths of a link can be compared with the size of the paths list. Links are
+// numbered as in the links list.
+public class LinkPathIndex {
+
+   private final Map<Path, Integer> pathIndices = new IdentityHashMap<>();
+   private final Map<Edge, Integer> linkIndices = new IdentityHashMap<>();
+   // paths by index of the source and destination nodes
+   private final Map<Long, int[]> pathsPerNodePair = new HashMap<>();
+   private final int numNodes;
+   private final int[] pathLinkOffsets;
+   private final int[] pathLinks;
+   private final int[] linkPathOffsets;
+   private final int[] linkPaths;
+
+   public LinkPathIndex(List<Edge> links, List<Node> nodes, List<Path> paths, List<List<Path>> trafficFlowPaths) {
+      List<Path> allPaths = new ArrayList<>(paths);
+      for (int p = 0; p < paths.size(); p++)
+         pathIndices.putIfAbsent(paths.get(p), p);
+      for (List<Path> flowPaths : trafficFlowPaths)
+         for (Path path : flowPaths)
+            if (!pathIndices.containsKey(path)) {
+               pathIndices.put(path, allPaths.size());
+               allPaths.add(path);
+            }
+      for (int l = 0; l < links.size(); l++)
+         linkIndices.put(links.get(l), l);
+      numNodes = nodes.size();
+
+      // path to links, a link is listed once even if the path repeats it
+      pathLinkOffsets = new int[allPaths.size() + 1];
+      int[] linkCounts = new int[links.size()];
+      int[] entries = new int[16];
+      int numEntries = 0;
+      boolean[] isInPath = new boolean[links.size()];
+      for (int p = 0; p < allPaths.size(); p++) {
+         int start = numEntries;
+         for (Edge edge : allPaths.get(p).getEdgePath()) {
+            Integer l = linkIndices.get(edge);
+            if (l == null || isInPath[l])
+               continue;
+            isInPath[l] = true;
+            if (numEntries == entries.length)
+               entries = Arrays.copyOf(entries, numEntries * 2);
+            entries[numEntries++] = l;
+            linkCounts[l]++;
+         }
+         for (int i = start; i < numEntries; i++)
+            isInPath[entries[i]] = false;
+         pathLinkOffsets[p + 1] = numEntries;
+      }
+      pathLinks = Arrays.copyOf(entries, numEntries);
+
+      // link to paths, transposed so that the paths of every link are in ascending order
+      linkPathOffsets = new int[links.size() + 1];
+      for (int l = 0; l < links.size(); l++)
+         linkPathOffsets[l + 1] = linkPathOffsets[l] + linkCounts[l];
+      linkPaths = new int[numEntries];
+      int[] next = Arrays.copyOf(linkPathOffsets, links.size());
+      for (int p = 0; p < allPaths.size(); p++)
+         for (int i = pathLinkOffsets[p]; i < pathLinkOffsets[p + 1]; i++)
+            linkPaths[next[pathLinks[i]]++] = p;
+
+      // only paths of the paths list, which are the ones with hSVP variables
+      Map<Long, List<Integer>> pairs = new HashMap<>();
+      for (int p = 0; p < paths.size(); p++) {
+         List<Node> nodePath = paths.get(p).getNodePath();
+         pairs.computeIfAbsent(nodePairKey(nodePath.get(0), nodePath.get(nodePath.size() - 1)),
+               k -> new ArrayList<>()).add(p);
+      }
+      for (Map.Entry<Long, List<Integer>> entry : pairs.entrySet())
+         pathsPerNodePair.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+   }
+
+   private long nodePairKey(Node src, Node dst) {
+      return (long) src.getIndex() * numNodes + dst.getIndex();
+   }
+
+   // -1 if the path is unknown
+   public int getPathIndex(Path path) {
+      Integer p = pathIndices.get(path);
+      return p != null ? p : -1;
+   }
+
+   // -1 if the link is unknown
+   public int getLinkIndex(Edge link) {
+      Integer l = linkIndices.get(link);
+      return l != null ? l : -1;
+   }
+
+   public int[] getPathLinks() {
+      return pathLinks;
+   }
+
+   public int getPathLinksStart(int p) {
+      return pathLinkOffsets[p];
+   }
+
+   public int getPathLinksEnd(int p) {
+      return pathLinkOffsets[p + 1];
+   }
+
+   public int[] getLinkPaths() {
+      return linkPaths;
+   }
+
+   public int getLinkPathsStart(int l) {
+      return linkPathOffsets[l];
+   }
+
+   public int getLinkPathsEnd(int l) {
+      return linkPathOffsets[l + 1];
+   }
+
+   // indices in the paths list of the paths from src to dst, in ascending order
+   public int[] getPathsBetween(Node src, Node dst) {
+      int[] paths = pathsPerNodePair.get(nodePairKey(src, dst));
+      return paths != null ? paths : new int[0];
+   }
+}
@@ -8,12 +8,21 @@ import org.slf4j.LoggerFactory;
 
 import optimizer.algorithms.LauncherAlg;
 import optimizer.elements.TrafficFlow;
+import optimizer.gui.Job;
 import optimizer.gui.ResultsGUI;
 import optimizer.gui.Scenario;
+import optimizer.lp.LauncherDecomposition;
 import optimizer.lp.LauncherLP;
+import optimizer.lp.LauncherRounding;
 import optimizer.results.Auxiliary;
+import optimizer.results.Metrics;
+import optimizer.results.Profiler;
+import optimizer.results.Results;
+import optimizer.results.ResultsCache;
 import optimizer.results.ResultsManager;
 import optimizer.scenarios.Journal;
+import optimizer.scenarios.RollingHorizon;
+import optimizer.simulation.LauncherSim;
 import optimizer.utils.ConfigFiles;
 import static optimizer.Definitions.*;
 import static optimizer.results.Auxiliary.printLog;
@@ -21,21 +30,24 @@ import static optimizer.results.Auxiliary.printLog;
 public class Manager {
 
    private static final Logger log = LoggerFactory.getLogger(Manager.class);
-   private static boolean interrupted;
+   private static volatile boolean interrupted;
+   // parameters loaded outside of jobs, jobs keep their own
    private static Parameters pm;
 
    public static String readParameters(String graphNameForm) {
+      Profiler.start(PHASE_READ_PARAMETERS);
       String path = Auxiliary.getResourcesPath(graphNameForm + ".yml");
       String graphName = readYamlFile(path, graphNameForm);
       readTopologyFiles(path, graphName);
-      determineUsedDemands(pm, false);
+      determineUsedDemands(getParameters(), false);
+      Profiler.stop(PHASE_READ_PARAMETERS);
       return graphName;
    }
 
    public static String readYamlFile(String path, String graphNameForm) {
       String[] graphName = graphNameForm.split("_");
       try {
-         pm = ConfigFiles.readParameters(path + graphNameForm + ".yml");
+         setParameters(ConfigFiles.readParameters(path + graphNameForm + ".yml"));
       } catch (Exception e) {
          printLog(log, ERROR, "error loading .yml file");
       }
@@ -43,6 +55,7 @@ public class Manager {
    }
 
    public static void readTopologyFiles(String path, String graphName) {
+      Parameters pm = getParameters();
       String[] extensions = new String[] { ".dgs", ".gml" };
       boolean isLoaded = false;
       for (int i = 0; i < extensions.length; i++) {
@@ -113,28 +126,64 @@ public class Manager {
    }
 
    public static void main(Scenario sce) {
-      ResultsManager rm;
+      ResultsManager rm = null;
       String outputFileName;
+      Parameters pm;
+      Profiler.reset();
+      Metrics.runStarted(sce.getName());
       if (sce.getName().equals(LP) || sce.getName().equals(FF) || sce.getName().equals(RF)
-            || sce.getName().equals(GRD)) {
+            || sce.getName().equals(GRD) || sce.getName().equals(LP_DEC)
+            || sce.getName().equals(LP_RELAX) || sce.getName().equals(ROLLING_HORIZON)
+            || sce.getName().equals(SIM)) {
          try {
+            String cacheKey = ResultsCache.isCacheable(sce) ? ResultsCache.getKey(sce) : null;
+            Results results = null;
+            if (cacheKey != null && ResultsCache.contains(cacheKey)) {
+               readParameters(sce.getInputFileName());
+               pm = getParameters();
+               rm = new ResultsManager(pm.getGraphName());
+               if (ResultsCache.restore(cacheKey, pm, rm)) {
+                  Metrics.runFinished(sce.getName());
+                  printLog(log, INFO, "backend is ready");
+                  return;
+               }
+            }
             switch (sce.getName()) {
                case LP:
                   readParameters(sce.getInputFileName());
+                  pm = getParameters();
                   rm = new ResultsManager(pm.getGraphName());
                   outputFileName = pm.getGraphName() + sce.getName() + sce.getObjFunc();
-                  LauncherLP.run(pm, sce, rm, null, null, outputFileName, true);
+                  results = LauncherLP.run(pm, sce, rm, null, null, outputFileName, true);
+                  break;
+
+               case LP_DEC:
+                  readParameters(sce.getInputFileName());
+                  pm = getParameters();
+                  rm = new ResultsManager(pm.getGraphName());
+                  outputFileName = pm.getGraphName() + "_" + LP_DEC + "_" + sce.getObjFunc();
+                  results = LauncherDecomposition.run(pm, sce, rm, outputFileName);
+                  break;
+
+               case LP_RELAX:
+                  readParameters(sce.getInputFileName());
+                  pm = getParameters();
+                  rm = new ResultsManager(pm.getGraphName());
+                  outputFileName = pm.getGraphName() + "_" + LP_RELAX + "_" + sce.getObjFunc();
+                  results = LauncherRounding.run(pm, sce, rm, outputFileName);
                   break;
 
                case FF:
                   readParameters(sce.getInputFileName());
+                  pm = getParameters();
                   rm = new ResultsManager(pm.getGraphName());
                   outputFileName = pm.getGraphName() + "_" + FF + "_" + sce.getObjFunc();
-                  LauncherAlg.run(pm, sce, rm, null, outputFileName, false);
+                  results = LauncherAlg.run(pm, sce, rm, null, outputFileName, false);
                   break;
 
                case RF:
                   readParameters(sce.getInputFileName());
+                  pm = getParameters();
                   rm = new ResultsManager(pm.getGraphName());
                   for (int i = 0; i < 10; i++) {
                      outputFileName = pm.getGraphName() + "_" + RF + "_" + sce.getObjFunc() + "_" + i;
@@ -144,34 +193,74 @@ public class Manager {
 
                case GRD:
                   readParameters(sce.getInputFileName());
+                  pm = getParameters();
                   rm = new ResultsManager(pm.getGraphName());
                   outputFileName = pm.getGraphName() + "_" + GRD + "_" + sce.getObjFunc();
-                  LauncherAlg.run(pm, sce, rm, null, outputFileName, false);
+                  results = LauncherAlg.run(pm, sce, rm, null, outputFileName, false);
+                  break;
+
+               case ROLLING_HORIZON:
+                  RollingHorizon.run(sce);
+                  break;
+
+               case SIM:
+                  readParameters(sce.getInputFileName());
+                  pm = getParameters();
+                  rm = new ResultsManager(pm.getGraphName());
+                  outputFileName = pm.getGraphName() + "_" + SIM + "_" + sce.getObjFunc();
+                  LauncherSim.run(pm, sce, rm, outputFileName);
                   break;
 
                default:
                   printLog(log, INFO, "no algorithm selected");
                   break;
             }
+            if (cacheKey != null && rm != null && results != null && !isInterrupted())
+               ResultsCache.store(cacheKey, rm, results);
+            Metrics.runFinished(sce.getName());
             printLog(log, INFO, "backend is ready");
          } catch (Exception e) {
+            Metrics.runFailed(sce.getName());
+            if (Job.current() != null)
+               Job.current().fail(e);
             e.printStackTrace();
             printLog(log, ERROR, "something went wrong");
          }
       } else {
-         Journal.run(pm, sce);
+         Journal.run(getParameters(), sce);
+         Metrics.runFinished(sce.getName());
       }
    }
 
+   public static Parameters getParameters() {
+      Job job = Job.current();
+      if (job != null)
+         return job.getParameters();
+      return pm;
+   }
+
+   private static void setParameters(Parameters parameters) {
+      Job job = Job.current();
+      if (job != null)
+         job.setParameters(parameters);
+      else
+         pm = parameters;
+   }
+
    public static void terminate() {
       interrupted = true;
    }
 
    public static void reset() {
-      interrupted = false;
+      if (Job.current() == null)
+         interrupted = false;
    }
 
+   // jobs are only interrupted by cancelling them
    public static boolean isInterrupted() {
+      Job job = Job.current();
+      if (job != null)
+         return job.isCancelled();
       return interrupted;
    }
 }
@@ -8,6 +8,7 @@ import org.graphstream.graph.Node;
 import org.graphstream.graph.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import optimizer.results.Profiler;
 import optimizer.utils.ConfigFiles;
 import optimizer.utils.GraphManager;
 
@@ -35,8 +36,11 @@ public class Parameters {
    private List<Node> nodes;
    private List<Edge> edges;
    private List<Server> servers;
+   // indices of the servers of every node, by node index
+   private int[][] serversPerNode;
    private List<Service> services;
    private List<Path> paths;
+   private LinkPathIndex linkPathIndex;
    private int pathsTrafficFlow;
    private int demandsTrafficFlow;
    private int serviceLength;
@@ -92,8 +96,13 @@ public class Parameters {
       if (!global.containsKey(COMPUTE_ISS)){
          global.put(COMPUTE_ISS, true);
       }
+      Profiler.start(PHASE_TOPOLOGY_LOAD);
       graph = GraphManager.importTopology(topologyFile, directedEdges, allNodesToCloud);
+      Profiler.stop(PHASE_TOPOLOGY_LOAD);
+      Profiler.start(PHASE_PATH_IMPORT);
       paths = GraphManager.importPaths(graph, pathsFile);
+      Profiler.stop(PHASE_PATH_IMPORT);
+      Profiler.start(PHASE_PARAMETER_GENERATION);
       try {
          nodes.addAll(graph.getNodeSet());
          edges.addAll(graph.getEdgeSet());
@@ -107,6 +116,8 @@ public class Parameters {
       } catch (Exception e) {
          log.warn("error generating parameters: " + e.toString());
          return false;
+      } finally {
+         Profiler.stop(PHASE_PARAMETER_GENERATION);
       }
    }
 
@@ -158,9 +169,23 @@ public class Parameters {
             servers.add(new Server(node.getId() + "_" + s, node, node.getAttribute(SERVER_CAPACITY)));
          }
       }
+      serversPerNode = new int[nodes.size()][];
+      int x = 0;
+      for (Node node : nodes) {
+         int numServers = (int) node.getAttribute(NODE_NUM_SERVERS);
+         serversPerNode[node.getIndex()] = new int[numServers];
+         for (int s = 0; s < numServers; s++)
+            serversPerNode[node.getIndex()][s] = x++;
+      }
    }
 
    private void generateTrafficFlows() {
+      // index paths by source and destination, keeping their order
+      Map<String, List<Path>> pathsPerNodePair = new HashMap<>();
+      for (Path p : paths)
+         pathsPerNodePair.computeIfAbsent(
+               p.getNodePath().get(0).getId() + ">" + p.getNodePath().get(p.size() - 1).getId(),
+               k -> new ArrayList<>()).add(p);
       TrafficFlow dtf = trafficFlows.get(0);
       if (dtf.getSrc() == null && dtf.getDst() == null) { // traffic flows are not specified
          for (Node src : nodes)
@@ -174,10 +199,9 @@ public class Parameters {
                      dtf.getServiceLength());
                trafficFlow.generateRandomDemandsFromSpecificValues(rnd, dtf.getMinDem(), dtf.getMaxDem(),
                      dtf.getMinBw(), dtf.getMaxBw());
-               for (Path p : paths)
-                  if (p.getNodePath().get(0).getId().equals(src.getId())
-                        && p.getNodePath().get(p.size() - 1).getId().equals(dst.getId()))
-                     trafficFlow.setAdmissiblePath(p);
+               for (Path p : pathsPerNodePair.getOrDefault(src.getId() + ">" + dst.getId(),
+                     Collections.emptyList()))
+                  trafficFlow.setAdmissiblePath(p);
                trafficFlows.add(trafficFlow);
             }
          trafficFlows.remove(0); // remove default traffic flow
@@ -189,10 +213,9 @@ public class Parameters {
             else { // if they are specified, the just initialize
                trafficFlow.generateDemands();
             }
-            for (Path p : paths)
-               if (p.getNodePath().get(0).getId().equals(trafficFlow.getSrc())
-                     && p.getNodePath().get(p.size() - 1).getId().equals(trafficFlow.getDst()))
-                  trafficFlow.setAdmissiblePath(p);
+            for (Path p : pathsPerNodePair.getOrDefault(trafficFlow.getSrc() + ">" + trafficFlow.getDst(),
+                  Collections.emptyList()))
+               trafficFlow.setAdmissiblePath(p);
          }
    }
 
@@ -296,6 +319,14 @@ public class Parameters {
       for (Service service : services)
          totalNumFunctions += service.getFunctions().size();
 
+      createLinkPathIndex();
+   }
+
+   private void createLinkPathIndex() {
+      List<List<Path>> trafficFlowPaths = new ArrayList<>();
+      for (TrafficFlow trafficFlow : trafficFlows)
+         trafficFlowPaths.add(trafficFlow.getPaths());
+      linkPathIndex = new LinkPathIndex(edges, nodes, paths, trafficFlowPaths);
    }
 
    private void readSeeds() {
@@ -322,6 +353,10 @@ public class Parameters {
       return global.get(key);
    }
 
+   public Object getGlobal(String key, Object defaultValue) {
+      return global.getOrDefault(key, defaultValue);
+   }
+
    public String getGraphName() {
       return graphName;
    }
@@ -356,16 +391,28 @@ public class Parameters {
 
    public void setTrafficFlows(List<TrafficFlow> trafficFlows) {
       this.trafficFlows = trafficFlows;
+      this.linkPathIndex = null;
    }
 
    public List<Path> getPaths() {
       return paths;
    }
 
+   // rebuilt on first use after the traffic flows are replaced
+   public synchronized LinkPathIndex getLinkPathIndex() {
+      if (linkPathIndex == null)
+         createLinkPathIndex();
+      return linkPathIndex;
+   }
+
    public List<Server> getServers() {
       return servers;
    }
 
+   public int[][] getServersPerNode() {
+      return serversPerNode;
+   }
+
    public List<Node> getNodes() {
       return nodes;
    }
@@ -6,6 +6,8 @@ import optimizer.algorithms.heuristics.HeuristicAlgorithm;
 import optimizer.gui.ResultsGUI;
 import optimizer.gui.Scenario;
 import optimizer.results.Auxiliary;
+import optimizer.results.Metrics;
+import optimizer.results.Profiler;
 import optimizer.results.Results;
 import optimizer.results.ResultsManager;
 import org.slf4j.Logger;
@@ -20,33 +22,44 @@ public class LauncherAlg {
 
    private static final Logger log = LoggerFactory.getLogger(LauncherAlg.class);
 
-   public static VariablesAlg run(Parameters pm, Scenario sce, ResultsManager resultsManager,
+   public static Results run(Parameters pm, Scenario sce, ResultsManager resultsManager,
          VariablesAlg varsInitPlacement, String outputFileName, boolean printMST) {
+      Profiler.start(PHASE_MODEL_BUILD);
       VariablesAlg vars = new VariablesAlg(pm, varsInitPlacement, sce.getObjFunc());
       NetworkManager networkManager = new NetworkManager(pm, vars);
       HeuristicAlgorithm heuristicAlgorithm = new HeuristicAlgorithm(pm, vars, networkManager);
+      Profiler.stop(PHASE_MODEL_BUILD);
       double startTime = System.currentTimeMillis();
+      long startMoves = Metrics.getHeuristicMoves();
       printLog(log, INFO, "starting " + sce.getName() + " algorithm...");
+      Profiler.start(PHASE_SOLVE);
       if (sce.getName().contains(GRD)) {
          heuristicAlgorithm.allocateServicesGreedy(sce.getName());
       } else {
          heuristicAlgorithm.allocateServices(sce.getName());
       }
+      Profiler.stop(PHASE_SOLVE);
       double elapsedTime = System.currentTimeMillis() - startTime;
+      Metrics.observeSolveTime(sce.getName(), elapsedTime / 1000);
+      if (elapsedTime > 0)
+         Metrics.setHeuristicMovesPerSecond((Metrics.getHeuristicMoves() - startMoves) / (elapsedTime / 1000));
+      Profiler.start(PHASE_RESULT_EXTRACTION);
       vars.generateRestOfVariablesForResults();
       Auxiliary.printLog(log, INFO, "finished [" + Auxiliary.roundDouble(vars.objVal, 4) + "]");
+      ResultsGUI.publishIncumbent(vars.objVal, null, null);
       Auxiliary.printLog(log, INFO, "generating results...");
       Results results = generateResults(pm, sce, vars, vars.fXSVinitial);
+      Profiler.stop(PHASE_RESULT_EXTRACTION);
       results.setComputationTime((double) elapsedTime / 1000);
       resultsManager.exportJsonObject(outputFileName, results);
       if (printMST)
          exportResultsToMST(pm, resultsManager, outputFileName, vars);
       ResultsGUI.updateResults(results);
       Auxiliary.printLog(log, INFO, "done");
-      return vars;
+      return results;
    }
 
-   private static Results generateResults(Parameters pm, Scenario sc, VariablesAlg heu,
+   public static Results generateResults(Parameters pm, Scenario sc, VariablesAlg heu,
          boolean[][][] initialPlacement) {
       Results results = new Results(pm, sc);
 
@@ -13,6 +13,7 @@ import org.graphstream.graph.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import optimizer.LinkPathIndex;
 import optimizer.Parameters;
 import optimizer.elements.*;
 import optimizer.results.Auxiliary;
@@ -29,6 +30,94 @@ public class NetworkManager {
       this.vars = variablesAlg;
    }
 
+   // online admission of demand d of service s against the current state, first path and servers that fit
+   public boolean admitDemand(int s, int d) {
+      Service service = pm.getServices().get(s);
+      if (isDemandAdmitted(s, d))
+         return true;
+      for (int p = 0; p < service.getTrafficFlow().getPaths().size(); p++) {
+         if (!checkIfFreePathResources(s, d, p))
+            continue;
+         int v = 0;
+         for (; v < service.getFunctions().size(); v++) {
+            List<Integer> availableServers = findServersForSpecificFunction(s, d, p, v, true, true);
+            if (availableServers.isEmpty())
+               break;
+            addDemandToFunctionToServer(s, availableServers.get(0), v, d);
+         }
+         if (v == service.getFunctions().size()) {
+            addDemandToPath(s, p, d);
+            return true;
+         }
+         // roll back the functions placed on this path
+         for (int v1 = 0; v1 < v; v1++)
+            releaseDemandFromFunction(s, v1, d);
+      }
+      return false;
+   }
+
+   // online admission of a new demand with the given traffic, overwriting the value of the free demand slot d
+   public boolean admitDemand(int s, int d, int trafficDemand) {
+      if (isDemandAdmitted(s, d))
+         return false;
+      pm.getServices().get(s).getTrafficFlow().getDemands().set(d, trafficDemand);
+      return admitDemand(s, d);
+   }
+
+   // admission of demand d of service s on the given path and servers, nothing is allocated if any of them is full
+   public boolean admitDemand(int s, int d, int p, List<Integer> servers) {
+      if (isDemandAdmitted(s, d) || !checkIfFreePathResources(s, d, p))
+         return false;
+      int v = 0;
+      for (; v < servers.size(); v++) {
+         int x = servers.get(v);
+         if (!checkIfFreeResourcesToExpandFunction(s, x, v, d, 1, !vars.fXSV[x][s][v]))
+            break;
+         addDemandToFunctionToServer(s, x, v, d);
+      }
+      if (v < servers.size()) {
+         for (int v1 = 0; v1 < v; v1++)
+            releaseDemandFromFunction(s, v1, d);
+         return false;
+      }
+      addDemandToPath(s, p, d);
+      return true;
+   }
+
+   // online release of demand d of service s, functions without demands are removed from their servers
+   public boolean releaseDemand(int s, int d) {
+      int pUsed = -1;
+      for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
+         if (vars.zSPD[s][p][d]) {
+            pUsed = p;
+            break;
+         }
+      if (pUsed == -1)
+         return false;
+      for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
+         releaseDemandFromFunction(s, v, d);
+      removeDemandFromPath(s, pUsed, d);
+      return true;
+   }
+
+   public boolean isDemandAdmitted(int s, int d) {
+      for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
+         if (vars.zSPD[s][p][d])
+            return true;
+      return false;
+   }
+
+   private void releaseDemandFromFunction(int s, int v, int d) {
+      int x = getUsedServerForFunction(s, d, v);
+      if (x == -1)
+         return;
+      removeDemandToFunctionToServer(s, x, v, d);
+      for (int d1 = 0; d1 < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d1++)
+         if (vars.fXSVD[x][s][v][d1])
+            return;
+      removeFunctionFromServer(s, x, v);
+   }
+
    public void addDemandToFunctionsToSpecificServers(int s, int d, List<Integer> specificServers) {
       for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++) {
          int xChosen = specificServers.get(v);
@@ -75,13 +164,7 @@ public class NetworkManager {
    }
 
    public List<Integer> getAvailablePaths(int s, int d) {
-      Service service = pm.getServices().get(s);
-      TrafficFlow tf = service.getTrafficFlow();
-      List<Integer> availablePaths = new ArrayList<>();
-      int trafficDemand = tf.getDemands().get(d);
-      for (int p = 0; p < tf.getPaths().size(); p++) // for every admissible path
-         if (checkIfFreePathResources(tf.getPaths().get(p), trafficDemand)) // add paths with free path link resources
-            availablePaths.add(p);
+      List<Integer> availablePaths = findAvailablePaths(s, d);
       if (availablePaths.isEmpty()) { // if no path found, block
          // TO-DO blocking !!
          Auxiliary.printLog(log, ERROR, "no available path found for [s][d] = [" + s + "][" + d + "]");
@@ -90,6 +173,17 @@ public class NetworkManager {
       return availablePaths;
    }
 
+   // paths with free link resources for demand d of service s, empty when the demand is blocked
+   public List<Integer> findAvailablePaths(int s, int d) {
+      TrafficFlow tf = pm.getServices().get(s).getTrafficFlow();
+      List<Integer> availablePaths = new ArrayList<>();
+      int trafficDemand = tf.getDemands().get(d);
+      for (int p = 0; p < tf.getPaths().size(); p++) // for every admissible path
+         if (checkIfFreePathResources(tf.getPaths().get(p), trafficDemand)) // add paths with free path link resources
+            availablePaths.add(p);
+      return availablePaths;
+   }
+
    public void removeUnusedFunctions(int s) {
       for (int x = 0; x < pm.getServers().size(); x++)
          for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++) {
@@ -156,17 +250,23 @@ public class NetworkManager {
    }
 
    public Map<Integer, List<List<Integer>>> findAdmissiblePathsServersMap(List<Integer> availablePaths, int s, int d) {
+      Map<Integer, List<List<Integer>>> admissiblePaths = findPathsServersMap(availablePaths, s, d);
+      if (admissiblePaths.isEmpty()) {
+         // TO-DO blocking
+         Auxiliary.printLog(log, ERROR, "no admissible path available for [s][d] = [" + s + "][" + d + "]");
+         System.exit(-1);
+      }
+      return admissiblePaths;
+   }
+
+   // available servers per function of the given paths that have servers for every function, empty when blocked
+   public Map<Integer, List<List<Integer>>> findPathsServersMap(List<Integer> availablePaths, int s, int d) {
       Map<Integer, List<List<Integer>>> admissiblePaths = new HashMap<>();
       for (Integer p : availablePaths) {
          List<List<Integer>> availableServersPerFunction = findServersForFunctionsInPath(s, d, p);
          if (availableServersPerFunction != null)// if there are servers, add path
             admissiblePaths.put(p, availableServersPerFunction);
       }
-      if (admissiblePaths.isEmpty()) {
-         // TO-DO blocking
-         Auxiliary.printLog(log, ERROR, "no admissible path available for [s][d] = [" + s + "][" + d + "]");
-         System.exit(-1);
-      }
       return admissiblePaths;
    }
 
@@ -204,16 +304,13 @@ public class NetworkManager {
                   double syncTraffic = calculateSyncTraffic(s, v);
                   // search an available path for the sync traffic
                   boolean foundSyncPath = false;
-                  for (int p = 0; p < pm.getPaths().size(); p++) {
-                     Path path = pm.getPaths().get(p);
-                     if (path.getNodePath().get(0).equals(pm.getServers().get(x).getParent()) & path.getNodePath()
-                           .get(path.getNodePath().size() - 1).equals(pm.getServers().get(y).getParent()))
-                        if (checkIfFreePathResources(path, syncTraffic)) {
-                           assignSyncTraffic(s, v, p, syncTraffic);
-                           foundSyncPath = true;
-                           break;
-                        }
-                  }
+                  for (int p : pm.getLinkPathIndex().getPathsBetween(pm.getServers().get(x).getParent(),
+                        pm.getServers().get(y).getParent()))
+                     if (checkIfFreePathResources(pm.getPaths().get(p), syncTraffic)) {
+                        assignSyncTraffic(s, v, p, syncTraffic);
+                        foundSyncPath = true;
+                        break;
+                     }
                   if (!foundSyncPath)
                      Auxiliary.printLog(log, ERROR, "No available path found for sync traffic"); // blocking
                }
@@ -241,26 +338,35 @@ public class NetworkManager {
 
    private double calculateSyncTraffic(int s, int v) {
       Service service = pm.getServices().get(s);
+      Object syncLoadRatio = service.getFunctions().get(v).getAttribute(FUNCTION_SYNC_LOAD_RATIO);
+      if (syncLoadRatio == null) // functions without sync_load do not generate sync traffic
+         return 0;
       double syncTraffic = 0;
       for (int d = 0; d < service.getTrafficFlow().getDemands().size(); d++)
          syncTraffic += service.getTrafficFlow().getDemands().get(d);
-      return syncTraffic * (double) service.getFunctions().get(v).getAttribute(FUNCTION_SYNC_LOAD_RATIO);
+      return syncTraffic * (double) syncLoadRatio;
    }
 
    private void assignSyncTraffic(int s, int v, int p, double syncTraffic) {
-      for (Edge pathLink : pm.getPaths().get(p).getEdgePath())
-         vars.uL.put(pathLink.getId(),
-               vars.uL.get(pathLink.getId()) + (syncTraffic / (int) pathLink.getAttribute(LINK_CAPACITY)));
+      updateSyncTraffic(p, syncTraffic);
       vars.hSVP[s][v][p] = true;
    }
 
    private void unAssignSyncTraffic(int s, int v, int p, double syncTraffic) {
-      for (Edge pathLink : pm.getPaths().get(p).getEdgePath())
-         vars.uL.put(pathLink.getId(),
-               vars.uL.get(pathLink.getId()) - (syncTraffic / (int) pathLink.getAttribute(LINK_CAPACITY)));
+      updateSyncTraffic(p, -syncTraffic);
       vars.hSVP[s][v][p] = false;
    }
 
+   private void updateSyncTraffic(int p, double syncTraffic) {
+      LinkPathIndex index = pm.getLinkPathIndex();
+      int[] pathLinks = index.getPathLinks();
+      for (int i = index.getPathLinksStart(p); i < index.getPathLinksEnd(p); i++) {
+         Edge pathLink = pm.getLinks().get(pathLinks[i]);
+         vars.uL.put(pathLink.getId(),
+               vars.uL.get(pathLink.getId()) + (syncTraffic / (int) pathLink.getAttribute(LINK_CAPACITY)));
+      }
+   }
+
    public int getNodePathIndexFromServer(int s, int p, int x) {
       int nodeIndex = -1;
       Service service = pm.getServices().get(s);
@@ -287,6 +393,11 @@ public class NetworkManager {
       return availableServers;
    }
 
+   public boolean checkIfFreePathResources(int s, int d, int p) {
+      TrafficFlow tf = pm.getServices().get(s).getTrafficFlow();
+      return checkIfFreePathResources(tf.getPaths().get(p), tf.getDemands().get(d));
+   }
+
    private boolean checkIfFreePathResources(Path path, double trafficDemand) {
       boolean isAvailable = true;
       for (Edge pathLink : path.getEdgePath())
@@ -322,7 +433,7 @@ public class NetworkManager {
       vars.zSPD[s][p][d] = false;
       boolean notUsedPath = true;
       for (int d1 = 0; d1 < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d1++)
-         if (vars.zSPD[s][p][d]) {
+         if (vars.zSPD[s][p][d1]) {
             notUsedPath = false;
             break;
          }
@@ -9,9 +9,11 @@ import org.graphstream.graph.Edge;
 import org.graphstream.graph.Path;
 
 import gurobi.GRBModel;
+import optimizer.Definitions;
 import optimizer.Parameters;
 import optimizer.elements.*;
 import optimizer.results.Auxiliary;
+import optimizer.results.Results;
 
 public class VariablesAlg {
 
@@ -53,6 +55,30 @@ public class VariablesAlg {
       fXSVD = Auxiliary.fXSVDvarsFromInitialModel(pm, initialPlacementVars);
    }
 
+   // allocation of the results of a previous run, nothing is allocated without results
+   public VariablesAlg(Parameters pm, Results results) {
+      this(pm, (VariablesAlg) null);
+      if (results == null)
+         return;
+      boolean[][] zSPresults = (boolean[][]) results.getRawVariables().get(Definitions.zSP);
+      boolean[][][] zSPDresults = (boolean[][][]) results.getRawVariables().get(Definitions.zSPD);
+      boolean[][][] fXSVresults = (boolean[][][]) results.getRawVariables().get(Definitions.fXSV);
+      boolean[][][][] fXSVDresults = (boolean[][][][]) results.getRawVariables().get(Definitions.fXSVD);
+      for (int s = 0; s < pm.getServices().size(); s++)
+         for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++) {
+            zSP[s][p] = zSPresults[s][p];
+            for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+               zSPD[s][p][d] = zSPDresults[s][p][d];
+         }
+      for (int x = 0; x < pm.getServers().size(); x++)
+         for (int s = 0; s < pm.getServices().size(); s++)
+            for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++) {
+               fXSV[x][s][v] = fXSVresults[x][s][v];
+               for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+                  fXSVD[x][s][v][d] = fXSVDresults[x][s][v][d];
+            }
+   }
+
    public VariablesAlg(Parameters pm, VariablesAlg initialPlacementVars, String objFunc) {
       this.pm = pm;
       this.objFunc = objFunc;
@@ -76,6 +102,50 @@ public class VariablesAlg {
       fXSVDinitial = Auxiliary.fXSVDvarsFromInitialModel(pm, initialPlacementVars);
    }
 
+   // independent copy of the allocation of vars, the initial placement is shared since it is only read
+   public VariablesAlg(VariablesAlg vars) {
+      this.pm = vars.pm;
+      this.objFunc = vars.objFunc;
+      zSP = copy(vars.zSP);
+      zSPD = new boolean[vars.zSPD.length][][];
+      for (int s = 0; s < zSPD.length; s++)
+         zSPD[s] = copy(vars.zSPD[s]);
+      fXSV = new boolean[vars.fXSV.length][][];
+      for (int x = 0; x < fXSV.length; x++)
+         fXSV[x] = copy(vars.fXSV[x]);
+      fXSVD = new boolean[vars.fXSVD.length][][][];
+      for (int x = 0; x < fXSVD.length; x++) {
+         fXSVD[x] = new boolean[vars.fXSVD[x].length][][];
+         for (int s = 0; s < fXSVD[x].length; s++)
+            fXSVD[x][s] = copy(vars.fXSVD[x][s]);
+      }
+      hSVP = new boolean[vars.hSVP.length][][];
+      for (int s = 0; s < hSVP.length; s++)
+         hSVP[s] = copy(vars.hSVP[s]);
+      gSVXY = new boolean[vars.gSVXY.length][][][];
+      for (int s = 0; s < gSVXY.length; s++) {
+         gSVXY[s] = new boolean[vars.gSVXY[s].length][][];
+         for (int v = 0; v < gSVXY[s].length; v++)
+            gSVXY[s][v] = copy(vars.gSVXY[s][v]);
+      }
+      uL = new HashMap<>(vars.uL);
+      uX = new HashMap<>(vars.uX);
+      zSPinitial = vars.zSPinitial;
+      zSPDinitial = vars.zSPDinitial;
+      fXSVinitial = vars.fXSVinitial;
+      fXSVDinitial = vars.fXSVDinitial;
+      objVal = vars.objVal;
+      if (vars.lu != null)
+         generateRestOfVariablesForResults();
+   }
+
+   private static boolean[][] copy(boolean[][] array) {
+      boolean[][] copy = new boolean[array.length][];
+      for (int i = 0; i < array.length; i++)
+         copy[i] = array[i].clone();
+      return copy;
+   }
+
    public void generateRestOfVariablesForResults() {
       lu = new double[pm.getLinks().size()];
       for (int l = 0; l < pm.getLinks().size(); l++)
@@ -216,12 +286,16 @@ public class VariablesAlg {
       switch (objFunc) {
       case MGR:
          objVal = migrations + (0.001 * replications);
+         break;
       case REP:
          objVal = replications + (0.001 * migrations);
+         break;
       case MGR_REP:
          objVal = replications + migrations;
+         break;
       case MGR_REP_CLOUD:
          objVal = replications + migrations + functions_cloud;
+         break;
       }
    }
 
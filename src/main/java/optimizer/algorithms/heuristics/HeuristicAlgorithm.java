@@ -17,6 +17,7 @@ import optimizer.Parameters;
 import optimizer.algorithms.NetworkManager;
 import optimizer.algorithms.VariablesAlg;
 import optimizer.results.Auxiliary;
+import optimizer.results.Metrics;
 
 public class HeuristicAlgorithm {
 
@@ -93,22 +94,109 @@ public class HeuristicAlgorithm {
         }
     }
 
+    // blocked demands as [s, d], those that neither fit on their initial allocation nor anywhere else
+    public List<int[]> allocateServicesIncrementally(String algorithm, boolean[][] changedDemands) {
+        // keep the initial placement of unchanged demands that still fit, the rest is allocated again
+        boolean[][] demandsToAllocate = new boolean[changedDemands.length][];
+        int reroutedDemands = 0;
+        for (int s = 0; s < pm.getServices().size(); s++) {
+            demandsToAllocate[s] = changedDemands[s].clone();
+            for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+                if (pm.getServices().get(s).getTrafficFlow().getAux().get(d) && !changedDemands[s][d]
+                        && !keepDemandFromInitialPlacement(s, d)) {
+                    demandsToAllocate[s][d] = true;
+                    reroutedDemands++;
+                }
+        }
+        if (reroutedDemands > 0)
+            Auxiliary.printLog(log, INFO, reroutedDemands + " unchanged demands do not fit anymore, re-routing");
+        // then allocate new, changed and re-routed demands, blocking those that do not fit
+        List<int[]> blockedDemands = new ArrayList<>();
+        for (int s = 0; s < pm.getServices().size(); s++) {
+            for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+                if (pm.getServices().get(s).getTrafficFlow().getAux().get(d) && demandsToAllocate[s][d]) {
+                    boolean isAllocated;
+                    if (algorithm.equals(GRD))
+                        isAllocated = tryAllocateDemandGreedy(algorithm, s, d) != -1;
+                    else
+                        isAllocated = tryAllocateDemand(algorithm, s, d);
+                    if (!isAllocated)
+                        blockedDemands.add(new int[] { s, d });
+                }
+            networkManager.removeUnusedFunctions(s);
+            networkManager.addSyncTraffic(s);
+        }
+        if (!blockedDemands.isEmpty())
+            Auxiliary.printLog(log, WARNING, blockedDemands.size() + " demands blocked");
+        return blockedDemands;
+    }
+
+    // false, without allocating anything, if the initial path and servers of the demand do not have capacity left
+    private boolean keepDemandFromInitialPlacement(int s, int d) {
+        int pInitial = -1;
+        for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
+            if (vars.zSPDinitial[s][p][d]) {
+                pInitial = p;
+                break;
+            }
+        if (pInitial == -1)
+            return false;
+        List<Integer> initialServers = new ArrayList<>();
+        for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++) {
+            for (int x = 0; x < pm.getServers().size(); x++)
+                if (vars.fXSVDinitial[x][s][v][d]) {
+                    initialServers.add(x);
+                    break;
+                }
+            if (initialServers.size() == v)
+                return false;
+        }
+        return networkManager.admitDemand(s, d, pInitial, initialServers);
+    }
+
     private void allocateDemand(String alg, int s, int d) {
+        if (!tryAllocateDemand(alg, s, d)) {
+            // TO-DO blocking
+            Auxiliary.printLog(log, ERROR, "no admissible path available for [s][d] = [" + s + "][" + d + "]");
+            System.exit(-1);
+        }
+    }
+
+    // false, without allocating anything, if no path has link and server resources for the demand
+    private boolean tryAllocateDemand(String alg, int s, int d) {
         // get paths with enough path link resources
-        List<Integer> availablePaths = networkManager.getAvailablePaths(s, d);
+        List<Integer> availablePaths = networkManager.findAvailablePaths(s, d);
         // get paths with enough servers resources
-        Map<Integer, List<List<Integer>>> pathsMapServers = networkManager.findAdmissiblePathsServersMap(availablePaths,
-                s, d);
+        Map<Integer, List<List<Integer>>> pathsMapServers = networkManager.findPathsServersMap(availablePaths, s, d);
+        if (pathsMapServers.isEmpty())
+            return false;
         List<Integer> paths = new ArrayList<>(pathsMapServers.keySet());
         int pChosen = choosePath(alg, s, d, paths, true); // always true, to choose path with lower delay
+        if (pChosen == -1)
+            return false;
         List<List<Integer>> availableServers = pathsMapServers.get(pChosen);
-        List<Integer> chosenServers = chooseServersForAllFunctions(alg, s, d, pChosen, availableServers);
+        List<Integer> chosenServers = findServersForAllFunctions(alg, s, d, pChosen, availableServers);
+        if (chosenServers == null)
+            return false;
         networkManager.addDemandToFunctionsToSpecificServers(s, d, chosenServers);
         networkManager.addDemandToPath(s, pChosen, d);
+        Metrics.heuristicMove();
+        return true;
     }
 
     private int allocateDemandGreedy(String alg, int s, int d) {
-        List<Integer> availablePaths = networkManager.getAvailablePaths(s, d);
+        int pChosen = tryAllocateDemandGreedy(alg, s, d);
+        if (pChosen == -1) {
+            // TO-DO blocking
+            Auxiliary.printLog(log, ERROR, "no admissible path available for [s][d] = [" + s + "][" + d + "]");
+            System.exit(-1);
+        }
+        return pChosen;
+    }
+
+    // chosen path, or -1 without allocating anything if the demand does not fit on any path
+    private int tryAllocateDemandGreedy(String alg, int s, int d) {
+        List<Integer> availablePaths = networkManager.findAvailablePaths(s, d);
         int pChosen = -1;
         for (int p = 0; p < availablePaths.size(); p++) {
             boolean lastTry = false;
@@ -124,6 +212,7 @@ public class HeuristicAlgorithm {
             if (functionServerMapping.size() == pm.getServices().get(s).getFunctions().size()) {
                 pChosen = pTmp;
                 networkManager.addDemandToPath(s, pChosen, d);
+                Metrics.heuristicMove();
                 break;
             } else {
                 for (int v = 0; v < functionServerMapping.size(); v++)
@@ -132,11 +221,6 @@ public class HeuristicAlgorithm {
                 p--;
             }
         }
-        if (pChosen == -1) {
-            // TO-DO blocking
-            Auxiliary.printLog(log, ERROR, "no admissible path available for [s][d] = [" + s + "][" + d + "]");
-            System.exit(-1);
-        }
         return pChosen;
     }
 
@@ -261,6 +345,7 @@ public class HeuristicAlgorithm {
         networkManager.removeSyncTraffic(s);
         networkManager.addSyncTraffic(s);
         vars.generateRestOfVariablesForResults();
+        Metrics.heuristicMove();
     }
 
     private Integer choosePath(String algorithm, int s, int d, List<Integer> paths, boolean lastTry) {
@@ -288,17 +373,26 @@ public class HeuristicAlgorithm {
 
     public List<Integer> chooseServersForAllFunctions(String algorithm, int s, int d, int p,
             List<List<Integer>> listAvailableServersPerFunction) {
+        List<Integer> specificServers = findServersForAllFunctions(algorithm, s, d, p, listAvailableServersPerFunction);
+        if (specificServers == null) {
+            Auxiliary.printLog(log, ERROR,
+                    "functions could not be allocated [s][d][p] = [" + s + "][" + d + "][" + p + "]");
+            System.exit(-1);
+        }
+        return specificServers;
+    }
+
+    // servers for the functions in order along path p, null if a function has no server left after the previous one
+    private List<Integer> findServersForAllFunctions(String algorithm, int s, int d, int p,
+            List<List<Integer>> listAvailableServersPerFunction) {
         List<Integer> specificServers = new ArrayList<>();
         int lastPathNodeUsed = 0;
         for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++) {
             List<Integer> availableServers = listAvailableServersPerFunction.get(v);
             availableServers = removePreviousServersFromNodeIndex(availableServers, lastPathNodeUsed, s, p);
             int xChosen = chooseServerForFunction(algorithm, availableServers, s, v, d, false);
-            if (xChosen == -1) {
-                Auxiliary.printLog(log, ERROR,
-                        "function could not be allocated [s][d][p][v] = [" + s + "][" + d + "][" + p + "][" + v + "]");
-                System.exit(-1);
-            }
+            if (xChosen == -1)
+                return null;
             specificServers.add(xChosen);
             lastPathNodeUsed = networkManager.getNodePathIndexFromServer(s, p, xChosen);
         }
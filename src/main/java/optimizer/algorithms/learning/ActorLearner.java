@@ -0,0 +1,91 @@
+package optimizer.algorithms.learning;
+
+import static optimizer.Definitions.*;
+import static optimizer.results.Auxiliary.printLog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import optimizer.Manager;
+import optimizer.Parameters;
+import optimizer.algorithms.NetworkManager;
+import optimizer.algorithms.VariablesAlg;
+import optimizer.gui.Job;
+import optimizer.results.Auxiliary;
+
+// Actor-learner training of the routing and placement agents: every actor reroutes its own copy of the allocation
+// with its own network manager and adds its experiences to the replay memories of the given agents, which only train,
+// each one on its own thread, and publish their parameters to the actors. The best allocation of the actors that
+// finished is returned.
+public class ActorLearner {
+
+   private static final Logger log = LoggerFactory.getLogger(ActorLearner.class);
+
+   public static VariablesAlg run(Parameters pm, VariablesAlg vars, RoutingModel routingModel,
+         PlacementModel placementModel, double epsilonStarting) {
+      int numActors = (int) pm.getGlobal(DRL_ACTORS, Runtime.getRuntime().availableProcessors());
+      printLog(log, INFO, "DRL running [" + numActors + " actors]");
+      // actors copy the networks of the agents, so they are created before these start learning
+      List<RoutingModel> actors = new ArrayList<>();
+      List<VariablesAlg> actorVars = new ArrayList<>();
+      for (int i = 0; i < numActors; i++) {
+         VariablesAlg variablesAlg = new VariablesAlg(vars);
+         NetworkManager networkManager = new NetworkManager(pm, variablesAlg);
+         PlacementModel actorPlacementModel = new PlacementModel(placementModel, variablesAlg, networkManager);
+         actors.add(new RoutingModel(routingModel, variablesAlg, networkManager, actorPlacementModel));
+         actorVars.add(variablesAlg);
+      }
+      routingModel.startLearning();
+      placementModel.startLearning();
+      ExecutorService executor = Executors.newFixedThreadPool(numActors);
+      List<Future<Double>> futures = new ArrayList<>();
+      for (RoutingModel actor : actors)
+         futures.add(executor.submit(Job.bind(() -> actor.run(epsilonStarting))));
+      // actors are collected as they finish, a failed one does not discard the others
+      VariablesAlg bestVars = null;
+      boolean[] isCollected = new boolean[numActors];
+      int collected = 0;
+      try {
+         while (collected < numActors) {
+            if (Manager.isInterrupted()) {
+               printLog(log, WARNING, "interrupted [" + collected + "/" + numActors + " actors finished]");
+               break;
+            }
+            for (int i = 0; i < numActors; i++) {
+               if (isCollected[i] || !futures.get(i).isDone())
+                  continue;
+               isCollected[i] = true;
+               collected++;
+               try {
+                  futures.get(i).get();
+               } catch (ExecutionException e) {
+                  printLog(log, ERROR, "actor " + i + " failed [" + e.getCause() + "]");
+                  continue;
+               }
+               VariablesAlg variablesAlg = actorVars.get(i);
+               if (bestVars == null || variablesAlg.objVal < bestVars.objVal)
+                  bestVars = variablesAlg;
+            }
+            if (collected < numActors)
+               Thread.sleep(LEARNER_WAIT);
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      } finally {
+         // stops the actors that are still running
+         executor.shutdownNow();
+         routingModel.stopLearning();
+         placementModel.stopLearning();
+      }
+      if (bestVars != null)
+         printLog(log, INFO, "finished [" + Auxiliary.roundDouble(bestVars.objVal, 4) + "]");
+      return bestVars;
+   }
+}
@@ -2,30 +2,66 @@ package optimizer.algorithms.learning;
 
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
+import optimizer.Parameters;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.Random;
 
+import static optimizer.Definitions.*;
+import static optimizer.results.Auxiliary.printLog;
+
 class DeepQ {
 
+   private static final Logger log = LoggerFactory.getLogger(DeepQ.class);
+
    private MultiLayerNetwork multiLayerNetwork, targetMultiLayerNetwork;
-   private List<Experience> experiences;
-   private int startSize, batchSize, freq, inputLength, memoryCapacity, lastAction, counter;
+   private ReplayBuffer replayBuffer;
+   private int startSize, batchSize, freq, inputLength, lastAction, counter;
    private float discount;
    private Random rnd;
+   // without training experiences are neither stored nor learned from
+   private boolean isTraining = true;
+   // minibatch buffers, reused while the batch size does not change
+   private int[] batchSlots, batchActions;
+   private float[] batchInputs, batchNextInputs, batchRewards;
+   private boolean[] batchIsTerminal;
+   private int[][] batchNextActionMasks;
+   private INDArray batchInputIndArray, batchNextInputIndArray;
+   // prioritized replay, null when sampling is uniform
+   private SumTree priorities;
+   private double[] batchWeights, batchPriorities;
+   private long[] batchSerials;
+   private int sampledBatches;
+   // actor-learner mode: actors share the replay memory of the learner, which trains on its own thread and publishes
+   // its parameters every freq updates to its target network and to the actors. The replay memory is guarded by itself.
+   private DeepQ learner;
+   private Thread learnerThread;
+   private volatile boolean isLearning;
+   private volatile INDArray publishedParams;
+   private volatile int publishedVersion;
+   private int version;
 
    DeepQ(MultiLayerConfiguration conf, int memoryCapacity, float discount, int batchSize, int freq, int startSize,
-         int inputLength) {
+         int inputLength, boolean prioritizedReplay) {
       this.multiLayerNetwork = new MultiLayerNetwork(conf);
       this.multiLayerNetwork.init();
       this.targetMultiLayerNetwork = new MultiLayerNetwork(conf);
       this.targetMultiLayerNetwork.init();
       this.targetMultiLayerNetwork.setParams(multiLayerNetwork.params());
-      this.experiences = new ArrayList<>();
-      this.memoryCapacity = memoryCapacity;
+      this.replayBuffer = new ReplayBuffer(memoryCapacity, inputLength);
       this.discount = discount;
       this.batchSize = batchSize;
       this.freq = freq;
@@ -34,9 +70,24 @@ class DeepQ {
       this.lastAction = -1;
       this.counter = 0;
       this.rnd = new Random();
+      if (prioritizedReplay)
+         this.priorities = new SumTree(memoryCapacity);
+   }
+
+   // actor of the given learner, which must not be learning yet
+   DeepQ(DeepQ learner) {
+      this.learner = learner;
+      this.multiLayerNetwork = learner.multiLayerNetwork.clone();
+      this.replayBuffer = learner.replayBuffer;
+      this.priorities = learner.priorities;
+      this.inputLength = learner.inputLength;
+      this.lastAction = -1;
+      this.rnd = new Random();
    }
 
    int getAction(INDArray input, int[] actionMask, double epsilon) {
+      if (learner != null)
+         updateParams();
       INDArray indArrayOutput = multiLayerNetwork.output(input);
       if (epsilon > rnd.nextDouble()) {
          boolean isValid = false;
@@ -75,11 +126,21 @@ class DeepQ {
       return maxValue;
    }
 
-   void observeReward(INDArray inputIndArray, INDArray nextInputIndArray, double reward, int[] nextActionMask) {
-      if (experiences.size() >= memoryCapacity)
-         experiences.remove(rnd.nextInt(experiences.size()));
-      experiences.add(new Experience(inputIndArray, nextInputIndArray, lastAction, (float) reward, nextActionMask));
-      if (startSize < experiences.size())
+   void observeReward(float[] input, float[] nextInput, double reward, int[] nextActionMask) {
+      if (!isTraining)
+         return;
+      int replaySize;
+      synchronized (replayBuffer) {
+         int slot = replayBuffer.add(input, nextInput, lastAction, (float) reward, nextActionMask);
+         // new experiences get the highest priority so that they are sampled at least once
+         if (priorities != null)
+            priorities.set(slot, priorities.getMaxPriority());
+         replaySize = replayBuffer.size();
+      }
+      // actors and a running learner leave the training to the learner thread
+      if (learner != null || isLearning)
+         return;
+      if (startSize < replaySize)
          trainNetwork();
       counter++;
       if (counter == freq) {
@@ -88,43 +149,250 @@ class DeepQ {
       }
    }
 
-   private void trainNetwork() {
-      Experience[] experiences = getBatch();
-      INDArray combinedLastInputs = combineInputs(experiences);
-      INDArray combinedNextInputs = combineNextInputs(experiences);
-      INDArray currentOutput = multiLayerNetwork.output(combinedLastInputs);
-      INDArray targetOutput = targetMultiLayerNetwork.output(combinedNextInputs);
-      for (int i = 0; i < experiences.length; i++) {
-         float futureReward = 0;
-         if (experiences[i].getNextInputIndArray() != null)
-            futureReward = findMaxValue(targetOutput.getRow(i), experiences[i].getNextActionMask());
-         float targetReward = experiences[i].getReward() + discount * futureReward;
-         int[] actionScalar = { i, experiences[i].getAction() };
-         currentOutput.putScalar(actionScalar, targetReward);
+   void setTraining(boolean isTraining) {
+      this.isTraining = isTraining;
+   }
+
+   boolean isTraining() {
+      return isTraining;
+   }
+
+   void saveCheckpoint(String folder, String name) {
+      try {
+         save(folder + "/" + name);
+         printLog(log, INFO, "drl checkpoint saved [" + name + "]");
+      } catch (IOException e) {
+         printLog(log, ERROR, "error saving drl checkpoint [" + name + "]: " + e.getMessage());
       }
-      multiLayerNetwork.fit(combinedLastInputs, currentOutput);
    }
 
-   private Experience[] getBatch() {
-      int size = experiences.size() < batchSize ? experiences.size() : batchSize;
-      Experience[] batch = new Experience[size];
-      for (int i = 0; i < size; i++)
-         batch[i] = experiences.get(this.rnd.nextInt(experiences.size()));
-      return batch;
+   // from the folder given in drl_checkpoint. With drl_inference the loaded policy is run greedily and nothing is
+   // learned, so neither is the replay memory loaded
+   void loadCheckpoint(Parameters pm, String name) {
+      isTraining = !(boolean) pm.getGlobal(DRL_INFERENCE, false);
+      String folder = (String) pm.getGlobal(DRL_CHECKPOINT, null);
+      if (folder == null) {
+         if (!isTraining)
+            printLog(log, WARNING, "drl inference without checkpoint");
+         return;
+      }
+      try {
+         if (load(folder + "/" + name))
+            printLog(log, INFO, "drl checkpoint loaded [" + name + "]");
+         else
+            printLog(log, WARNING, "no matching drl checkpoint [" + name + "] in " + folder);
+      } catch (IOException e) {
+         printLog(log, ERROR, "error loading drl checkpoint [" + name + "]: " + e.getMessage());
+      }
+   }
+
+   // network, with its updater, into path.zip and replay memory into path.replay
+   private void save(String path) throws IOException {
+      ModelSerializer.writeModel(multiLayerNetwork, new File(path + ".zip"), true);
+      try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(path + ".replay"), JSON_BUFFER_SIZE))) {
+         synchronized (replayBuffer) {
+            replayBuffer.write(out);
+            out.writeBoolean(priorities != null);
+            if (priorities != null)
+               for (int slot = 0; slot < replayBuffer.size(); slot++)
+                  out.writeDouble(priorities.get(slot));
+         }
+      }
+   }
+
+   // false if there is no network at path or it does not have the configuration of this one, the replay memory is
+   // loaded when training if it exists and has the capacity and input length of this one
+   private boolean load(String path) throws IOException {
+      File networkFile = new File(path + ".zip");
+      if (!networkFile.exists())
+         return false;
+      MultiLayerNetwork network = ModelSerializer.restoreMultiLayerNetwork(networkFile, true);
+      if (!isSameConfiguration(network.getLayerWiseConfigurations(), multiLayerNetwork.getLayerWiseConfigurations()))
+         return false;
+      multiLayerNetwork = network;
+      targetMultiLayerNetwork.setParams(multiLayerNetwork.params());
+      File replayFile = new File(path + ".replay");
+      if (!isTraining || !replayFile.exists())
+         return true;
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(replayFile)))) {
+         synchronized (replayBuffer) {
+            if (!replayBuffer.read(in))
+               return true;
+            // experiences saved without priorities get the initial one
+            boolean hasPriorities = in.readBoolean();
+            for (int slot = 0; slot < replayBuffer.size(); slot++) {
+               double priority = hasPriorities ? in.readDouble() : 1;
+               if (priorities != null)
+                  priorities.set(slot, priority);
+            }
+         }
+      }
+      return true;
    }
 
-   private INDArray combineInputs(Experience[] actionArray) {
-      INDArray combinedLastInputs = Nd4j.create(actionArray.length, inputLength);
-      for (int i = 0; i < actionArray.length; i++)
-         combinedLastInputs.putRow(i, actionArray[i].getInputIndArray());
-      return combinedLastInputs;
+   // layers, sizes and hyperparameters, regardless of how many iterations the network was trained
+   private boolean isSameConfiguration(MultiLayerConfiguration conf, MultiLayerConfiguration otherConf) {
+      MultiLayerConfiguration confCopy = conf.clone();
+      MultiLayerConfiguration otherConfCopy = otherConf.clone();
+      confCopy.setIterationCount(0);
+      otherConfCopy.setIterationCount(0);
+      return confCopy.toJson().equals(otherConfCopy.toJson());
    }
 
-   private INDArray combineNextInputs(Experience[] actionArray) {
-      INDArray combinedNextInputs = Nd4j.create(actionArray.length, inputLength);
-      for (int i = 0; i < actionArray.length; i++)
-         if (actionArray[i].getNextInputIndArray() != null)
-            combinedNextInputs.putRow(i, actionArray[i].getNextInputIndArray());
-      return combinedNextInputs;
+   // trains on its own thread from the experiences observed by the actors until stopLearning is called, nothing is
+   // trained in inference
+   void startLearning() {
+      if (!isTraining)
+         return;
+      publishParams();
+      isLearning = true;
+      learnerThread = new Thread(() -> {
+         long experiencesAtStart;
+         synchronized (replayBuffer) {
+            experiencesAtStart = replayBuffer.getAdded();
+         }
+         long updates = 0;
+         while (isLearning) {
+            int replaySize;
+            long experiences;
+            synchronized (replayBuffer) {
+               replaySize = replayBuffer.size();
+               experiences = replayBuffer.getAdded() - experiencesAtStart;
+            }
+            // as many updates per new experience as without actors, so the networks do not overfit the replay memory
+            if (replaySize <= startSize || updates >= experiences * LEARNER_UPDATES_PER_EXPERIENCE) {
+               try {
+                  Thread.sleep(LEARNER_WAIT);
+               } catch (InterruptedException e) {
+                  break;
+               }
+               continue;
+            }
+            trainNetwork();
+            updates++;
+            if (updates % freq == 0) {
+               targetMultiLayerNetwork.setParams(multiLayerNetwork.params());
+               publishParams();
+            }
+         }
+      }, "drl-learner");
+      learnerThread.setDaemon(true);
+      learnerThread.start();
+   }
+
+   void stopLearning() {
+      if (learnerThread == null)
+         return;
+      isLearning = false;
+      try {
+         learnerThread.join();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+      learnerThread = null;
+      targetMultiLayerNetwork.setParams(multiLayerNetwork.params());
+      publishParams();
+   }
+
+   private void publishParams() {
+      publishedParams = multiLayerNetwork.params().dup();
+      publishedVersion++;
+   }
+
+   // parameters last published by the learner
+   private void updateParams() {
+      int latestVersion = learner.publishedVersion;
+      if (latestVersion != version && learner.publishedParams != null) {
+         multiLayerNetwork.setParams(learner.publishedParams);
+         version = latestVersion;
+      }
+   }
+
+   private void trainNetwork() {
+      // experiences are copied out of the replay memory, whose slots can be overwritten by actors meanwhile
+      synchronized (replayBuffer) {
+         sampleBatch();
+         replayBuffer.gather(batchSlots, batchInputs, batchNextInputs);
+         for (int i = 0; i < batchSlots.length; i++) {
+            int slot = batchSlots[i];
+            batchSerials[i] = replayBuffer.getSerial(slot);
+            batchActions[i] = replayBuffer.getAction(slot);
+            batchRewards[i] = replayBuffer.getReward(slot);
+            batchIsTerminal[i] = replayBuffer.isTerminal(slot);
+            int[] nextActionMask = replayBuffer.getNextActionMask(slot);
+            if (batchIsTerminal[i] || nextActionMask == null)
+               continue;
+            if (batchNextActionMasks[i] == null || batchNextActionMasks[i].length != nextActionMask.length)
+               batchNextActionMasks[i] = new int[nextActionMask.length];
+            System.arraycopy(nextActionMask, 0, batchNextActionMasks[i], 0, nextActionMask.length);
+         }
+      }
+      batchInputIndArray.data().setData(batchInputs);
+      batchNextInputIndArray.data().setData(batchNextInputs);
+      INDArray currentOutput = multiLayerNetwork.output(batchInputIndArray);
+      INDArray targetOutput = targetMultiLayerNetwork.output(batchNextInputIndArray);
+      for (int i = 0; i < batchSlots.length; i++) {
+         float futureReward = 0;
+         if (!batchIsTerminal[i])
+            futureReward = findMaxValue(targetOutput.getRow(i), batchNextActionMasks[i]);
+         float targetReward = batchRewards[i] + discount * futureReward;
+         if (priorities != null) {
+            // the error is scaled by the importance sampling weight, which scales the gradient of the squared error
+            float currentReward = currentOutput.getFloat(i, batchActions[i]);
+            float error = targetReward - currentReward;
+            targetReward = currentReward + (float) batchWeights[i] * error;
+            batchPriorities[i] = Math.pow(Math.abs(error) + PRIORITY_EPSILON, PRIORITY_ALPHA);
+         }
+         currentOutput.putScalar(i, batchActions[i], targetReward);
+      }
+      // slots overwritten by actors meanwhile keep the priority of their new experience
+      if (priorities != null)
+         synchronized (replayBuffer) {
+            for (int i = 0; i < batchSlots.length; i++)
+               if (replayBuffer.getSerial(batchSlots[i]) == batchSerials[i])
+                  priorities.set(batchSlots[i], batchPriorities[i]);
+         }
+      multiLayerNetwork.fit(batchInputIndArray, currentOutput);
+   }
+
+   // uniform with replacement or, with prioritized replay, proportional to the priorities
+   private void sampleBatch() {
+      int size = replayBuffer.size() < batchSize ? replayBuffer.size() : batchSize;
+      if (batchSlots == null || batchSlots.length != size) {
+         batchSlots = new int[size];
+         batchActions = new int[size];
+         batchInputs = new float[size * inputLength];
+         batchNextInputs = new float[size * inputLength];
+         batchRewards = new float[size];
+         batchIsTerminal = new boolean[size];
+         batchNextActionMasks = new int[size][];
+         batchInputIndArray = Nd4j.create(size, inputLength);
+         batchNextInputIndArray = Nd4j.create(size, inputLength);
+         batchWeights = new double[size];
+         batchPriorities = new double[size];
+         batchSerials = new long[size];
+      }
+      if (priorities == null) {
+         for (int i = 0; i < size; i++)
+            batchSlots[i] = rnd.nextInt(replayBuffer.size());
+         return;
+      }
+      // one sample per segment of equal priority mass, weights are normalized by the largest one of the batch. The
+      // bias of the sampling is corrected more and more as the network converges, fully at the end of the annealing.
+      double annealing = Math.min(1.0, (double) sampledBatches++ / PRIORITY_BETA_UPDATES);
+      double beta = PRIORITY_BETA + (1 - PRIORITY_BETA) * annealing;
+      double total = priorities.total();
+      double segment = total / size;
+      double maxWeight = 0;
+      for (int i = 0; i < size; i++) {
+         batchSlots[i] = priorities.find((i + rnd.nextDouble()) * segment);
+         double probability = priorities.get(batchSlots[i]) / total;
+         batchWeights[i] = Math.pow(replayBuffer.size() * probability, -beta);
+         if (batchWeights[i] > maxWeight)
+            maxWeight = batchWeights[i];
+      }
+      for (int i = 0; i < size; i++)
+         batchWeights[i] /= maxWeight;
    }
-}
\ No newline at end of file
+}
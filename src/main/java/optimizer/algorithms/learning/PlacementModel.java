@@ -2,7 +2,7 @@ package optimizer.algorithms.learning;
 
 import static optimizer.Definitions.*;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +24,7 @@ import optimizer.Parameters;
 import optimizer.algorithms.NetworkManager;
 import optimizer.algorithms.VariablesAlg;
 import optimizer.results.Auxiliary;
+import optimizer.results.ResultsManager;
 
 public class PlacementModel {
    protected Parameters pm;
@@ -36,6 +37,11 @@ public class PlacementModel {
    private float previousObjVal;
    private Map<String, Double> epsilons;
    private NetworkManager heu;
+   // state buffers reused at every step, the network input is copied from the current one
+   private float[] environment, nextEnvironment;
+   private int[] actionMask;
+   private INDArray inputIndArray;
+   private boolean isInferenceOnly;
 
    private static final Logger log = LoggerFactory.getLogger(PlacementModel.class);
 
@@ -48,10 +54,35 @@ public class PlacementModel {
       offsetInput = 5;
       int inputLength = environmentSize + offsetInput;
       int outputLength = environmentSize;
+      initializeBuffers(inputLength);
       if (conf == null)
          initializeModel(inputLength, outputLength);
       else
          initializeModel(conf, inputLength);
+      deepQ.loadCheckpoint(pm, PLACEMENT_DRL_CHECKPOINT);
+      isInferenceOnly = !deepQ.isTraining();
+   }
+
+   // actor working on its own variables that shares the replay memory and the parameters of the agent of learnerModel
+   PlacementModel(PlacementModel learnerModel, VariablesAlg variablesAlg, NetworkManager heu) {
+      this.pm = learnerModel.pm;
+      this.vars = variablesAlg;
+      this.heu = heu;
+      this.conf = learnerModel.conf;
+      epsilons = new HashMap<>();
+      environmentSize = learnerModel.environmentSize;
+      offsetInput = learnerModel.offsetInput;
+      initializeBuffers(environmentSize + offsetInput);
+      deepQ = new DeepQ(learnerModel.deepQ);
+      isInferenceOnly = learnerModel.isInferenceOnly;
+      deepQ.setTraining(!isInferenceOnly);
+   }
+
+   private void initializeBuffers(int inputLength) {
+      environment = new float[inputLength];
+      nextEnvironment = new float[inputLength];
+      actionMask = new int[environmentSize + 1];
+      inputIndArray = Nd4j.create(1, inputLength);
    }
 
    private void initializeModel(int inputLength, int outputLength) {
@@ -63,45 +94,48 @@ public class PlacementModel {
             .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MSE).nIn(NUM_HIDDEN_LAYERS).nOut(outputLength)
                   .weightInit(WeightInit.XAVIER).activation(Activation.IDENTITY).build())
             .build();
-      deepQ = new DeepQ(conf, MEMORY_CAPACITY, DISCOUNT_FACTOR, BATCH_SIZE, FREQUENCY, START_SIZE, inputLength);
+      deepQ = new DeepQ(conf, MEMORY_CAPACITY, DISCOUNT_FACTOR, BATCH_SIZE, FREQUENCY, START_SIZE, inputLength,
+            (boolean) pm.getGlobal(PRIORITIZED_REPLAY, false));
    }
 
    private void initializeModel(String confString, int inputLength) {
       MultiLayerConfiguration conf = MultiLayerConfiguration.fromJson(confString);
       this.conf = conf;
-      deepQ = new DeepQ(conf, MEMORY_CAPACITY, DISCOUNT_FACTOR, BATCH_SIZE, FREQUENCY, START_SIZE, inputLength);
+      deepQ = new DeepQ(conf, MEMORY_CAPACITY, DISCOUNT_FACTOR, BATCH_SIZE, FREQUENCY, START_SIZE, inputLength,
+            (boolean) pm.getGlobal(PRIORITIZED_REPLAY, false));
    }
 
    public boolean run(int s, int d, int p, float bestGlobalObjVal) {
 
       this.bestGlobalObjVal = bestGlobalObjVal;
       previousObjVal = bestGlobalObjVal;
-      float[] environment = createEnvironment(s, d, p);
-      float[] nextEnvironment;
+      createEnvironment(environment, s, d, p);
       String epsilonKey = String.valueOf(s) + String.valueOf(d) + String.valueOf(p);
       if (!epsilons.containsKey(epsilonKey))
-         epsilons.put(epsilonKey, 1.0);
+         epsilons.put(epsilonKey, isInferenceOnly ? 0.0 : 1.0);
 
       List<List<Integer>> availableServersPerFunction = heu.findServersForFunctionsInPath(s, d, p);
       if (availableServersPerFunction != null) {
          int i = 0;
          int repetitions = 0;
+         // available servers do not change while placing on the same path, so neither does the mask
+         generateActionMask(actionMask, s, availableServersPerFunction);
 
          while (true) {
-            INDArray inputIndArray = Nd4j.create(environment);
-            int[] actionMask = generateActionMask(environment, s, availableServersPerFunction);
+            inputIndArray.data().setData(environment);
             int action = deepQ.getAction(inputIndArray, actionMask, epsilons.get(epsilonKey));
             // generate next environment of on the new chosen path
-            nextEnvironment = modifyEnvironment(environment, action, i, s, d);
+            modifyEnvironment(environment, nextEnvironment, action, i, s, d);
             // calculate new objective value
             vars.generateRestOfVariablesForResults();
             // update new objective value to the next environment
             nextEnvironment[nextEnvironment.length - 2] = (float) vars.objVal;
             // calculate the reward and create a new experience
             float reward = computeReward();
-            int[] nextActionMask = generateActionMask(nextEnvironment, s, availableServersPerFunction);
-            deepQ.observeReward(Nd4j.create(environment), Nd4j.create(nextEnvironment), reward, nextActionMask);
+            deepQ.observeReward(environment, nextEnvironment, reward, actionMask);
+            float[] environmentBuffer = environment;
             environment = nextEnvironment;
+            nextEnvironment = environmentBuffer;
             i++;
             log.info("placement iteration " + i + ": [" + vars.objVal + "][" + reward + "][" + action + "]");
             previousObjVal = (float) vars.objVal;
@@ -126,67 +160,48 @@ public class PlacementModel {
       }
    }
 
-   private float[] createEnvironment(int s, int d, int p) {
-      float[] environment = new float[environmentSize + offsetInput];
-      List<Float> environmentList = new ArrayList<>();
-
-      for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
-         for (int x = 0; x < pm.getServers().size(); x++) {
-            float value = vars.fXSVD[x][s][v][d] ? 1 : 0;
-            environmentList.add(value);
-         }
-
-      for (int i = 0; i < environmentList.size(); i++)
-         environment[i] = environmentList.get(i);
+   // entries are by function and server, action v * servers + x places function v on server x
+   private void createEnvironment(float[] environment, int s, int d, int p) {
+      int numServers = pm.getServers().size();
+      int numFunctions = pm.getServices().get(s).getFunctions().size();
+      for (int v = 0; v < numFunctions; v++)
+         for (int x = 0; x < numServers; x++)
+            environment[v * numServers + x] = vars.fXSVD[x][s][v][d] ? 1 : 0;
+      for (int i = numFunctions * numServers; i < environmentSize; i++)
+         environment[i] = 0;
 
       environment[environment.length - 5] = s;
       environment[environment.length - 4] = d;
       environment[environment.length - 3] = p;
       environment[environment.length - 2] = (float) vars.objVal;
       environment[environment.length - 1] = 0;
-      return environment;
    }
 
-   private int[] generateActionMask(float[] environment, int s, List<List<Integer>> availableServersPerFunction) {
-
-      int[] actionMask = new int[environment.length + 1 - offsetInput];
-      int index = 0;
-
-      for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
-         for (int x = 0; x < pm.getServers().size(); x++) {
-            if (availableServersPerFunction.get(v).contains(x))
-               actionMask[index] = 1;
-            index++;
-         }
-
+   private void generateActionMask(int[] actionMask, int s, List<List<Integer>> availableServersPerFunction) {
+      int numServers = pm.getServers().size();
+      int numFunctions = pm.getServices().get(s).getFunctions().size();
+      Arrays.fill(actionMask, 0);
+      for (int v = 0; v < numFunctions; v++)
+         for (Integer x : availableServersPerFunction.get(v))
+            actionMask[v * numServers + x] = 1;
       actionMask[actionMask.length - 1] = 1; // last action to not perform any action
-      return actionMask;
    }
 
-   float[] modifyEnvironment(float[] environment, int action, int timeStep, int s, int d) {
-
-      float[] nextEnvironment = environment.clone();
-      int initialFunctionServerIndex = 0, index = 0, vChosen = 0;
-      int notActionIndex = (environment.length - 1) + 1 - offsetInput;
+   void modifyEnvironment(float[] environment, float[] nextEnvironment, int action, int timeStep, int s, int d) {
+      System.arraycopy(environment, 0, nextEnvironment, 0, environment.length);
+      int notActionIndex = environmentSize;
 
       nextEnvironment[nextEnvironment.length - 1] = timeStep;
 
       if (action == notActionIndex)
-         return nextEnvironment;
+         return;
 
-      outerLoop: for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++) {
-         for (int x = 0; x < pm.getServers().size(); x++) {
-            if (action == index) {
-               vChosen = v;
-               break outerLoop;
-            }
-            index++;
-         }
-         initialFunctionServerIndex += pm.getServers().size();
-      }
+      int numServers = pm.getServers().size();
+      int vChosen = action / numServers;
+      int initialFunctionServerIndex = vChosen * numServers;
 
       int xOld = -1, xNew = -1;
-      for (int x = 0; x < pm.getServers().size(); x++)
+      for (int x = 0; x < numServers; x++)
          if (initialFunctionServerIndex + x == action) {
             if (nextEnvironment[initialFunctionServerIndex + x] == 0)
                nextEnvironment[initialFunctionServerIndex + x] = 1;
@@ -203,8 +218,6 @@ public class PlacementModel {
       // modify variables based on the taken action
       heu.removeDemandToFunctionToServer(s, xOld, vChosen, d);
       heu.addDemandToFunctionToServer(s, xNew, vChosen, d);
-
-      return nextEnvironment;
    }
 
    private float computeReward() {
@@ -219,6 +232,20 @@ public class PlacementModel {
          return -1;
    }
 
+   void startLearning() {
+      deepQ.startLearning();
+   }
+
+   void stopLearning() {
+      deepQ.stopLearning();
+   }
+
+   // weights and replay memory of the agent into the results folder, a later run loads them from the folder given in
+   // drl_checkpoint
+   public void saveCheckpoint(ResultsManager resultsManager) {
+      deepQ.saveCheckpoint(resultsManager.getResultsFolder(), PLACEMENT_DRL_CHECKPOINT);
+   }
+
    public MultiLayerConfiguration getConf() {
       return conf;
    }
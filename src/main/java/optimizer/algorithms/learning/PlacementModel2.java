@@ -2,6 +2,7 @@ package optimizer.algorithms.learning;
 
 import static optimizer.Definitions.*;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +25,7 @@ import optimizer.algorithms.NetworkManager;
 import optimizer.algorithms.VariablesAlg;
 import optimizer.algorithms.heuristics.HeuristicAlgorithm;
 import optimizer.results.Auxiliary;
+import optimizer.results.ResultsManager;
 
 public class PlacementModel2 {
    protected Parameters pm;
@@ -37,6 +39,11 @@ public class PlacementModel2 {
    private Map<String, Integer> optimumPaths;
    private int outputLength;
    private int inputLength;
+   // state buffers reused at every step, the network input is copied from the current one
+   private float[] environment, nextEnvironment;
+   private int[] actionMask;
+   private INDArray inputIndArray;
+   private boolean isInferenceOnly;
 
    private static final Logger log = LoggerFactory.getLogger(PlacementModel2.class);
 
@@ -49,12 +56,18 @@ public class PlacementModel2 {
       offsetInput = 5;
       inputLength = pm.getServers().size() + offsetInput;
       outputLength = pm.getServers().size() + 1;
+      environment = new float[inputLength];
+      nextEnvironment = new float[inputLength];
+      actionMask = new int[outputLength];
+      inputIndArray = Nd4j.create(1, inputLength);
       epsilons = new HashMap<>();
       optimumPaths = new HashMap<>();
       if (conf == null)
          initializeModel(inputLength, outputLength);
       else
          initializeModel(conf, inputLength);
+      deepQ.loadCheckpoint(pm, PLACEMENT2_DRL_CHECKPOINT);
+      isInferenceOnly = !deepQ.isTraining();
    }
 
    private void initializeModel(int inputLength, int outputLength) {
@@ -66,13 +79,15 @@ public class PlacementModel2 {
             .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MSE).nIn(NUM_HIDDEN_LAYERS).nOut(outputLength)
                   .weightInit(WeightInit.XAVIER).activation(Activation.IDENTITY).build())
             .build();
-      deepQ = new DeepQ(conf, MEMORY_CAPACITY, DISCOUNT_FACTOR, BATCH_SIZE, FREQUENCY, START_SIZE, inputLength);
+      deepQ = new DeepQ(conf, MEMORY_CAPACITY, DISCOUNT_FACTOR, BATCH_SIZE, FREQUENCY, START_SIZE, inputLength,
+            (boolean) pm.getGlobal(PRIORITIZED_REPLAY, false));
    }
 
    private void initializeModel(String confString, int inputLength) {
       MultiLayerConfiguration conf = MultiLayerConfiguration.fromJson(confString);
       this.conf = conf;
-      deepQ = new DeepQ(conf, MEMORY_CAPACITY, DISCOUNT_FACTOR, BATCH_SIZE, FREQUENCY, START_SIZE, inputLength);
+      deepQ = new DeepQ(conf, MEMORY_CAPACITY, DISCOUNT_FACTOR, BATCH_SIZE, FREQUENCY, START_SIZE, inputLength,
+            (boolean) pm.getGlobal(PRIORITIZED_REPLAY, false));
    }
 
    public void run(String algorithm) {
@@ -142,24 +157,25 @@ public class PlacementModel2 {
             * pm.getServices().get(s).getFunctions().size(); j++)
          for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++) {
             String epsilonKey = String.valueOf(s) + String.valueOf(d) + String.valueOf(p) + String.valueOf(v);
-            float[] environment = createEnvironment(s, d, v, p);
-            float[] nextEnvironment;
+            createEnvironment(environment, s, d, v, p);
             List<Integer> availableServers = availableServersPerFunction.get(v);
             int possibleActions = availableServers.size() + 1;
+            // available servers do not change while placing the same function, so neither does the mask
+            generateActionMask(actionMask, availableServers);
             for (int i = 0; i < possibleActions * possibleActions; i++) {
-               INDArray inputIndArray = Nd4j.create(environment);
-               int[] actionMask = generateActionMask(environment, s, availableServers);
+               inputIndArray.data().setData(environment);
                int action = deepQ.getAction(inputIndArray, actionMask, epsilons.get(epsilonKey));
-               nextEnvironment = modifyEnvironment(environment, action, s, d, v);
+               modifyEnvironment(environment, nextEnvironment, action, s, d, v);
                networkManager.removeUnusedFunctions(s);
                networkManager.removeSyncTraffic(s);
                networkManager.addSyncTraffic(s);
                vars.generateRestOfVariablesForResults();
                float currentObjVal = (float) vars.getObjVal();
                float reward = computeReward(currentObjVal, localBestObjVal);
-               int[] nextActionMask = generateActionMask(nextEnvironment, s, availableServers);
-               deepQ.observeReward(Nd4j.create(environment), Nd4j.create(nextEnvironment), reward, nextActionMask);
+               deepQ.observeReward(environment, nextEnvironment, reward, actionMask);
+               float[] environmentBuffer = environment;
                environment = nextEnvironment;
+               nextEnvironment = environmentBuffer;
                log.info("[s][d][p][v] - [" + s + "][" + d + "][" + p + "][" + v + "] placement iteration " + i + ": ["
                      + vars.objVal + "][" + reward + "][" + action + "]");
                if (currentObjVal < localBestObjVal) { // best case => reduce randomness to 0 and exit
@@ -173,7 +189,7 @@ public class PlacementModel2 {
                   else
                      break;
                } else {
-                  if (epsilons.get(epsilonKey) < 1) // worse solution, increase randomness
+                  if (!isInferenceOnly && epsilons.get(epsilonKey) < 1) // worse solution, increase randomness
                      epsilons.put(epsilonKey,
                            Auxiliary.roundDouble(epsilons.get(epsilonKey) + (double) pm.getGlobal(EPSILON_STEPPER), 1));
                }
@@ -182,9 +198,7 @@ public class PlacementModel2 {
       return localBestObjVal;
    }
 
-   private float[] createEnvironment(int s, int d, int v, int p) {
-      float[] environment = new float[inputLength];
-
+   private void createEnvironment(float[] environment, int s, int d, int v, int p) {
       int srcNode = -1, dstNode = -1;
       for (int x = 0; x < pm.getServers().size(); x++) {
          environment[x] = vars.fXSVD[x][s][v][d] ? 1 : 0;
@@ -199,30 +213,20 @@ public class PlacementModel2 {
       environment[environment.length - 3] = pm.getServices().get(s).getTrafficFlow().getDemands().get(d);
       environment[environment.length - 2] = p;
       environment[environment.length - 1] = v;
-      return environment;
    }
 
-   private int[] generateActionMask(float[] environment, int s, List<Integer> availableServers) {
-
-      int[] actionMask = new int[outputLength];
-      int index = 0;
-
-      for (int x = 0; x < pm.getServers().size(); x++) {
-         if (availableServers.contains(x))
-            actionMask[index] = 1;
-         index++;
-      }
-
+   private void generateActionMask(int[] actionMask, List<Integer> availableServers) {
+      Arrays.fill(actionMask, 0);
+      for (Integer x : availableServers)
+         actionMask[x] = 1;
       actionMask[actionMask.length - 1] = 1; // last action to not perform any action
-      return actionMask;
    }
 
-   float[] modifyEnvironment(float[] environment, int action, int s, int d, int v) {
-
-      float[] nextEnvironment = environment.clone();
+   void modifyEnvironment(float[] environment, float[] nextEnvironment, int action, int s, int d, int v) {
+      System.arraycopy(environment, 0, nextEnvironment, 0, environment.length);
 
       if (action == outputLength - 1)
-         return nextEnvironment;
+         return;
 
       int xOld = -1, xNew = -1;
       for (int x = 0; x < pm.getServers().size(); x++)
@@ -243,7 +247,6 @@ public class PlacementModel2 {
       if (xOld != -1)
          networkManager.removeDemandToFunctionToServer(s, xOld, v, d);
       networkManager.addDemandToFunctionToServer(s, xNew, v, d);
-      return nextEnvironment;
    }
 
    private float computeReward(float currentObjVal, float bestObjVal) {
@@ -277,7 +280,14 @@ public class PlacementModel2 {
          for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
             for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
                for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
-                  epsilons.put(String.valueOf(s) + String.valueOf(d) + String.valueOf(p) + String.valueOf(v), 1.0);
+                  epsilons.put(String.valueOf(s) + String.valueOf(d) + String.valueOf(p) + String.valueOf(v),
+                        isInferenceOnly ? 0.0 : 1.0);
+   }
+
+   // weights and replay memory of the agent into the results folder, a later run loads them from the folder given in
+   // drl_checkpoint
+   public void saveCheckpoint(ResultsManager resultsManager) {
+      deepQ.saveCheckpoint(resultsManager.getResultsFolder(), PLACEMENT2_DRL_CHECKPOINT);
    }
 
    public MultiLayerConfiguration getConf() {
@@ -0,0 +1,171 @@
+package optimizer.algorithms.learning;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Experiences in a ring of fixed capacity, the oldest one is overwritten when the ring is full. Rows are primitive
+// arrays allocated the first time a slot is used and reused afterwards, so that memory grows only up to the experiences
+// actually stored and storing an experience does not allocate once the ring is full.
+class ReplayBuffer {
+
+   private final int capacity;
+   private final int inputLength;
+   private final float[][] inputs;
+   private final float[][] nextInputs;
+   private final int[][] nextActionMasks;
+   private final int[] actions;
+   private final float[] rewards;
+   // experiences without next input, whose future reward is 0
+   private final boolean[] isTerminal;
+   // number of the experience in each slot, counting all the experiences ever added, to tell when a slot is overwritten
+   private final long[] serials;
+   private long added;
+   private int size;
+   private int next;
+
+   ReplayBuffer(int capacity, int inputLength) {
+      this.capacity = capacity;
+      this.inputLength = inputLength;
+      inputs = new float[capacity][];
+      nextInputs = new float[capacity][];
+      nextActionMasks = new int[capacity][];
+      actions = new int[capacity];
+      rewards = new float[capacity];
+      isTerminal = new boolean[capacity];
+      serials = new long[capacity];
+   }
+
+   // returns the slot of the experience
+   int add(float[] input, float[] nextInput, int action, float reward, int[] nextActionMask) {
+      int slot = next;
+      inputs[slot] = copy(input, inputs[slot]);
+      isTerminal[slot] = nextInput == null;
+      if (nextInput != null)
+         nextInputs[slot] = copy(nextInput, nextInputs[slot]);
+      if (nextActionMask != null) {
+         if (nextActionMasks[slot] == null || nextActionMasks[slot].length != nextActionMask.length)
+            nextActionMasks[slot] = new int[nextActionMask.length];
+         System.arraycopy(nextActionMask, 0, nextActionMasks[slot], 0, nextActionMask.length);
+      }
+      actions[slot] = action;
+      rewards[slot] = reward;
+      serials[slot] = added++;
+      next = (next + 1) % capacity;
+      if (size < capacity)
+         size++;
+      return slot;
+   }
+
+   private float[] copy(float[] source, float[] destination) {
+      if (destination == null)
+         destination = new float[inputLength];
+      System.arraycopy(source, 0, destination, 0, inputLength);
+      return destination;
+   }
+
+   // copies the rows of the given slots one after the other, next inputs of terminal experiences are zeros
+   void gather(int[] slots, float[] batchInputs, float[] batchNextInputs) {
+      for (int i = 0; i < slots.length; i++) {
+         int slot = slots[i];
+         System.arraycopy(inputs[slot], 0, batchInputs, i * inputLength, inputLength);
+         if (isTerminal[slot])
+            Arrays.fill(batchNextInputs, i * inputLength, (i + 1) * inputLength, 0f);
+         else
+            System.arraycopy(nextInputs[slot], 0, batchNextInputs, i * inputLength, inputLength);
+      }
+   }
+
+   // slots below size are the ones in use, whether the ring is full or not
+   void write(DataOutputStream out) throws IOException {
+      out.writeInt(capacity);
+      out.writeInt(inputLength);
+      out.writeInt(size);
+      out.writeInt(next);
+      for (int slot = 0; slot < size; slot++) {
+         writeFloats(out, inputs[slot]);
+         out.writeBoolean(isTerminal[slot]);
+         if (!isTerminal[slot])
+            writeFloats(out, nextInputs[slot]);
+         int[] nextActionMask = nextActionMasks[slot];
+         out.writeInt(nextActionMask != null ? nextActionMask.length : -1);
+         if (nextActionMask != null)
+            for (int value : nextActionMask)
+               out.writeInt(value);
+         out.writeInt(actions[slot]);
+         out.writeFloat(rewards[slot]);
+      }
+   }
+
+   // false, without reading further, if the experiences were written by a buffer of another capacity or input length
+   boolean read(DataInputStream in) throws IOException {
+      if (in.readInt() != capacity || in.readInt() != inputLength)
+         return false;
+      size = in.readInt();
+      next = in.readInt();
+      for (int slot = 0; slot < size; slot++) {
+         inputs[slot] = readFloats(in, inputs[slot]);
+         isTerminal[slot] = in.readBoolean();
+         if (!isTerminal[slot])
+            nextInputs[slot] = readFloats(in, nextInputs[slot]);
+         int maskLength = in.readInt();
+         if (maskLength >= 0) {
+            if (nextActionMasks[slot] == null || nextActionMasks[slot].length != maskLength)
+               nextActionMasks[slot] = new int[maskLength];
+            for (int i = 0; i < maskLength; i++)
+               nextActionMasks[slot][i] = in.readInt();
+         }
+         actions[slot] = in.readInt();
+         rewards[slot] = in.readFloat();
+         serials[slot] = slot;
+      }
+      added = size;
+      return true;
+   }
+
+   private void writeFloats(DataOutputStream out, float[] values) throws IOException {
+      for (float value : values)
+         out.writeFloat(value);
+   }
+
+   private float[] readFloats(DataInputStream in, float[] values) throws IOException {
+      if (values == null)
+         values = new float[inputLength];
+      for (int i = 0; i < inputLength; i++)
+         values[i] = in.readFloat();
+      return values;
+   }
+
+   int size() {
+      return size;
+   }
+
+   int getCapacity() {
+      return capacity;
+   }
+
+   long getAdded() {
+      return added;
+   }
+
+   long getSerial(int slot) {
+      return serials[slot];
+   }
+
+   int getAction(int slot) {
+      return actions[slot];
+   }
+
+   float getReward(int slot) {
+      return rewards[slot];
+   }
+
+   boolean isTerminal(int slot) {
+      return isTerminal[slot];
+   }
+
+   int[] getNextActionMask(int slot) {
+      return nextActionMasks[slot];
+   }
+}
@@ -2,7 +2,6 @@ package optimizer.algorithms.learning;
 
 import static optimizer.Definitions.*;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
@@ -22,6 +21,7 @@ import optimizer.Parameters;
 import optimizer.algorithms.NetworkManager;
 import optimizer.algorithms.VariablesAlg;
 import optimizer.results.Auxiliary;
+import optimizer.results.ResultsManager;
 
 public class RoutingModel {
    protected Parameters pm;
@@ -35,6 +35,13 @@ public class RoutingModel {
    private NetworkManager heu;
    private PlacementModel placementModel;
    private double epsilon;
+   // service, demand and path of every action and index of the first path of its demand
+   private int[] actionServices, actionDemands, actionPaths, actionFirstPaths;
+   // state buffers reused at every step, the network input is copied from the current one
+   private float[] environment, nextEnvironment;
+   private int[] actionMask, nextActionMask;
+   private INDArray inputIndArray;
+   private boolean isInferenceOnly;
 
    private static final Logger log = LoggerFactory.getLogger(RoutingModel.class);
 
@@ -48,11 +55,44 @@ public class RoutingModel {
       environmentSize = calculateEnvironmentLength();
       offsetInput = 2;
       int inputLength = environmentSize + offsetInput;
+      createActionTable();
+      initializeBuffers(inputLength);
       int outputLength = environmentSize;
       if (conf == null)
          initializeModel(inputLength, outputLength);
       else
          initializeModel(conf, inputLength);
+      deepQ.loadCheckpoint(pm, ROUTING_DRL_CHECKPOINT);
+      isInferenceOnly = !deepQ.isTraining();
+   }
+
+   // actor working on its own variables that shares the replay memory and the parameters of the agent of learnerModel
+   RoutingModel(RoutingModel learnerModel, VariablesAlg variablesAlg, NetworkManager heu,
+         PlacementModel placementModel) {
+      this.pm = learnerModel.pm;
+      this.vars = variablesAlg;
+      this.initialPlacement = learnerModel.initialPlacement;
+      this.heu = heu;
+      this.placementModel = placementModel;
+      this.conf = learnerModel.conf;
+      environmentSize = learnerModel.environmentSize;
+      offsetInput = learnerModel.offsetInput;
+      actionServices = learnerModel.actionServices;
+      actionDemands = learnerModel.actionDemands;
+      actionPaths = learnerModel.actionPaths;
+      actionFirstPaths = learnerModel.actionFirstPaths;
+      initializeBuffers(environmentSize + offsetInput);
+      deepQ = new DeepQ(learnerModel.deepQ);
+      isInferenceOnly = learnerModel.isInferenceOnly;
+      deepQ.setTraining(!isInferenceOnly);
+   }
+
+   private void initializeBuffers(int inputLength) {
+      environment = new float[inputLength];
+      nextEnvironment = new float[inputLength];
+      actionMask = new int[environmentSize + 1];
+      nextActionMask = new int[environmentSize + 1];
+      inputIndArray = Nd4j.create(1, inputLength);
    }
 
    private void initializeModel(int inputLength, int outputLength) {
@@ -64,39 +104,49 @@ public class RoutingModel {
             .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MSE).nIn(NUM_HIDDEN_LAYERS).nOut(outputLength)
                   .weightInit(WeightInit.XAVIER).activation(Activation.IDENTITY).build())
             .build();
-      deepQ = new DeepQ(conf, MEMORY_CAPACITY, DISCOUNT_FACTOR, BATCH_SIZE, FREQUENCY, START_SIZE, inputLength);
+      deepQ = new DeepQ(conf, MEMORY_CAPACITY, DISCOUNT_FACTOR, BATCH_SIZE, FREQUENCY, START_SIZE, inputLength,
+            (boolean) pm.getGlobal(PRIORITIZED_REPLAY, false));
    }
 
    private void initializeModel(String confString, int inputLength) {
       MultiLayerConfiguration conf = MultiLayerConfiguration.fromJson(confString);
       this.conf = conf;
-      deepQ = new DeepQ(conf, MEMORY_CAPACITY, DISCOUNT_FACTOR, BATCH_SIZE, FREQUENCY, START_SIZE, inputLength);
+      deepQ = new DeepQ(conf, MEMORY_CAPACITY, DISCOUNT_FACTOR, BATCH_SIZE, FREQUENCY, START_SIZE, inputLength,
+            (boolean) pm.getGlobal(PRIORITIZED_REPLAY, false));
    }
 
    public double run(double epsilonStarting) {
+      if (isInferenceOnly)
+         epsilonStarting = 0;
 
       bestObjVal = (float) vars.getObjVal();
-      float[] environment = createEnvironment();
-      float[] nextEnvironment;
+      createEnvironment(environment);
       int timeStep = 0;
       int repetitionsWithSameValue = 0;
       epsilon = epsilonStarting;
+      generateActionMask(actionMask);
 
-      while (true) {
-         INDArray inputIndArray = Nd4j.create(environment);
-         int[] actionMask = generateActionMask(environment);
+      // actors are stopped by interrupting their thread
+      while (!Thread.currentThread().isInterrupted()) {
+         inputIndArray.data().setData(environment);
          int action = deepQ.getAction(inputIndArray, actionMask, epsilon);
          // generate next environment for the new chosen path
-         nextEnvironment = modifyEnvironment(environment, action, timeStep);
+         modifyEnvironment(environment, nextEnvironment, action, timeStep);
          // calculate new objective value
          vars.generateRestOfVariablesForResults();
          // update new objective value to the next environment
          nextEnvironment[nextEnvironment.length - 2] = (float) vars.objVal;
          // calculate the reward and create a new experience
          float reward = computeReward();
-         int[] nextActionMask = generateActionMask(nextEnvironment);
-         deepQ.observeReward(Nd4j.create(environment), Nd4j.create(nextEnvironment), reward, nextActionMask);
+         generateActionMask(nextActionMask);
+         deepQ.observeReward(environment, nextEnvironment, reward, nextActionMask);
+         // the next state becomes the current one, its mask is still valid since nothing changes until the next step
+         float[] environmentBuffer = environment;
          environment = nextEnvironment;
+         nextEnvironment = environmentBuffer;
+         int[] actionMaskBuffer = actionMask;
+         actionMask = nextActionMask;
+         nextActionMask = actionMaskBuffer;
          timeStep++;
          log.info("routing iteration " + timeStep + ": [" + vars.objVal + "][" + reward + "][" + action + "]");
          if (epsilonStarting != 0) {
@@ -134,70 +184,57 @@ public class RoutingModel {
       return inputSize;
    }
 
-   private float[] createEnvironment() {
-      float[] environment = new float[environmentSize + offsetInput];
-      List<Float> environmentList = new ArrayList<>();
+   // actions are numbered as the entries of the environment, by service, demand and path
+   private void createActionTable() {
+      actionServices = new int[environmentSize];
+      actionDemands = new int[environmentSize];
+      actionPaths = new int[environmentSize];
+      actionFirstPaths = new int[environmentSize];
+      int index = 0;
       for (int s = 0; s < pm.getServices().size(); s++)
-         for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+         for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++) {
+            int firstPath = index;
             for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++) {
-               float value = vars.zSPD[s][p][d] ? 1 : 0;
-               environmentList.add(value);
+               actionServices[index] = s;
+               actionDemands[index] = d;
+               actionPaths[index] = p;
+               actionFirstPaths[index] = firstPath;
+               index++;
             }
+         }
+   }
 
-      for (int i = 0; i < environmentList.size(); i++)
-         environment[i] = environmentList.get(i);
-
+   private void createEnvironment(float[] environment) {
+      for (int a = 0; a < environmentSize; a++)
+         environment[a] = vars.zSPD[actionServices[a]][actionPaths[a]][actionDemands[a]] ? 1 : 0;
       environment[environment.length - 2] = (float) vars.objVal;
       environment[environment.length - 1] = 0f;
-      return environment;
    }
 
-   private int[] generateActionMask(float[] environment) {
-      int[] actionMask = new int[environment.length + 1 - offsetInput];
-
-      int index = 0;
-      for (int s = 0; s < pm.getServices().size(); s++)
-         for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
-            for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++) {
-               if (checkPathForRerouting(s, d, p))
-                  actionMask[index] = 1;
-               index++;
-            }
+   private void generateActionMask(int[] actionMask) {
+      for (int a = 0; a < environmentSize; a++)
+         actionMask[a] = checkPathForRerouting(actionServices[a], actionDemands[a], actionPaths[a]) ? 1 : 0;
       actionMask[actionMask.length - 1] = 1;
-      return actionMask;
    }
 
-   float[] modifyEnvironment(float[] environment, int action, int timeStep) {
-      float[] nextEnvironment = environment.clone();
-      int notActionIndex = (environment.length - 1) + 1 - offsetInput;
+   void modifyEnvironment(float[] environment, float[] nextEnvironment, int action, int timeStep) {
+      System.arraycopy(environment, 0, nextEnvironment, 0, environment.length);
+      int notActionIndex = environmentSize;
 
       nextEnvironment[nextEnvironment.length - 1] = timeStep;
 
       if (action == notActionIndex)
-         return nextEnvironment;
-
-      int initialServiceDemandIndex = 0, index = 0, sChosen = 0, dChosen = 0;
-      outerLoop: for (int s = 0; s < pm.getServices().size(); s++)
-         for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++) {
-            for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++) {
-               if (action == index) {
-                  sChosen = s;
-                  dChosen = d;
-                  break outerLoop;
-               }
-               index++;
-            }
-            initialServiceDemandIndex += pm.getServices().get(s).getTrafficFlow().getPaths().size();
-         }
+         return;
 
-      int pOld = -1, pNew = -1;
-      for (int p = 0; p < pm.getPathsTrafficFlow(); p++) {
-         if (initialServiceDemandIndex + p == action) {
-            if (nextEnvironment[initialServiceDemandIndex + p] == 0) {
+      int sChosen = actionServices[action], dChosen = actionDemands[action];
+      int initialServiceDemandIndex = actionFirstPaths[action];
+      int pOld = -1, pNew = actionPaths[action];
+      for (int p = 0; p < pm.getServices().get(sChosen).getTrafficFlow().getPaths().size(); p++) {
+         if (p == pNew) {
+            if (nextEnvironment[initialServiceDemandIndex + p] == 0)
                nextEnvironment[initialServiceDemandIndex + p] = 1;
-            } else
+            else
                pOld = p;
-            pNew = p;
          } else {
             if (nextEnvironment[initialServiceDemandIndex + p] == 1) {
                nextEnvironment[initialServiceDemandIndex + p] = 0;
@@ -208,8 +245,6 @@ public class RoutingModel {
 
       // modify variables based on the taken action
       rerouteSpecificDemand(sChosen, dChosen, pOld, pNew);
-
-      return nextEnvironment;
    }
 
    private float computeReward() {
@@ -238,6 +273,20 @@ public class RoutingModel {
       }
    }
 
+   void startLearning() {
+      deepQ.startLearning();
+   }
+
+   void stopLearning() {
+      deepQ.stopLearning();
+   }
+
+   // weights and replay memory of the agent into the results folder, a later run loads them from the folder given in
+   // drl_checkpoint
+   public void saveCheckpoint(ResultsManager resultsManager) {
+      deepQ.saveCheckpoint(resultsManager.getResultsFolder(), ROUTING_DRL_CHECKPOINT);
+   }
+
    public MultiLayerConfiguration getConf() {
       return conf;
    }
@@ -0,0 +1,57 @@
+package optimizer.algorithms.learning;
+
+// Priorities of the slots of the replay buffer in a binary tree whose inner nodes hold the sum of their children, so
+// that updating a priority and finding the slot of a prefix sum are O(log n). Leaves are tree[leaves + slot].
+class SumTree {
+
+   private final int leaves;
+   private final double[] tree;
+   // highest priority set so far, which new experiences get
+   private double maxPriority = 1;
+
+   SumTree(int capacity) {
+      int leaves = 1;
+      while (leaves < capacity)
+         leaves <<= 1;
+      this.leaves = leaves;
+      tree = new double[2 * leaves];
+   }
+
+   void set(int slot, double priority) {
+      int node = leaves + slot;
+      tree[node] = priority;
+      if (priority > maxPriority)
+         maxPriority = priority;
+      // sums are recomputed from the children instead of adding differences, so rounding errors do not accumulate
+      for (node >>= 1; node > 0; node >>= 1)
+         tree[node] = tree[2 * node] + tree[2 * node + 1];
+   }
+
+   double get(int slot) {
+      return tree[leaves + slot];
+   }
+
+   double getMaxPriority() {
+      return maxPriority;
+   }
+
+   double total() {
+      return tree[1];
+   }
+
+   // slot where the prefix sum of the priorities reaches value, for value in [0, total)
+   int find(double value) {
+      int node = 1;
+      while (node < leaves) {
+         int left = 2 * node;
+         // slots without priority are never returned, also when rounding takes value up to total
+         if (value < tree[left] || tree[left + 1] == 0)
+            node = left;
+         else {
+            value -= tree[left];
+            node = left + 1;
+         }
+      }
+      return node - leaves;
+   }
+}
@@ -0,0 +1,108 @@
+package optimizer.gui;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Bounded multi-producer ring of GUI events without locks. Producers never wait for consumers: when the ring is full
+// the oldest events are overwritten, so a slow or absent browser never holds back the optimizer. Every consumer
+// keeps its own position, which is the sequence of the next event to read. Consumers block in awaitNext, producers
+// only take the lock to wake them up when some consumer is waiting.
+public class EventBuffer {
+
+   private final AtomicReferenceArray<Event> slots;
+   private final int capacity;
+   private final int mask;
+   private final AtomicLong nextSequence;
+   private final Object lock = new Object();
+   private final AtomicInteger waiters = new AtomicInteger();
+
+   public EventBuffer(int capacity) {
+      this.capacity = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+      this.mask = this.capacity - 1;
+      this.slots = new AtomicReferenceArray<>(this.capacity);
+      this.nextSequence = new AtomicLong();
+   }
+
+   public long publish(String type, String data) {
+      long sequence = nextSequence.getAndIncrement();
+      slots.set((int) (sequence & mask), new Event(sequence, type, data));
+      if (waiters.get() > 0)
+         synchronized (lock) {
+            lock.notifyAll();
+         }
+      return sequence;
+   }
+
+   // like next, but waits up to the timeout for the event to be published
+   public Event awaitNext(long position, long timeoutMillis) throws InterruptedException {
+      Event event = next(position);
+      if (event != null)
+         return event;
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+      waiters.incrementAndGet();
+      try {
+         synchronized (lock) {
+            // checked after registering as waiter, so a publish in between either is seen here or notifies
+            while ((event = next(position)) == null) {
+               long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+               if (remaining <= 0)
+                  break;
+               lock.wait(remaining);
+            }
+         }
+      } finally {
+         waiters.decrementAndGet();
+      }
+      return event;
+   }
+
+   // first event at or after the position still in the ring, null if there is none or it is not written yet
+   public Event next(long position) {
+      long head = nextSequence.get();
+      if (position >= head)
+         return null;
+      if (position < head - capacity)
+         position = head - capacity;
+      if (position < 0)
+         position = 0;
+      Event event = slots.get((int) (position & mask));
+      if (event == null || event.sequence < position)
+         return null;
+      return event;
+   }
+
+   // sequence of the next event to be published
+   public long getHead() {
+      return nextSequence.get();
+   }
+
+   public int getCapacity() {
+      return capacity;
+   }
+
+   public static class Event {
+      private final long sequence;
+      private final String type;
+      private final String data;
+
+      private Event(long sequence, String type, String data) {
+         this.sequence = sequence;
+         this.type = type;
+         this.data = data;
+      }
+
+      public long getSequence() {
+         return sequence;
+      }
+
+      public String getType() {
+         return type;
+      }
+
+      public String getData() {
+         return data;
+      }
+   }
+}
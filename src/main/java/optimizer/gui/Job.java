@@ -0,0 +1,190 @@
+package optimizer.gui;
+
+import optimizer.Parameters;
+import optimizer.results.Results;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import static optimizer.Definitions.*;
+
+// Optimization run submitted through /jobs. While it runs, the worker thread is bound to the job: parameters,
+// interruption, log messages and results go to the job instead of the shared state of the web UI.
+public class Job {
+
+   private static final ThreadLocal<Job> current = new ThreadLocal<>();
+
+   private final String id;
+   private final Scenario scenario;
+   private final long submitted;
+   private volatile String status;
+   private volatile long started;
+   private volatile long finished;
+   private volatile boolean cancelled;
+   private volatile String error;
+   private final Deque<String> messages;
+   private final List<Results> results;
+   private volatile Parameters parameters;
+   private volatile Future<?> future;
+
+   Job(String id, Scenario scenario) {
+      this.id = id;
+      this.scenario = scenario;
+      this.submitted = System.currentTimeMillis();
+      this.status = JOB_QUEUED;
+      this.messages = new ArrayDeque<>();
+      this.results = new ArrayList<>();
+   }
+
+   // job bound to the calling thread, null outside of jobs
+   public static Job current() {
+      return current.get();
+   }
+
+   // task bound to the job of the calling thread while it runs, for threads and pools that do not belong to the job
+   public static <T> Callable<T> bind(Callable<T> task) {
+      Job job = current();
+      if (job == null)
+         return task;
+      return () -> {
+         Job previous = current.get();
+         current.set(job);
+         try {
+            return task.call();
+         } finally {
+            restore(previous);
+         }
+      };
+   }
+
+   public static Runnable bind(Runnable task) {
+      Job job = current();
+      if (job == null)
+         return task;
+      return () -> {
+         Job previous = current.get();
+         current.set(job);
+         try {
+            task.run();
+         } finally {
+            restore(previous);
+         }
+      };
+   }
+
+   private static void restore(Job previous) {
+      if (previous != null)
+         current.set(previous);
+      else
+         current.remove();
+   }
+
+   void run(Runnable runnable) {
+      synchronized (this) {
+         if (cancelled)
+            return;
+         status = JOB_RUNNING;
+         started = System.currentTimeMillis();
+      }
+      current.set(this);
+      try {
+         runnable.run();
+      } catch (Exception e) {
+         fail(e);
+      } finally {
+         current.remove();
+         finished = System.currentTimeMillis();
+         if (cancelled)
+            status = JOB_CANCELLED;
+         else if (error != null)
+            status = JOB_FAILED;
+         else
+            status = JOB_FINISHED;
+      }
+   }
+
+   // a queued job never starts, a running one is interrupted at its next check
+   synchronized boolean cancel() {
+      if (isDone())
+         return false;
+      cancelled = true;
+      if (status.equals(JOB_QUEUED)) {
+         status = JOB_CANCELLED;
+         finished = System.currentTimeMillis();
+         if (future != null)
+            future.cancel(false);
+      }
+      return true;
+   }
+
+   public void fail(Exception e) {
+      error = e.toString();
+   }
+
+   public synchronized void log(String message) {
+      if (messages.size() == JOB_MAX_MESSAGES)
+         messages.removeFirst();
+      messages.addLast(message);
+   }
+
+   public synchronized void addResults(Results results) {
+      this.results.add(results);
+   }
+
+   public synchronized Map<String, Object> toMap(boolean withResults) {
+      Map<String, Object> map = new LinkedHashMap<>();
+      map.put("id", id);
+      map.put("status", status);
+      map.put("scenario", scenario);
+      map.put("submitted", submitted);
+      if (started > 0)
+         map.put("started", started);
+      if (finished > 0)
+         map.put("finished", finished);
+      if (error != null)
+         map.put("error", error);
+      if (withResults) {
+         map.put("messages", new ArrayList<>(messages));
+         map.put("results", new ArrayList<>(results));
+      }
+      return map;
+   }
+
+   boolean isDone() {
+      return status.equals(JOB_FINISHED) || status.equals(JOB_FAILED) || status.equals(JOB_CANCELLED);
+   }
+
+   public boolean isCancelled() {
+      return cancelled;
+   }
+
+   public String getId() {
+      return id;
+   }
+
+   public Scenario getScenario() {
+      return scenario;
+   }
+
+   public String getStatus() {
+      return status;
+   }
+
+   public Parameters getParameters() {
+      return parameters;
+   }
+
+   public void setParameters(Parameters parameters) {
+      this.parameters = parameters;
+   }
+
+   void setFuture(Future<?> future) {
+      this.future = future;
+   }
+}
@@ -0,0 +1,83 @@
+package optimizer.gui;
+
+import optimizer.Manager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static optimizer.Definitions.*;
+
+// Queue of optimization jobs run by a fixed pool of workers, the number of workers is set with -Djob_workers
+public class JobManager {
+
+   private static final Logger log = LoggerFactory.getLogger(JobManager.class);
+   private static final Map<String, Job> jobs = new ConcurrentHashMap<>();
+   // submission order, to drop the oldest finished jobs
+   private static final ConcurrentLinkedQueue<String> submissionOrder = new ConcurrentLinkedQueue<>();
+   private static ExecutorService workers;
+
+   public static synchronized void initialize() {
+      if (workers != null)
+         return;
+      int numWorkers = Math.max(Integer.getInteger(JOB_WORKERS, JOB_WORKERS_DEFAULT), 1);
+      workers = Executors.newFixedThreadPool(numWorkers);
+      log.info("job workers: " + numWorkers);
+   }
+
+   public static Job submit(Scenario scenario) {
+      initialize();
+      removeFinishedJobs();
+      Job job = new Job(UUID.randomUUID().toString(), scenario);
+      jobs.put(job.getId(), job);
+      submissionOrder.add(job.getId());
+      job.setFuture(workers.submit(() -> job.run(() -> Manager.main(scenario))));
+      return job;
+   }
+
+   public static Job get(String id) {
+      return jobs.get(id);
+   }
+
+   public static boolean cancel(String id) {
+      Job job = jobs.get(id);
+      return job != null && job.cancel();
+   }
+
+   public static List<Map<String, Object>> list() {
+      List<Map<String, Object>> list = new ArrayList<>();
+      for (String id : submissionOrder) {
+         Job job = jobs.get(id);
+         if (job != null)
+            list.add(job.toMap(false));
+      }
+      return list;
+   }
+
+   private static void removeFinishedJobs() {
+      int numFinished = 0;
+      for (Job job : jobs.values())
+         if (job.isDone())
+            numFinished++;
+      Iterator<String> iterator = submissionOrder.iterator();
+      while (numFinished >= JOB_MAX_FINISHED && iterator.hasNext()) {
+         Job job = jobs.get(iterator.next());
+         if (job == null || job.isDone()) {
+            iterator.remove();
+            if (job != null) {
+               jobs.remove(job.getId());
+               numFinished--;
+            }
+         }
+      }
+   }
+}
@@ -3,6 +3,8 @@ package optimizer.gui;
 public class LinkJson {
 
    private Data data;
+   // version of the GUI state in which the element last changed, not serialized
+   private transient long version;
 
    public LinkJson(String id, String source, String target, String label, String favecolor) {
       this.data = new Data(id, source, target, label, favecolor);
@@ -16,6 +18,14 @@ public class LinkJson {
       this.data = data;
    }
 
+   long getVersion() {
+      return version;
+   }
+
+   void setVersion(long version) {
+      this.version = version;
+   }
+
    public class Data {
       private String id;
       private String source;
@@ -6,6 +6,8 @@ public class NodeJson {
    Position position;
    Data data;
    private String classes = "multiline-manual";
+   // version of the GUI state in which the element last changed, not serialized
+   private transient long version;
 
    NodeJson() {
    }
@@ -39,6 +41,14 @@ public class NodeJson {
       this.classes = classes;
    }
 
+   long getVersion() {
+      return version;
+   }
+
+   void setVersion(long version) {
+      this.version = version;
+   }
+
    public class Position {
       private double x;
       private double y;
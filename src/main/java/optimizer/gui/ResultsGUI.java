@@ -6,14 +6,18 @@ import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Node;
 
+import com.google.gson.Gson;
+
 import optimizer.Parameters;
 import optimizer.elements.Server;
 import optimizer.results.Results;
@@ -21,23 +25,35 @@ import optimizer.results.Results;
 public class ResultsGUI {
 
    private static List<NodeJson> nodeList;
-   private static Map<String, ServerJson> serverJsonMap;
-   private static Map<String, LinkJson> linkJsonMap;
+   private static volatile Map<String, ServerJson> serverJsonMap;
+   private static volatile Map<String, LinkJson> linkJsonMap;
+   // incremented on every topology load and results update
+   private static final AtomicLong version = new AtomicLong();
    private static Results results;
-   private static LinkedList<String> messages;
+   private static EventBuffer events;
+   // position of the /message polling client in the events
+   private static AtomicLong messagePosition;
+   private static volatile String lastMessage;
+   private static final Gson gson = new Gson();
    private static String longitudeLabel, latitudeLabel;
 
    public ResultsGUI() {
       nodeList = new ArrayList<>();
-      serverJsonMap = new HashMap<>();
-      linkJsonMap = new HashMap<>();
-      messages = new LinkedList<>();
+      serverJsonMap = new ConcurrentHashMap<>();
+      linkJsonMap = new ConcurrentHashMap<>();
+      events = new EventBuffer(EVENT_BUFFER_SIZE);
+      messagePosition = new AtomicLong();
+      lastMessage = null;
    }
 
+   // jobs keep their own state and do not update the web UI
    public static void initialize(Parameters pm) {
+      if (Job.current() != null)
+         return;
       nodeList = new ArrayList<>();
-      serverJsonMap = new HashMap<>();
-      linkJsonMap = new HashMap<>();
+      Map<String, ServerJson> serverJsonMap = new ConcurrentHashMap<>();
+      Map<String, LinkJson> linkJsonMap = new ConcurrentHashMap<>();
+      long newVersion = version.get() + 1;
       if (pm.getNodes().get(0).getAttribute(LONGITUDE_LABEL_1) != null) {
          longitudeLabel = LONGITUDE_LABEL_1;
          latitudeLabel = LATITUDE_LABEL_1;
@@ -54,51 +70,171 @@ public class ResultsGUI {
                   NODE_COLOR, n.getId(), NODE_SHAPE));
       }
       for (Server s : pm.getServers()) {
+         ServerJson serverJson;
          if ((int) s.getParent().getAttribute(NODE_TYPE) == NODE_TYPE_CLOUD
                && s.getParent().getAttribute(longitudeLabel + "_gui") != null)
-            serverJsonMap.put(s.getId(), new ServerJson(s.getId(), s.getParent().getAttribute(longitudeLabel + "_gui"),
-                  s.getParent().getAttribute(latitudeLabel + "_gui"), SERVER_COLOR, s.getId()));
+            serverJson = new ServerJson(s.getId(), s.getParent().getAttribute(longitudeLabel + "_gui"),
+                  s.getParent().getAttribute(latitudeLabel + "_gui"), SERVER_COLOR, s.getId());
          else
-            serverJsonMap.put(s.getId(), new ServerJson(s.getId(), s.getParent().getAttribute(longitudeLabel),
-                  s.getParent().getAttribute(latitudeLabel), SERVER_COLOR, s.getId()));
+            serverJson = new ServerJson(s.getId(), s.getParent().getAttribute(longitudeLabel),
+                  s.getParent().getAttribute(latitudeLabel), SERVER_COLOR, s.getId());
+         serverJson.setVersion(newVersion);
+         serverJsonMap.put(s.getId(), serverJson);
       }
       for (Edge e : pm.getLinks()) {
          String color = LINK_COLOR;
          if ((int) e.getSourceNode().getAttribute(NODE_TYPE) == NODE_TYPE_CLOUD
                || (int) e.getTargetNode().getAttribute(NODE_TYPE) == NODE_TYPE_CLOUD)
             color = LINK_CLOUD_COLOR;
-         linkJsonMap.put(e.getId(),
-               new LinkJson(e.getId(), e.getSourceNode().getId(), e.getTargetNode().getId(), "", color));
+         LinkJson linkJson = new LinkJson(e.getId(), e.getSourceNode().getId(), e.getTargetNode().getId(), "", color);
+         linkJson.setVersion(newVersion);
+         linkJsonMap.put(e.getId(), linkJson);
       }
+      ResultsGUI.serverJsonMap = serverJsonMap;
+      ResultsGUI.linkJsonMap = linkJsonMap;
+      version.set(newVersion);
    }
 
    public static void updateResults(Results results) {
-      if (results != null) {
-         updateServers(getServerJsonResults(results));
-         updateLinks(getLinkJsonResults(results));
-         ResultsGUI.results = results;
+      if (Job.current() != null) {
+         if (results != null)
+            Job.current().addResults(results);
+         return;
       }
+      if (results != null)
+         publishResults(results, getServerJsonResults(results), getLinkJsonResults(results));
    }
 
-   private static void updateServers(List<ServerJson> serverJsonResults) {
-      for (ServerJson serverJson : serverJsonResults)
-         serverJsonMap.put(serverJson.getData().getId(), serverJson);
+   // results read from the cache, without the model: labels and colors are given per element id
+   public static void restoreResults(Parameters pm, Results results, Map<String, String[]> serverLabels,
+         Map<String, String[]> linkLabels) {
+      if (Job.current() != null) {
+         Job.current().addResults(results);
+         return;
+      }
+      List<ServerJson> serverJsonList = new ArrayList<>();
+      for (Server server : pm.getServers()) {
+         String[] label = serverLabels.get(server.getId());
+         if (label != null)
+            serverJsonList.add(new ServerJson(server.getId(), server.getParent().getAttribute(longitudeLabel),
+                  server.getParent().getAttribute(latitudeLabel), label[1], label[0]));
+      }
+      List<LinkJson> linkJsonList = new ArrayList<>();
+      for (Edge edge : pm.getLinks()) {
+         String[] label = linkLabels.get(edge.getId());
+         if (label != null)
+            linkJsonList.add(new LinkJson(edge.getId(), edge.getSourceNode().getId(), edge.getTargetNode().getId(),
+                  label[0], label[1]));
+      }
+      publishResults(results, serverJsonList, linkJsonList);
+   }
+
+   private static void publishResults(Results results, List<ServerJson> serverJsonList,
+         List<LinkJson> linkJsonList) {
+      long newVersion = version.get() + 1;
+      Map<String, Object> utilization = new LinkedHashMap<>();
+      utilization.put("version", newVersion);
+      utilization.put("servers", updateServers(serverJsonList, newVersion));
+      utilization.put("links", updateLinks(linkJsonList, newVersion));
+      ResultsGUI.results = results;
+      version.set(newVersion);
+      events.publish(EVENT_UTILIZATION, gson.toJson(utilization));
    }
 
-   private static void updateLinks(List<LinkJson> linkJsonResults) {
-      for (LinkJson linkJson : linkJsonResults)
-         linkJsonMap.replace(linkJson.getData().getId(), linkJson);
+   // only elements whose label or color changed are replaced and get the new version
+   private static List<ServerJson> updateServers(List<ServerJson> serverJsonResults, long newVersion) {
+      List<ServerJson> changedServers = new ArrayList<>();
+      for (ServerJson serverJson : serverJsonResults) {
+         ServerJson previous = serverJsonMap.get(serverJson.getData().getId());
+         if (previous == null || !equals(previous.getData().getLabel(), serverJson.getData().getLabel())
+               || !equals(previous.getData().getFaveColor(), serverJson.getData().getFaveColor())) {
+            serverJson.setVersion(newVersion);
+            serverJsonMap.put(serverJson.getData().getId(), serverJson);
+            changedServers.add(serverJson);
+         }
+      }
+      return changedServers;
+   }
+
+   private static List<LinkJson> updateLinks(List<LinkJson> linkJsonResults, long newVersion) {
+      List<LinkJson> changedLinks = new ArrayList<>();
+      for (LinkJson linkJson : linkJsonResults) {
+         LinkJson previous = linkJsonMap.get(linkJson.getData().getId());
+         if (previous != null && (!equals(previous.getData().getLabel(), linkJson.getData().getLabel())
+               || !equals(previous.getData().getFaveColor(), linkJson.getData().getFaveColor()))) {
+            linkJson.setVersion(newVersion);
+            linkJsonMap.put(linkJson.getData().getId(), linkJson);
+            changedLinks.add(linkJson);
+         }
+      }
+      return changedLinks;
+   }
+
+   public static long getVersion() {
+      return version.get();
+   }
+
+   // servers changed after the given version, all servers if the topology was loaded after it
+   public static List<ServerJson> getServersSince(long since) {
+      List<ServerJson> servers = new ArrayList<>();
+      for (ServerJson serverJson : serverJsonMap.values())
+         if (serverJson.getVersion() > since)
+            servers.add(serverJson);
+      return servers;
+   }
+
+   public static List<LinkJson> getLinksSince(long since) {
+      List<LinkJson> links = new ArrayList<>();
+      for (LinkJson linkJson : linkJsonMap.values())
+         if (linkJson.getVersion() > since)
+            links.add(linkJson);
+      return links;
+   }
+
+   private static boolean equals(String a, String b) {
+      return a == null ? b == null : a.equals(b);
    }
 
    public static void log(String message) {
-      if (messages.isEmpty())
-         messages.add(message);
-      else {
-         if (!messages.peekLast().equals(message))
-            messages.add(message);
+      if (Job.current() != null) {
+         Job.current().log(message);
+         return;
+      }
+      if (message.equals(lastMessage))
+         return;
+      lastMessage = message;
+      events.publish(EVENT_LOG, message);
+   }
+
+   // bound and relative gap of the incumbent are only known for models
+   public static void publishIncumbent(double objective, Double bound, Double gap) {
+      if (Job.current() != null)
+         return;
+      Map<String, Object> incumbent = new LinkedHashMap<>();
+      incumbent.put("objective", objective);
+      if (bound != null)
+         incumbent.put("bound", bound);
+      if (gap != null)
+         incumbent.put("gap", gap);
+      events.publish(EVENT_INCUMBENT, gson.toJson(incumbent));
+   }
+
+   // next log message for clients polling /message, null if there is none
+   public static String pollMessage() {
+      while (true) {
+         long position = messagePosition.get();
+         EventBuffer.Event event = events.next(position);
+         if (event == null)
+            return null;
+         if (messagePosition.compareAndSet(position, event.getSequence() + 1) && event.getType().equals(EVENT_LOG))
+            return event.getData();
       }
    }
 
+   public static long getPendingMessages() {
+      return Math.min(events.getHead() - messagePosition.get(), events.getCapacity());
+   }
+
    static List<ServerJson> getServerJsonResults(Results results) {
       Map<Server, String> functions = generateFunctionsPerServerStringMap(results);
       List<ServerJson> serverJsonList = new ArrayList<>();
@@ -117,6 +253,28 @@ public class ResultsGUI {
       return serverJsonList;
    }
 
+   // {label, color} per server id, as shown in the web UI
+   public static Map<String, String[]> getServerLabels(Results results) {
+      Map<String, String[]> labels = new HashMap<>();
+      for (Entry<Server, Double> entry : results.serverUtilizationMap().entrySet())
+         labels.put(entry.getKey().getId(), getLabel(entry.getValue()));
+      return labels;
+   }
+
+   public static Map<String, String[]> getLinkLabels(Results results) {
+      Map<String, String[]> labels = new HashMap<>();
+      for (Entry<Edge, Double> entry : results.linkUtilizationMap().entrySet())
+         labels.put(entry.getKey().getId(), getLabel(entry.getValue()));
+      return labels;
+   }
+
+   private static String[] getLabel(Double utilization) {
+      String label = "";
+      if (utilization != 0)
+         label = new DecimalFormat("#.##").format(utilization);
+      return new String[] { label, getColor(utilization) };
+   }
+
    static List<LinkJson> getLinkJsonResults(Results results) {
       List<LinkJson> linkJsonList = new ArrayList<>();
       Iterator<Entry<Edge, Double>> entries = results.linkUtilizationMap().entrySet().iterator();
@@ -168,8 +326,8 @@ public class ResultsGUI {
       return results;
    }
 
-   public static LinkedList<String> getMessages() {
-      return messages;
+   public static EventBuffer getEvents() {
+      return events;
    }
 
    public static List<NodeJson> getNodeList() {
@@ -10,6 +10,8 @@ public class Scenario {
    private boolean maximization;
    private String name;
    private Map<String, Boolean> constraints;
+   // runs the optimization even if the results are in the cache
+   private boolean bypassCache;
 
    public Scenario() {
       constraints = new HashMap<>();
@@ -59,4 +61,11 @@ public class Scenario {
       this.maximization = maximization;
    }
 
+   public boolean isBypassCache() {
+      return bypassCache;
+   }
+
+   public void setBypassCache(boolean bypassCache) {
+      this.bypassCache = bypassCache;
+   }
 }
@@ -1,11 +1,17 @@
 package optimizer.gui;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
 import optimizer.Manager;
+import optimizer.results.Metrics;
+import optimizer.results.Profiler;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
@@ -14,6 +20,7 @@ import java.util.concurrent.Executors;
 
 import javax.servlet.MultipartConfigElement;
 import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.Part;
 
 import org.slf4j.Logger;
@@ -28,13 +35,17 @@ import static optimizer.Definitions.*;
 public class WebServer {
 
    private static final Logger log = LoggerFactory.getLogger(WebServer.class);
+   // Gson instances are thread-safe and cache their type adapters
+   private static final Gson gson = new Gson();
+   // the mapper is thread-safe once configured and caches its serializers
+   private static final ObjectMapper objectMapper = new ObjectMapper();
 
    public static void interfaces() {
 
       ExecutorService executorService = Executors.newSingleThreadExecutor();
 
       post("/load", (request, response) -> {
-         Scenario scenario = new Gson().fromJson(request.body(), Scenario.class);
+         Scenario scenario = gson.fromJson(request.body(), Scenario.class);
          Manager.readParameters(scenario.getInputFileName());
          return 201;
       });
@@ -67,12 +78,54 @@ public class WebServer {
       });
 
       post("/run", (request, response) -> {
-         Scenario scenario = new Gson().fromJson(request.body(), Scenario.class);
+         Scenario scenario = gson.fromJson(request.body(), Scenario.class);
          Runnable runnable = () -> Manager.main(scenario);
          executorService.submit(runnable);
          return 201;
       });
 
+      post("/jobs", (request, response) -> {
+         Scenario scenario = gson.fromJson(request.body(), Scenario.class);
+         if (scenario == null || scenario.getName() == null || scenario.getInputFileName() == null) {
+            response.status(400);
+            return "";
+         }
+         Job job = JobManager.submit(scenario);
+         response.status(201);
+         response.type("application/json");
+         return gson.toJson(job.toMap(false));
+      });
+
+      get("/jobs", (request, response) -> {
+         response.type("application/json");
+         return gson.toJson(JobManager.list());
+      });
+
+      get("/jobs/:id", (request, response) -> {
+         Job job = JobManager.get(request.params(":id"));
+         if (job == null) {
+            response.status(404);
+            return "";
+         }
+         response.type("application/json");
+         return gson.toJson(job.toMap(true));
+      });
+
+      delete("/jobs/:id", (request, response) -> {
+         Job job = JobManager.get(request.params(":id"));
+         if (job == null) {
+            response.status(404);
+            return "";
+         }
+         if (!JobManager.cancel(job.getId())) {
+            response.status(409);
+            return "";
+         }
+         response.status(202);
+         response.type("application/json");
+         return gson.toJson(job.toMap(false));
+      });
+
       get("/stop", (request, response) -> {
          Manager.terminate();
          return 201;
@@ -80,28 +133,125 @@ public class WebServer {
 
       get("/node", (request, response) -> {
          response.type("application/json");
-         return new Gson().toJson(ResultsGUI.getNodeList());
+         return gson.toJson(ResultsGUI.getNodeList());
       });
 
+      // with ?since=version only the elements changed after that version, X-Version holds the current one
       get("/server", (request, response) -> {
          response.type("application/json");
-         return new Gson().toJson(ResultsGUI.getServerJsonMap().values());
+         long version = ResultsGUI.getVersion();
+         response.header("X-Version", String.valueOf(version));
+         if (request.queryParams("since") == null)
+            return gson.toJson(ResultsGUI.getServerJsonMap().values());
+         Long since = parseVersion(request.queryParams("since"));
+         if (since == null) {
+            response.status(400);
+            return "";
+         }
+         return gson.toJson(ResultsGUI.getServersSince(since));
       });
 
       get("/link", (request, response) -> {
          response.type("application/json");
-         return new Gson().toJson(ResultsGUI.getLinkJsonMap().values());
+         long version = ResultsGUI.getVersion();
+         response.header("X-Version", String.valueOf(version));
+         if (request.queryParams("since") == null)
+            return gson.toJson(ResultsGUI.getLinkJsonMap().values());
+         Long since = parseVersion(request.queryParams("since"));
+         if (since == null) {
+            response.status(400);
+            return "";
+         }
+         return gson.toJson(ResultsGUI.getLinksSince(since));
       });
 
       get("/results", (request, response) -> {
          response.type("application/json");
-         return new Gson().toJson(ResultsGUI.getResults());
+         return gson.toJson(ResultsGUI.getResults());
+      });
+
+      get("/metrics", (request, response) -> {
+         String accept = request.headers("Accept");
+         if (accept != null && accept.contains("application/json")) {
+            response.type("application/json");
+            return objectMapper.writeValueAsString(Profiler.getPhases());
+         }
+         response.type("text/plain; version=0.0.4; charset=utf-8");
+         return Metrics.scrape();
       });
 
       get("/message", (request, response) -> {
-         if (ResultsGUI.getMessages().peek() != null)
-            return ResultsGUI.getMessages().remove();
+         String message = ResultsGUI.pollMessage();
+         if (message != null)
+            return message;
          return "";
       });
+
+      // server-sent events: log lines, incumbent updates and utilization deltas pushed as they are published
+      get("/events", (request, response) -> {
+         EventBuffer events = ResultsGUI.getEvents();
+         long position = events.getHead();
+         String lastEventId = request.headers("Last-Event-ID");
+         if (lastEventId != null) {
+            try {
+               position = Long.parseLong(lastEventId) + 1;
+            } catch (NumberFormatException e) {
+               log.warn("invalid Last-Event-ID: " + lastEventId);
+            }
+         }
+         HttpServletResponse raw = response.raw();
+         raw.setStatus(200);
+         raw.setContentType("text/event-stream");
+         raw.setCharacterEncoding("UTF-8");
+         raw.setHeader("Cache-Control", "no-cache");
+         raw.setHeader("X-Accel-Buffering", "no");
+         // not closed here, the response is completed when the route returns
+         try {
+            Writer writer = new OutputStreamWriter(raw.getOutputStream(), StandardCharsets.UTF_8);
+            writer.write("retry: 1000\n\n");
+            writer.flush();
+            long lastWrite = System.currentTimeMillis();
+            while (!Thread.currentThread().isInterrupted()) {
+               long heartbeatIn = lastWrite + EVENT_HEARTBEAT_MILLIS - System.currentTimeMillis();
+               EventBuffer.Event event = events.awaitNext(position, Math.max(heartbeatIn, 0));
+               if (event == null) {
+                  writer.write(": heartbeat\n\n");
+                  writer.flush();
+                  lastWrite = System.currentTimeMillis();
+                  continue;
+               }
+               position = event.getSequence() + 1;
+               writeEvent(writer, event);
+               // flush once the backlog is written
+               if (events.next(position) == null) {
+                  writer.flush();
+                  lastWrite = System.currentTimeMillis();
+               }
+            }
+            writer.flush();
+         } catch (IOException e) {
+            // client disconnected
+         } catch (InterruptedException e) {
+            // server stopping, the stream is closed and the client reconnects with Last-Event-ID
+            Thread.currentThread().interrupt();
+         }
+         return "";
+      });
+   }
+
+   private static Long parseVersion(String version) {
+      try {
+         return Long.parseLong(version);
+      } catch (NumberFormatException e) {
+         log.warn("invalid version: " + version);
+         return null;
+      }
+   }
+
+   private static void writeEvent(Writer writer, EventBuffer.Event event) throws IOException {
+      writer.write("id: " + event.getSequence() + "\nevent: " + event.getType() + "\n");
+      for (String line : event.getData().split("\n", -1))
+         writer.write("data: " + line + "\n");
+      writer.write("\n");
    }
 }
@@ -25,10 +25,10 @@ public class Constraints {
          // model specific constraints
          new SpecificConstraints(pm, modelLP, scenario, initialPlacement);
 
-         // general constraints
-         if (scenario.getConstraints().get(RP1))
+         // general constraints, the routing ones hold by construction when the routing is fixed
+         if (scenario.getConstraints().get(RP1) && !vars.isRoutingFixed())
             RP1();
-         if (scenario.getConstraints().get(RP2))
+         if (scenario.getConstraints().get(RP2) && !vars.isRoutingFixed())
             RP2();
          if (scenario.getConstraints().get(PF1))
             PF1();
@@ -90,7 +90,7 @@ public class Constraints {
             if ((boolean) pm.getServices().get(s).getFunctions().get(v).getAttribute(FUNCTION_REPLICABLE)) {
                GRBLinExpr expr2 = new GRBLinExpr();
                for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
-                  expr2.addTerm(1.0, vars.zSP[s][p]);
+                  vars.addZSPTerm(expr2, 1.0, s, p);
                modelLP.getGrbModel().addConstr(expr, GRB.LESS_EQUAL, expr2,
                      PF1 + "[s][v] --> " + "[" + s + "][" + v + "]");
             } else
@@ -105,7 +105,7 @@ public class Constraints {
          Service service = pm.getServices().get(s);
          for (int p = 0; p < service.getTrafficFlow().getPaths().size(); p++)
             for (int d = 0; d < service.getTrafficFlow().getDemands().size(); d++)
-               if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
+               if (pm.getServices().get(s).getTrafficFlow().getAux().get(d) && !vars.isNotRouted(s, p, d))
                   for (int v = 0; v < service.getFunctions().size(); v++) {
                      GRBLinExpr expr = new GRBLinExpr();
                      for (int n = 0; n < service.getTrafficFlow().getPaths().get(p).getNodePath().size(); n++)
@@ -113,7 +113,9 @@ public class Constraints {
                            if (pm.getServers().get(x).getParent()
                                  .equals(service.getTrafficFlow().getPaths().get(p).getNodePath().get(n)))
                               expr.addTerm(1.0, vars.fXSVD[x][s][v][d]);
-                     modelLP.getGrbModel().addConstr(vars.zSPD[s][p][d], GRB.LESS_EQUAL, expr,
+                     GRBLinExpr routingExpr = new GRBLinExpr();
+                     vars.addZSPDTerm(routingExpr, 1.0, s, p, d);
+                     modelLP.getGrbModel().addConstr(routingExpr, GRB.LESS_EQUAL, expr,
                            PF2 + "[s][p][d][v] --> " + "[" + s + "]"
                                  + pm.getServices().get(s).getTrafficFlow().getPaths().get(p).getNodePath() + "[" + d
                                  + "][" + v + "]");
@@ -178,7 +180,10 @@ public class Constraints {
          Service se = pm.getServices().get(s);
          for (int d = 0; d < se.getTrafficFlow().getDemands().size(); d++)
             if (pm.getServices().get(s).getTrafficFlow().getAux().get(d)) {
-               for (int p = 0; p < se.getTrafficFlow().getPaths().size(); p++)
+               for (int p = 0; p < se.getTrafficFlow().getPaths().size(); p++) {
+                  // without the path the constraint is always satisfied
+                  if (vars.isNotRouted(s, p, d))
+                     continue;
                   for (int v = 1; v < se.getFunctions().size(); v++) {
                      for (int n = 0; n < se.getTrafficFlow().getPaths().get(p).getNodePath().size(); n++) {
                         GRBLinExpr expr = new GRBLinExpr();
@@ -195,13 +200,14 @@ public class Constraints {
                               expr.addTerm(-1.0, vars.fXSVD[x][s][v][d]);
 
                         expr2.addConstant(-1);
-                        expr2.addTerm(1.0, vars.zSPD[s][p][d]);
+                        vars.addZSPDTerm(expr2, 1.0, s, p, d);
                         modelLP.getGrbModel().addConstr(expr, GRB.GREATER_EQUAL, expr2,
                               FD3 + "[s][d][p][v][n] --> " + "[" + s + "][" + d + "]"
                                     + pm.getServices().get(s).getTrafficFlow().getPaths().get(p).getNodePath() + "[" + v
                                     + "][" + se.getTrafficFlow().getPaths().get(p).getNodePath().get(n).getId() + "]");
                      }
                   }
+               }
             }
       }
    }
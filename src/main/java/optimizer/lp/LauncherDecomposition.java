@@ -0,0 +1,248 @@
+package optimizer.lp;
+
+import gurobi.GRB;
+import gurobi.GRBException;
+import gurobi.GRBLinExpr;
+import gurobi.GRBVar;
+import optimizer.Manager;
+import optimizer.Parameters;
+import optimizer.gui.Job;
+import optimizer.gui.ResultsGUI;
+import optimizer.gui.Scenario;
+import optimizer.results.Auxiliary;
+import optimizer.results.Metrics;
+import optimizer.results.Profiler;
+import optimizer.results.Results;
+import optimizer.results.ResultsManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static optimizer.Definitions.*;
+import static optimizer.results.Auxiliary.printLog;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Route-then-place no-good enumeration: the master is the full model with relaxed placement and picks the paths,
+// placement-only models for the picked routings run in parallel and every evaluated routing is excluded from the
+// master with a no-good cut. Unlike Benders optimality cuts these carry no dual information, so the master bound only
+// tightens as routings are enumerated and the search stops once it reaches the best placement, when the master has
+// no new routing or after dec_max_iterations.
+public class LauncherDecomposition {
+
+   private static final Logger log = LoggerFactory.getLogger(LauncherDecomposition.class);
+
+   public static Results run(Parameters pm, Scenario sce, ResultsManager resultsManager, String outputFileName)
+         throws GRBException {
+      int maxIterations = (int) pm.getGlobal(DEC_MAX_ITERATIONS, 50);
+      int numThreads = (int) pm.getGlobal(DEC_THREADS, Runtime.getRuntime().availableProcessors());
+      int numCandidates = (int) pm.getGlobal(DEC_NUM_CANDIDATES, numThreads);
+      int threadsPerSubproblem = Math.max(1, Runtime.getRuntime().availableProcessors() / numThreads);
+      boolean isMaximization = sce.isMaximization();
+
+      printLog(log, INFO, "setting master problem");
+      Profiler.start(PHASE_MODEL_BUILD);
+      ModelLP master = buildModel(pm, sce, null);
+      Profiler.stop(PHASE_MODEL_BUILD);
+      ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+      // placement models not collected yet, disposed on failure
+      List<Future<ModelLP>> futures = new ArrayList<>();
+      Set<String> evaluatedRoutings = new HashSet<>();
+      ModelLP bestModel = null;
+      double bestObjVal = isMaximization ? -Double.MAX_VALUE : Double.MAX_VALUE;
+      double bound = isMaximization ? Double.MAX_VALUE : -Double.MAX_VALUE;
+      int numCuts = 0;
+      LocalDateTime startTime = LocalDateTime.now();
+      Profiler.start(PHASE_SOLVE);
+      try {
+         relaxPlacement(master.getVars());
+         master.getGrbModel().set(GRB.IntParam.PoolSolutions, numCandidates);
+         master.getGrbModel().update();
+         for (int it = 0; it < maxIterations; it++) {
+            if (Manager.isInterrupted())
+               break;
+            // master: select paths
+            printLog(log, INFO, "solving master [" + it + "]");
+            if (master.run() == null)
+               break; // every routing has been evaluated or cut off
+            bound = master.getGrbModel().get(GRB.DoubleAttr.ObjBound);
+            if (bestModel != null && !improves(bound, bestObjVal, isMaximization))
+               break;
+
+            // collect new routings from the solution pool
+            List<boolean[][][]> routings = new ArrayList<>();
+            int solCount = master.getGrbModel().get(GRB.IntAttr.SolCount);
+            for (int k = 0; k < Math.min(solCount, numCandidates); k++) {
+               master.getGrbModel().set(GRB.IntParam.SolutionNumber, k);
+               boolean[][][] routing = readRouting(pm, master.getVars());
+               if (evaluatedRoutings.add(Arrays.deepToString(routing)))
+                  routings.add(routing);
+            }
+            if (routings.isEmpty())
+               break;
+
+            // placement for every routing in parallel
+            for (boolean[][][] routing : routings)
+               futures.add(executor.submit(Job.bind(() -> solvePlacement(pm, sce, routing, threadsPerSubproblem))));
+            for (boolean[][][] routing : routings) {
+               ModelLP subModel = futures.get(0).get();
+               futures.remove(0);
+               if (subModel != null && (bestModel == null
+                     || improves(subModel.getObjVal(), bestObjVal, isMaximization))) {
+                  if (bestModel != null)
+                     bestModel.dispose();
+                  bestModel = subModel;
+                  bestObjVal = subModel.getObjVal();
+               } else if (subModel != null)
+                  subModel.dispose();
+               // infeasible or not, the routing is evaluated
+               addNoGoodCut(pm, master, routing, numCuts++);
+            }
+            printLog(log, INFO, "decomposition [" + it + "][" + Auxiliary.roundDouble(bound, 4) + "-"
+                  + (bestModel != null ? Auxiliary.roundDouble(bestObjVal, 4) : "-") + "][" + numCuts
+                  + " no-good cuts]");
+         }
+      } catch (Exception e) {
+         e.printStackTrace();
+         printLog(log, ERROR, "decomposition failed");
+      } finally {
+         executor.shutdownNow();
+         disposeAll(futures);
+         master.dispose();
+      }
+      Profiler.stop(PHASE_SOLVE);
+      Duration durationComputation = Duration.between(startTime, LocalDateTime.now());
+      Metrics.observeSolveTime(sce.getName(), durationComputation.toMillis() / 1000.0);
+      Results results = null;
+      if (bestModel != null) {
+         Profiler.start(PHASE_RESULT_EXTRACTION);
+         try {
+            printLog(log, INFO, "generating results");
+            results = LauncherLP.generateResults(pm, bestModel, sce, null);
+         } finally {
+            bestModel.dispose();
+         }
+         Profiler.stop(PHASE_RESULT_EXTRACTION);
+         results.setComputationTime((double) durationComputation.getSeconds());
+         resultsManager.exportJsonObject(outputFileName, results);
+         ResultsGUI.updateResults(results);
+      } else
+         printLog(log, ERROR, "no feasible placement found");
+      printLog(log, INFO, "done");
+      return results;
+   }
+
+   // full model, or the placement model of the given routing, whose paths are constants instead of variables
+   private static ModelLP buildModel(Parameters pm, Scenario sce, boolean[][][] routing) throws GRBException {
+      ModelLP modelLP = new ModelLP(pm, null);
+      VariablesLP variablesLP = new VariablesLP(pm, modelLP.getGrbModel(), sce, null, routing);
+      modelLP.setVars(variablesLP);
+      new Constraints(pm, modelLP, sce, null);
+      GRBLinExpr expr = LauncherLP.generateExprForObjectiveFunction(pm, modelLP, sce.getObjFunc(), null);
+      modelLP.setObjectiveFunction(expr, sce.isMaximization());
+      return modelLP;
+   }
+
+   // solved placement model, null and disposed if it has no solution
+   private static ModelLP solvePlacement(Parameters pm, Scenario sce, boolean[][][] routing, int threads) {
+      ModelLP modelLP = null;
+      boolean isSolved = false;
+      try {
+         modelLP = buildModel(pm, sce, routing);
+         modelLP.getGrbModel().set(GRB.IntParam.Threads, threads);
+         isSolved = modelLP.run() != null;
+      } catch (GRBException e) {
+         printLog(log, ERROR, "placement failed: " + e.getMessage());
+      } finally {
+         if (!isSolved && modelLP != null)
+            modelLP.dispose();
+      }
+      return isSolved ? modelLP : null;
+   }
+
+   // waits for the placement models still running, native memory is only freed once they finish
+   private static void disposeAll(List<Future<ModelLP>> futures) {
+      for (Future<ModelLP> future : futures)
+         try {
+            ModelLP modelLP = future.get();
+            if (modelLP != null)
+               modelLP.dispose();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+         } catch (ExecutionException e) {
+            printLog(log, ERROR, "placement failed: " + e.getCause());
+         }
+   }
+
+   private static void relaxPlacement(VariablesLP vars) throws GRBException {
+      setContinuous(vars.fX);
+      for (int x = 0; x < vars.fXSV.length; x++)
+         for (int s = 0; s < vars.fXSV[x].length; s++) {
+            setContinuous(vars.fXSV[x][s]);
+            for (int v = 0; v < vars.fXSVD[x][s].length; v++)
+               setContinuous(vars.fXSVD[x][s][v]);
+         }
+      if (vars.gSVXY != null)
+         for (GRBVar[][][] gVXY : vars.gSVXY)
+            for (GRBVar[][] gXY : gVXY)
+               for (GRBVar[] gY : gXY)
+                  setContinuous(gY);
+      if (vars.hSVP != null)
+         for (GRBVar[][] hVP : vars.hSVP)
+            for (GRBVar[] hP : hVP)
+               setContinuous(hP);
+   }
+
+   private static void setContinuous(GRBVar[] vars) throws GRBException {
+      if (vars != null)
+         for (GRBVar var : vars)
+            if (var != null)
+               var.set(GRB.CharAttr.VType, GRB.CONTINUOUS);
+   }
+
+   private static boolean[][][] readRouting(Parameters pm, VariablesLP vars) throws GRBException {
+      boolean[][][] routing = new boolean[pm.getServices().size()][pm.getPathsTrafficFlow()][pm
+            .getDemandsTrafficFlow()];
+      for (int s = 0; s < pm.getServices().size(); s++)
+         for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
+            for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+               if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
+                  routing[s][p][d] = vars.zSPD[s][p][d].get(GRB.DoubleAttr.Xn) > 0.5;
+      return routing;
+   }
+
+   // excludes exactly the given routing from the master problem
+   private static void addNoGoodCut(Parameters pm, ModelLP master, boolean[][][] routing, int cut)
+         throws GRBException {
+      GRBLinExpr expr = new GRBLinExpr();
+      int ones = 0;
+      for (int s = 0; s < pm.getServices().size(); s++)
+         for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
+            for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+               if (pm.getServices().get(s).getTrafficFlow().getAux().get(d)) {
+                  if (routing[s][p][d]) {
+                     expr.addTerm(1.0, master.getVars().zSPD[s][p][d]);
+                     ones++;
+                  } else
+                     expr.addTerm(-1.0, master.getVars().zSPD[s][p][d]);
+               }
+      master.getGrbModel().addConstr(expr, GRB.LESS_EQUAL, ones - 1, DEC_NO_GOOD_CUT + "[" + cut + "]");
+   }
+
+   private static boolean improves(double value, double reference, boolean isMaximization) {
+      if (isMaximization)
+         return value > reference + 1e-6;
+      else
+         return value < reference - 1e-6;
+   }
+}
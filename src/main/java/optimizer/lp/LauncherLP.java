@@ -1,12 +1,16 @@
 package optimizer.lp;
 
+import gurobi.GRB;
 import gurobi.GRBException;
 import gurobi.GRBLinExpr;
 import gurobi.GRBModel;
 import optimizer.Parameters;
+import optimizer.algorithms.VariablesAlg;
 import optimizer.gui.ResultsGUI;
 import optimizer.gui.Scenario;
 import optimizer.results.Auxiliary;
+import optimizer.results.Metrics;
+import optimizer.results.Profiler;
 import optimizer.results.Results;
 import optimizer.results.ResultsManager;
 import org.slf4j.Logger;
@@ -22,27 +26,47 @@ public class LauncherLP {
 
    private static final Logger log = LoggerFactory.getLogger(LauncherLP.class);
 
-   public static GRBModel run(Parameters pm, Scenario sce, ResultsManager resultsManager, GRBModel initialModel,
-         GRBModel initialSolution, String outputFileName, boolean exportMST) throws GRBException {
+   // results of the run, null if the model has no solution
+   public static Results run(Parameters pm, Scenario sce, ResultsManager resultsManager,
+         VariablesAlg initialPlacementVars, GRBModel initialSolution, String outputFileName, boolean exportMST)
+         throws GRBException {
+      return run(pm, sce, resultsManager, initialPlacementVars, initialSolution, null, outputFileName, exportMST);
+   }
+
+   // startDemands [s][d] marks the demands whose routing and placement in initialPlacementVars are a partial MIP start
+   public static Results run(Parameters pm, Scenario sce, ResultsManager resultsManager,
+         VariablesAlg initialPlacementVars, GRBModel initialSolution, boolean[][] startDemands, String outputFileName,
+         boolean exportMST) throws GRBException {
+      Profiler.start(PHASE_MODEL_BUILD);
       boolean[][][] initialPlacement = null;
-      if (initialModel != null)
-         initialPlacement = Auxiliary.fXSVvarsFromInitialModel(pm, initialModel);
+      if (initialPlacementVars != null)
+         initialPlacement = Auxiliary.fXSVvarsFromInitialModel(pm, initialPlacementVars);
       ModelLP modelLP = new ModelLP(pm, initialSolution);
       printLog(log, INFO, "setting variables");
       VariablesLP variablesLP = new VariablesLP(pm, modelLP.getGrbModel(), sce, initialSolution);
       modelLP.setVars(variablesLP);
       printLog(log, INFO, "setting constraints");
+      Profiler.start(PHASE_CONSTRAINT_GENERATION);
       new Constraints(pm, modelLP, sce, initialPlacement);
+      Profiler.stop(PHASE_CONSTRAINT_GENERATION);
       GRBLinExpr expr = generateExprForObjectiveFunction(pm, modelLP, sce.getObjFunc(), initialPlacement);
       modelLP.setObjectiveFunction(expr, sce.isMaximization());
+      if (initialPlacementVars != null && startDemands != null)
+         setDemandsStart(pm, variablesLP, initialPlacementVars, startDemands);
+      Profiler.stop(PHASE_MODEL_BUILD);
       printLog(log, INFO, "running model");
       LocalDateTime startTime = LocalDateTime.now();
+      Profiler.start(PHASE_SOLVE);
       Double objVal = modelLP.run();
+      Profiler.stop(PHASE_SOLVE);
       Duration durationComputation = Duration.between(startTime, LocalDateTime.now());
-      Results results;
+      Metrics.observeSolveTime(sce.getName(), durationComputation.toMillis() / 1000.0);
+      Results results = null;
       if (objVal != null) {
          Auxiliary.printLog(log, INFO, "generating results");
+         Profiler.start(PHASE_RESULT_EXTRACTION);
          results = generateResults(pm, modelLP, sce, initialPlacement);
+         Profiler.stop(PHASE_RESULT_EXTRACTION);
          results.setComputationTime((double) durationComputation.getSeconds());
          resultsManager.exportJsonObject(outputFileName, results);
          if (exportMST)
@@ -50,10 +74,27 @@ public class LauncherLP {
          ResultsGUI.updateResults(results);
       }
       Auxiliary.printLog(log, INFO, "done");
-      return modelLP.getGrbModel();
+      return results;
    }
 
-   private static GRBLinExpr generateExprForObjectiveFunction(Parameters pm, ModelLP modelLP, String objectiveFunction,
+   private static void setDemandsStart(Parameters pm, VariablesLP variablesLP, VariablesAlg startVars,
+         boolean[][] startDemands) throws GRBException {
+      int startedDemands = 0;
+      for (int s = 0; s < pm.getServices().size(); s++)
+         for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++) {
+            if (!startDemands[s][d])
+               continue;
+            for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
+               variablesLP.zSPD[s][p][d].set(GRB.DoubleAttr.Start, startVars.zSPD[s][p][d] ? 1.0 : 0.0);
+            for (int x = 0; x < pm.getServers().size(); x++)
+               for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
+                  variablesLP.fXSVD[x][s][v][d].set(GRB.DoubleAttr.Start, startVars.fXSVD[x][s][v][d] ? 1.0 : 0.0);
+            startedDemands++;
+         }
+      printLog(log, INFO, "MIP start set for " + startedDemands + " demands");
+   }
+
+   static GRBLinExpr generateExprForObjectiveFunction(Parameters pm, ModelLP modelLP, String objectiveFunction,
          boolean[][][] initialPlacement) throws GRBException {
       GRBLinExpr expr = new GRBLinExpr();
       double serversWeight, linksWeight;
@@ -147,12 +188,17 @@ public class LauncherLP {
       return expr;
    }
 
-   private static Results generateResults(Parameters pm, ModelLP optModelLP, Scenario sc,
+   static Results generateResults(Parameters pm, ModelLP optModelLP, Scenario sc,
          boolean[][][] initialPlacement) throws GRBException {
       Results results = new Results(pm, sc);
       // general variables
-      results.setVariable(zSP, Auxiliary.grbVarsToBooleans(optModelLP.getVars().zSP));
-      results.setVariable(zSPD, Auxiliary.grbVarsToBooleans(optModelLP.getVars().zSPD));
+      if (optModelLP.getVars().isRoutingFixed()) {
+         results.setVariable(zSP, optModelLP.getVars().getRoutingPaths());
+         results.setVariable(zSPD, optModelLP.getVars().getRouting());
+      } else {
+         results.setVariable(zSP, Auxiliary.grbVarsToBooleans(optModelLP.getVars().zSP));
+         results.setVariable(zSPD, Auxiliary.grbVarsToBooleans(optModelLP.getVars().zSPD));
+      }
       results.setVariable(fX, Auxiliary.grbVarsToBooleans(optModelLP.getVars().fX));
       results.setVariable(fXSV, Auxiliary.grbVarsToBooleans(optModelLP.getVars().fXSV));
       results.setVariable(fXSVD, Auxiliary.grbVarsToBooleans(optModelLP.getVars().fXSVD));
@@ -0,0 +1,226 @@
+package optimizer.lp;
+
+import gurobi.GRB;
+import gurobi.GRBException;
+import gurobi.GRBLinExpr;
+import gurobi.GRBVar;
+import optimizer.Parameters;
+import optimizer.algorithms.LauncherAlg;
+import optimizer.algorithms.NetworkManager;
+import optimizer.algorithms.VariablesAlg;
+import optimizer.gui.Job;
+import optimizer.gui.ResultsGUI;
+import optimizer.gui.Scenario;
+import optimizer.results.Auxiliary;
+import optimizer.results.Metrics;
+import optimizer.results.Profiler;
+import optimizer.results.Results;
+import optimizer.results.ResultsManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static optimizer.Definitions.*;
+import static optimizer.results.Auxiliary.printLog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Solves the continuous relaxation of the model and rounds zSPD and fXSVD over many random draws in parallel,
+// every draw is repaired with the capacity checks of the network manager and the best one is reported
+public class LauncherRounding {
+
+   private static final Logger log = LoggerFactory.getLogger(LauncherRounding.class);
+   private static final double MIN_WEIGHT = 1e-3; // keeps zero-valued choices available for repairing
+
+   public static Results run(Parameters pm, Scenario sce, ResultsManager resultsManager, String outputFileName)
+         throws GRBException {
+      int numDraws = (int) pm.getGlobal(ROUNDING_DRAWS, 100);
+      int numThreads = (int) pm.getGlobal(ROUNDING_THREADS, Runtime.getRuntime().availableProcessors());
+      double startTime = System.currentTimeMillis();
+
+      // continuous relaxation
+      Profiler.start(PHASE_MODEL_BUILD);
+      ModelLP modelLP = new ModelLP(pm, null);
+      printLog(log, INFO, "setting variables");
+      VariablesLP variablesLP = new VariablesLP(pm, modelLP.getGrbModel(), sce, null);
+      modelLP.setVars(variablesLP);
+      printLog(log, INFO, "setting constraints");
+      Profiler.start(PHASE_CONSTRAINT_GENERATION);
+      new Constraints(pm, modelLP, sce, null);
+      Profiler.stop(PHASE_CONSTRAINT_GENERATION);
+      modelLP.getGrbModel().update();
+      for (GRBVar var : modelLP.getGrbModel().getVars())
+         var.set(GRB.CharAttr.VType, GRB.CONTINUOUS);
+      GRBLinExpr expr = LauncherLP.generateExprForObjectiveFunction(pm, modelLP, sce.getObjFunc(), null);
+      modelLP.setObjectiveFunction(expr, sce.isMaximization());
+      Profiler.stop(PHASE_MODEL_BUILD);
+      printLog(log, INFO, "running relaxation");
+      Profiler.start(PHASE_SOLVE);
+      if (modelLP.run() == null) {
+         Profiler.stop(PHASE_SOLVE);
+         printLog(log, INFO, "done");
+         return null;
+      }
+      double[][][] zSPDrelaxed = Auxiliary.grbVarsToDoubles(variablesLP.zSPD);
+      double[][][][] fXSVDrelaxed = Auxiliary.grbVarsToDoubles(variablesLP.fXSVD);
+
+      // randomized rounding
+      printLog(log, INFO, "rounding [" + numDraws + " draws]");
+      long seed = pm.getSeed();
+      ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+      List<Future<VariablesAlg>> futures = new ArrayList<>();
+      for (int i = 0; i < numDraws; i++) {
+         Random rnd = new Random(seed + i);
+         futures.add(executor.submit(Job.bind(() -> roundAndRepair(pm, sce, zSPDrelaxed, fXSVDrelaxed, rnd))));
+      }
+      VariablesAlg bestVars = null;
+      int feasibleDraws = 0;
+      try {
+         for (Future<VariablesAlg> future : futures) {
+            VariablesAlg vars = future.get();
+            if (vars == null)
+               continue;
+            feasibleDraws++;
+            if (bestVars == null || (sce.isMaximization() ? vars.objVal > bestVars.objVal
+                  : vars.objVal < bestVars.objVal))
+               bestVars = vars;
+         }
+      } catch (Exception e) {
+         e.printStackTrace();
+      } finally {
+         executor.shutdownNow();
+      }
+      Profiler.stop(PHASE_SOLVE);
+      double elapsedTime = System.currentTimeMillis() - startTime;
+      Metrics.observeSolveTime(sce.getName(), elapsedTime / 1000);
+      if (bestVars == null) {
+         printLog(log, ERROR, "no feasible rounding found");
+         printLog(log, INFO, "done");
+         return null;
+      }
+      printLog(log, INFO, "finished [" + Auxiliary.roundDouble(bestVars.objVal, 4) + "][" + feasibleDraws + "/"
+            + numDraws + " feasible]");
+      printLog(log, INFO, "generating results...");
+      Profiler.start(PHASE_RESULT_EXTRACTION);
+      Results results = LauncherAlg.generateResults(pm, sce, bestVars, bestVars.fXSVinitial);
+      Profiler.stop(PHASE_RESULT_EXTRACTION);
+      results.setComputationTime(elapsedTime / 1000);
+      resultsManager.exportJsonObject(outputFileName, results);
+      ResultsGUI.updateResults(results);
+      printLog(log, INFO, "done");
+      return results;
+   }
+
+   private static VariablesAlg roundAndRepair(Parameters pm, Scenario sce, double[][][] zSPDrelaxed,
+         double[][][][] fXSVDrelaxed, Random rnd) {
+      VariablesAlg vars = new VariablesAlg(pm, null, sce.getObjFunc());
+      NetworkManager networkManager = new NetworkManager(pm, vars);
+      for (int s = 0; s < pm.getServices().size(); s++) {
+         for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++) {
+            if (!pm.getServices().get(s).getTrafficFlow().getAux().get(d))
+               continue;
+            // draw paths by their relaxed value, falling back to the next draw when the placement fails
+            List<Integer> paths = new ArrayList<>();
+            for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
+               paths.add(p);
+            boolean isAllocated = false;
+            while (!paths.isEmpty() && !isAllocated) {
+               int p = paths.remove(drawIndex(paths, zSPDrelaxed[s], d, rnd));
+               if (!networkManager.checkIfFreePathResources(s, d, p))
+                  continue;
+               networkManager.addDemandToPath(s, p, d);
+               if (placeFunctions(pm, networkManager, fXSVDrelaxed, s, d, p, rnd))
+                  isAllocated = true;
+               else {
+                  networkManager.removeDemandFromAllFunctionsToServer(s, d);
+                  networkManager.removeDemandFromPath(s, p, d);
+               }
+            }
+            if (!isAllocated)
+               return null;
+         }
+         networkManager.removeUnusedFunctions(s);
+      }
+      if (sce.getConstraints().get(SYNC_TRAFFIC))
+         for (int s = 0; s < pm.getServices().size(); s++)
+            networkManager.addSyncTraffic(s);
+      vars.generateRestOfVariablesForResults();
+      vars.objVal = evaluate(pm, sce.getObjFunc(), vars);
+      return vars;
+   }
+
+   private static boolean placeFunctions(Parameters pm, NetworkManager networkManager, double[][][][] fXSVDrelaxed,
+         int s, int d, int p, Random rnd) {
+      for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++) {
+         List<Integer> servers = networkManager.findServersForSpecificFunction(s, d, p, v, true, false);
+         if (servers.isEmpty()) // repair: only reserve resources for this function
+            servers = networkManager.findServersForSpecificFunction(s, d, p, v, true, true);
+         if (servers.isEmpty())
+            return false;
+         double[] weights = new double[servers.size()];
+         for (int i = 0; i < servers.size(); i++)
+            weights[i] = fXSVDrelaxed[servers.get(i)][s][v][d];
+         int x = servers.get(drawIndex(weights, rnd));
+         networkManager.addDemandToFunctionToServer(s, x, v, d);
+      }
+      return true;
+   }
+
+   private static int drawIndex(List<Integer> paths, double[][] zPDrelaxed, int d, Random rnd) {
+      double[] weights = new double[paths.size()];
+      for (int i = 0; i < paths.size(); i++)
+         weights[i] = zPDrelaxed[paths.get(i)][d];
+      return drawIndex(weights, rnd);
+   }
+
+   private static int drawIndex(double[] weights, Random rnd) {
+      double total = 0;
+      for (double weight : weights)
+         total += Math.max(weight, 0) + MIN_WEIGHT;
+      double value = rnd.nextDouble() * total;
+      for (int i = 0; i < weights.length; i++) {
+         value -= Math.max(weights[i], 0) + MIN_WEIGHT;
+         if (value <= 0)
+            return i;
+      }
+      return weights.length - 1;
+   }
+
+   // objective value of a rounded solution, cost based objectives are ranked by their weighted utilization
+   private static double evaluate(Parameters pm, String objFunc, VariablesAlg vars) {
+      double value = 0;
+      switch (objFunc) {
+         case NUM_SERVERS:
+            for (boolean used : vars.fX)
+               if (used)
+                  value++;
+            break;
+         case NUM_FUNCTIONS:
+            for (int x = 0; x < pm.getServers().size(); x++)
+               for (int s = 0; s < pm.getServices().size(); s++)
+                  for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
+                     if (vars.fXSV[x][s][v])
+                        value++;
+            break;
+         case MGR:
+         case REP:
+         case MGR_REP:
+         case MGR_REP_CLOUD:
+            value = vars.objVal;
+            break;
+         default:
+            double linksWeight = ((Number) pm.getGlobal(LINKS_WEIGHT, 1.0)).doubleValue() / pm.getLinks().size();
+            double serversWeight = ((Number) pm.getGlobal(SERVERS_WEIGHT, 1.0)).doubleValue() / pm.getServers().size();
+            for (double lu : vars.lu)
+               value += linksWeight * lu;
+            for (double xu : vars.xu)
+               value += serversWeight * xu;
+            break;
+      }
+      return value;
+   }
+}
@@ -3,7 +3,9 @@ package optimizer.lp;
 import gurobi.*;
 import optimizer.Parameters;
 import optimizer.Manager;
+import optimizer.gui.ResultsGUI;
 import optimizer.results.Auxiliary;
+import optimizer.results.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,6 +18,8 @@ public class ModelLP {
 
    private static final Logger log = LoggerFactory.getLogger(ModelLP.class);
    private GRBModel grbModel;
+   // environment created by this model, null when the model is the given initial solution
+   private GRBEnv grbEnv;
    private VariablesLP vars;
    private Parameters pm;
    private double objVal;
@@ -23,10 +27,10 @@ public class ModelLP {
    public ModelLP(Parameters pm, GRBModel initialSolution) {
       this.pm = pm;
       try {
-         GRBEnv grbEnv = new GRBEnv();
-         if (initialSolution == null)
+         if (initialSolution == null) {
+            grbEnv = new GRBEnv();
             grbModel = new GRBModel(grbEnv);
-         else
+         } else
             grbModel = initialSolution;
          Callback cb = new Callback();
          grbModel.setCallback(cb);
@@ -223,6 +227,17 @@ public class ModelLP {
             printLog(log, INFO, var.get(GRB.StringAttr.VarName));
    }
 
+   // frees the native memory of the model and of its environment, the model cannot be used afterwards
+   public void dispose() {
+      grbModel.dispose();
+      if (grbEnv != null)
+         try {
+            grbEnv.dispose();
+         } catch (GRBException e) {
+            printLog(log, ERROR, "error disposing environment: " + e.getMessage());
+         }
+   }
+
    public GRBModel getGrbModel() {
       return grbModel;
    }
@@ -263,6 +278,8 @@ public class ModelLP {
                   double newGap = (numerator / denominator) * 100;
                   if (newGap != gap) {
                      gap = newGap;
+                     Metrics.setGurobiProgress(getDoubleInfo(GRB.CB_RUNTIME), newGap / 100, objbst, objbnd);
+                     ResultsGUI.publishIncumbent(objbst, objbnd, newGap / 100);
                      objbst = Auxiliary.roundDouble(objbst, 2);
                      objbnd = Auxiliary.roundDouble(objbnd, 2);
                      double showGap = Auxiliary.roundDouble(newGap, 2);
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import gurobi.*;
+import optimizer.LinkPathIndex;
 import optimizer.Parameters;
 import optimizer.elements.*;
 import optimizer.gui.Scenario;
@@ -66,7 +67,7 @@ public class SpecificConstraints {
             useOnlyCloudServers();
          if (sc.getConstraints().get(EDGE_ONLY))
             useOnlyEdgeServers();
-         if (sc.getConstraints().get(SINGLE_PATH))
+         if (sc.getConstraints().get(SINGLE_PATH) && !vars.isRoutingFixed())
             singlePath();
          if (sc.getConstraints().get(SET_INIT_PLC))
             setInitPlc(initialPlacement);
@@ -74,7 +75,7 @@ public class SpecificConstraints {
             forceSrc();
          if (sc.getConstraints().get(FORCE_DST))
             forceDst();
-         if (sc.getConstraints().get(CONST_REP))
+         if (sc.getConstraints().get(CONST_REP) && !vars.isRoutingFixed())
             constRep();
          if (sc.getConstraints().containsKey(PATHS_SERVERS_CLOUD))
             if (sc.getConstraints().get(PATHS_SERVERS_CLOUD))
@@ -155,18 +156,19 @@ public class SpecificConstraints {
 
    private GRBLinExpr[] createLinkLoadExpr() {
       GRBLinExpr[] expressions = new GRBLinExpr[pm.getLinks().size()];
-      for (int l = 0; l < pm.getLinks().size(); l++) {
-         GRBLinExpr expr = new GRBLinExpr();
-         for (int s = 0; s < pm.getServices().size(); s++)
-            for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++) {
-               if (!pm.getServices().get(s).getTrafficFlow().getPaths().get(p).contains(pm.getLinks().get(l)))
-                  continue;
-               for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
-                  if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
-                     expr.addTerm((double) pm.getServices().get(s).getTrafficFlow().getDemands().get(d),
-                           vars.zSPD[s][p][d]);
-            }
-         expressions[l] = expr;
+      for (int l = 0; l < pm.getLinks().size(); l++)
+         expressions[l] = new GRBLinExpr();
+      LinkPathIndex index = pm.getLinkPathIndex();
+      int[] pathLinks = index.getPathLinks();
+      for (int s = 0; s < pm.getServices().size(); s++) {
+         TrafficFlow trafficFlow = pm.getServices().get(s).getTrafficFlow();
+         for (int p = 0; p < trafficFlow.getPaths().size(); p++) {
+            int q = index.getPathIndex(trafficFlow.getPaths().get(p));
+            for (int d = 0; d < trafficFlow.getDemands().size(); d++)
+               if (trafficFlow.getAux().get(d))
+                  for (int i = index.getPathLinksStart(q); i < index.getPathLinksEnd(q); i++)
+                     vars.addZSPDTerm(expressions[pathLinks[i]], trafficFlow.getDemands().get(d), s, p, d);
+         }
       }
       return expressions;
    }
@@ -282,7 +284,7 @@ public class SpecificConstraints {
 
                   GRBLinExpr expr = new GRBLinExpr();
                   expr.addTerm(1.0 / maxDelay, vars.ySDP[s][d][p]); // ratio
-                  expr.addTerm(-1.0, vars.zSPD[s][p][d]);
+                  vars.addZSPDTerm(expr, -1.0, s, p, d);
 
                   // qos_penalty value
                   double profit = 0;
@@ -320,10 +322,10 @@ public class SpecificConstraints {
                   // linearization of delay and routing variables
                   modelLP.getGrbModel().addConstr(vars.ySDP[s][d][p], GRB.LESS_EQUAL, serviceDelayExpr, ySDP);
                   GRBLinExpr expr = new GRBLinExpr();
-                  expr.addTerm(bigM, vars.zSPD[s][p][d]);
+                  vars.addZSPDTerm(expr, bigM, s, p, d);
                   modelLP.getGrbModel().addConstr(vars.ySDP[s][d][p], GRB.LESS_EQUAL, expr, ySDP);
                   expr = new GRBLinExpr();
-                  expr.addTerm(bigM, vars.zSPD[s][p][d]);
+                  vars.addZSPDTerm(expr, bigM, s, p, d);
                   expr.addConstant(-bigM);
                   expr.add(serviceDelayExpr);
                   modelLP.getGrbModel().addConstr(vars.ySDP[s][d][p], GRB.GREATER_EQUAL, expr, ySDP);
@@ -344,9 +346,9 @@ public class SpecificConstraints {
                if (service.getTrafficFlow().getAux().get(d)) {
                   GRBLinExpr serviceDelayExpr = serviceDelayExpr(s, p, d, initialPlacement); // in ms
                   GRBLinExpr pathDelayExpr = new GRBLinExpr();
-                  pathDelayExpr.addTerm(pm.getServices().get(s).getMaxDelay(), vars.zSPD[s][p][d]);
+                  vars.addZSPDTerm(pathDelayExpr, pm.getServices().get(s).getMaxDelay(), s, p, d);
                   pathDelayExpr.addConstant(bigM);
-                  pathDelayExpr.addTerm(-bigM, vars.zSPD[s][p][d]);
+                  vars.addZSPDTerm(pathDelayExpr, -bigM, s, p, d);
                   modelLP.getGrbModel().addConstr(serviceDelayExpr, GRB.LESS_EQUAL, pathDelayExpr, MAX_SERV_DELAY);
                }
       }
@@ -450,12 +452,9 @@ public class SpecificConstraints {
                   modelLP.getGrbModel().addConstr(vars.gSVXY[s][v][x][y], GRB.GREATER_EQUAL, expr,
                         gSVXY + "_3[s][v][x][y] --> " + "[" + s + "][" + v + "][" + x + "][" + y + "]");
                   expr = new GRBLinExpr();
-                  for (int p = 0; p < pm.getPaths().size(); p++) {
-                     Path pa = pm.getPaths().get(p);
-                     if (pa.getNodePath().get(0).equals(pm.getServers().get(x).getParent()) & pa.getNodePath()
-                           .get(pa.getNodePath().size() - 1).equals(pm.getServers().get(y).getParent()))
-                        expr.addTerm(1.0, vars.hSVP[s][v][p]);
-                  }
+                  for (int p : pm.getLinkPathIndex().getPathsBetween(pm.getServers().get(x).getParent(),
+                        pm.getServers().get(y).getParent()))
+                     expr.addTerm(1.0, vars.hSVP[s][v][p]);
                   modelLP.getGrbModel().addConstr(vars.gSVXY[s][v][x][y], GRB.LESS_EQUAL, expr,
                         gSVXY + "_4[s][v][x][y] --> " + "[" + s + "][" + v + "][" + x + "][" + y + "]");
                   modelLP.getGrbModel().addConstr(expr, GRB.LESS_EQUAL, 1.0,
@@ -468,12 +467,8 @@ public class SpecificConstraints {
                   if (n == m)
                      continue;
                   GRBLinExpr expr = new GRBLinExpr();
-                  for (int p = 0; p < pm.getPaths().size(); p++) {
-                     Path path = pm.getPaths().get(p);
-                     if (path.getNodePath().get(0).equals(pm.getNodes().get(n))
-                           & path.getNodePath().get(path.getNodePath().size() - 1).equals(pm.getNodes().get(m)))
-                        expr.addTerm(1.0, vars.hSVP[s][v][p]);
-                  }
+                  for (int p : pm.getLinkPathIndex().getPathsBetween(pm.getNodes().get(n), pm.getNodes().get(m)))
+                     expr.addTerm(1.0, vars.hSVP[s][v][p]);
                   GRBLinExpr expr2 = new GRBLinExpr();
                   for (int x = 0; x < pm.getServers().size(); x++)
                      for (int y = 0; y < pm.getServers().size(); y++)
@@ -483,22 +478,25 @@ public class SpecificConstraints {
                   modelLP.getGrbModel().addConstr(expr, GRB.LESS_EQUAL, expr2,
                         SYNC_TRAFFIC + "[s][v][n][m] --> " + "[" + s + "][" + v + "][" + n + "][" + m + "]");
                }
+      double[] traffic = new double[pm.getServices().size()];
+      for (int s = 0; s < pm.getServices().size(); s++)
+         for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+            if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
+               traffic[s] += pm.getServices().get(s).getTrafficFlow().getDemands().get(d);
+      LinkPathIndex index = pm.getLinkPathIndex();
+      int[] linkPaths = index.getLinkPaths();
       for (int l = 0; l < pm.getLinks().size(); l++) {
          GRBLinExpr expr = new GRBLinExpr();
-         for (int p = 0; p < pm.getPaths().size(); p++) {
-            if (!pm.getPaths().get(p).contains(pm.getLinks().get(l)))
-               continue;
-            for (int s = 0; s < pm.getServices().size(); s++) {
-               double traffic = 0;
-               for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
-                  if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
-                     traffic += pm.getServices().get(s).getTrafficFlow().getDemands().get(d);
+         for (int i = index.getLinkPathsStart(l); i < index.getLinkPathsEnd(l); i++) {
+            int p = linkPaths[i];
+            if (p >= pm.getPaths().size())
+               break;
+            for (int s = 0; s < pm.getServices().size(); s++)
                for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++) {
-                  double trafficScaled = traffic
+                  double trafficScaled = traffic[s]
                         * (double) pm.getServices().get(s).getFunctions().get(v).getAttribute(FUNCTION_SYNC_LOAD_RATIO);
                   expr.addTerm(trafficScaled, vars.hSVP[s][v][p]);
                }
-            }
          }
          linkLoadExpr[l].add(expr);
       }
@@ -549,7 +547,7 @@ public class SpecificConstraints {
                   for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
                      if (pm.getServices().get(s).getTrafficFlow().getPaths().get(p)
                            .contains(pm.getServers().get(x).getParent()))
-                        expr.addTerm(1.0, vars.zSP[s][p]);
+                        vars.addZSPTerm(expr, 1.0, s, p);
                   modelLP.getGrbModel().addConstr(expr, GRB.LESS_EQUAL, vars.fXSV[x][s][v], PATHS_SERVERS_CLOUD);
                }
    }
@@ -2,6 +2,7 @@ package optimizer.lp;
 
 import gurobi.GRB;
 import gurobi.GRBException;
+import gurobi.GRBLinExpr;
 import gurobi.GRBModel;
 import gurobi.GRBVar;
 import optimizer.Parameters;
@@ -38,11 +39,22 @@ public class VariablesLP {
    public GRBVar[][][][] gSVXY; // binary, aux synchronization traffic
    public GRBVar[][][] hSVP; // binary, traffic synchronization
 
+   // fixed routing of placement models, whose zSP and zSPD are constants instead of variables
+   private boolean[][][] routing;
+   private boolean[][] routingPaths;
+
    public VariablesLP(Parameters pm, GRBModel model, Scenario sc, GRBModel initialSolution) {
+      this(pm, model, sc, initialSolution, null);
+   }
+
+   public VariablesLP(Parameters pm, GRBModel model, Scenario sc, GRBModel initialSolution, boolean[][][] routing) {
       try {
 
-         zSP_init(pm, model, initialSolution);
-         zSPD_init(pm, model, initialSolution);
+         if (routing == null) {
+            zSP_init(pm, model, initialSolution);
+            zSPD_init(pm, model, initialSolution);
+         } else
+            routing_init(pm, routing);
          fX_init(pm, model, initialSolution);
          fXSV_init(pm, model, initialSolution);
          fXSVD_init(pm, model, initialSolution);
@@ -112,6 +124,47 @@ public class VariablesLP {
       }
    }
 
+   private void routing_init(Parameters pm, boolean[][][] routing) {
+      this.routing = routing;
+      routingPaths = new boolean[pm.getServices().size()][pm.getPathsTrafficFlow()];
+      for (int s = 0; s < pm.getServices().size(); s++)
+         for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
+            for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+               if (routing[s][p][d])
+                  routingPaths[s][p] = true;
+   }
+
+   public boolean isRoutingFixed() {
+      return routing != null;
+   }
+
+   // true if the routing is fixed and demand d of service s does not take path p
+   public boolean isNotRouted(int s, int p, int d) {
+      return routing != null && !routing[s][p][d];
+   }
+
+   public void addZSPTerm(GRBLinExpr expr, double coefficient, int s, int p) {
+      if (routing == null)
+         expr.addTerm(coefficient, zSP[s][p]);
+      else if (routingPaths[s][p])
+         expr.addConstant(coefficient);
+   }
+
+   public void addZSPDTerm(GRBLinExpr expr, double coefficient, int s, int p, int d) {
+      if (routing == null)
+         expr.addTerm(coefficient, zSPD[s][p][d]);
+      else if (routing[s][p][d])
+         expr.addConstant(coefficient);
+   }
+
+   public boolean[][] getRoutingPaths() {
+      return routingPaths;
+   }
+
+   public boolean[][][] getRouting() {
+      return routing;
+   }
+
    private void zSP_init(Parameters pm, GRBModel model, GRBModel initialSolution) throws GRBException {
       zSP = new GRBVar[pm.getServices().size()][pm.getPathsTrafficFlow()];
       for (int s = 0; s < pm.getServices().size(); s++)
@@ -28,46 +28,6 @@ import static optimizer.Definitions.*;
 
 public class Auxiliary {
 
-   static double avg(List<Double> list) {
-      if (list.size() == 0)
-         return 0;
-      double average = 0;
-      for (Object aList : list)
-         average += Double.parseDouble(aList.toString());
-      average = average / list.size();
-      return roundDouble(average, 2);
-   }
-
-   static double vrc(List<Object> list, double avg) {
-      if (list.size() == 0)
-         return 0;
-      double variance = 0;
-      for (Object aList : list)
-         variance += Math.pow(Double.parseDouble(aList.toString()) - avg, 2);
-      variance = variance / list.size();
-      return roundDouble(variance, 2);
-   }
-
-   public static double max(List<Object> list) {
-      if (list.size() == 0)
-         return 0;
-      double max = 0;
-      for (Object aList : list)
-         if (Double.parseDouble(aList.toString()) > max)
-            max = Double.parseDouble(aList.toString());
-      return roundDouble(max, 4);
-   }
-
-   public static double min(List<Object> list) {
-      if (list.size() == 0)
-         return 0;
-      double min = Double.MAX_VALUE;
-      for (Object aList : list)
-         if (Double.parseDouble(aList.toString()) < min)
-            min = Double.parseDouble(aList.toString());
-      return roundDouble(min, 4);
-   }
-
    public static double roundDouble(double value, int decimals) {
       return DoubleRounder.round(value, decimals);
    }
@@ -0,0 +1,180 @@
+package optimizer.results;
+
+import optimizer.gui.ResultsGUI;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide counters, gauges and histograms of the optimizer, rendered in the Prometheus text exposition format
+public class Metrics {
+
+   private static final double[] SOLVE_TIME_BUCKETS = { 0.01, 0.05, 0.1, 0.5, 1, 5, 10, 30, 60, 300, 600, 1800,
+         3600 };
+   private static final Map<String, LongAdder> runsStarted = new ConcurrentHashMap<>();
+   private static final Map<String, LongAdder> runsFinished = new ConcurrentHashMap<>();
+   private static final Map<String, LongAdder> runsFailed = new ConcurrentHashMap<>();
+   private static final Map<String, Histogram> solveTime = new ConcurrentHashMap<>();
+   private static final LongAdder heuristicMoves = new LongAdder();
+   private static volatile double heuristicMovesPerSecond;
+   private static volatile double gurobiGap = Double.NaN;
+   private static volatile double gurobiIncumbent = Double.NaN;
+   private static volatile double gurobiBound = Double.NaN;
+   private static volatile double gurobiRuntime = Double.NaN;
+
+   public static void runStarted(String algorithm) {
+      runsStarted.computeIfAbsent(algorithm, k -> new LongAdder()).increment();
+   }
+
+   public static void runFinished(String algorithm) {
+      runsFinished.computeIfAbsent(algorithm, k -> new LongAdder()).increment();
+   }
+
+   public static void runFailed(String algorithm) {
+      runsFailed.computeIfAbsent(algorithm, k -> new LongAdder()).increment();
+   }
+
+   // solve time in seconds
+   public static void observeSolveTime(String algorithm, double seconds) {
+      solveTime.computeIfAbsent(algorithm, k -> new Histogram(SOLVE_TIME_BUCKETS)).observe(seconds);
+   }
+
+   public static void heuristicMove() {
+      heuristicMoves.increment();
+   }
+
+   public static long getHeuristicMoves() {
+      return heuristicMoves.sum();
+   }
+
+   // moves per second of the last heuristic run
+   public static void setHeuristicMovesPerSecond(double movesPerSecond) {
+      heuristicMovesPerSecond = movesPerSecond;
+   }
+
+   // gap as a ratio, incumbent and bound of the last MIP node reported by Gurobi
+   public static void setGurobiProgress(double runtime, double gap, double incumbent, double bound) {
+      gurobiRuntime = runtime;
+      gurobiGap = gap;
+      gurobiIncumbent = incumbent;
+      gurobiBound = bound;
+   }
+
+   public static String scrape() {
+      StringBuilder sb = new StringBuilder();
+      writeCounter(sb, "optimizer_runs_started_total", "Optimization runs started", runsStarted);
+      writeCounter(sb, "optimizer_runs_finished_total", "Optimization runs finished", runsFinished);
+      writeCounter(sb, "optimizer_runs_failed_total", "Optimization runs failed with an exception", runsFailed);
+      writeHeader(sb, "optimizer_solve_time_seconds", "Solve time per algorithm", "histogram");
+      for (Map.Entry<String, Histogram> entry : solveTime.entrySet())
+         entry.getValue().write(sb, "optimizer_solve_time_seconds", "algorithm=\"" + escape(entry.getKey()) + "\"");
+      writeHeader(sb, "optimizer_heuristic_moves_total", "Demand allocations and function reallocations of heuristics",
+            "counter");
+      writeSample(sb, "optimizer_heuristic_moves_total", null, heuristicMoves.sum());
+      writeGauge(sb, "optimizer_heuristic_moves_per_second", "Heuristic moves per second of the last run",
+            heuristicMovesPerSecond);
+      writeGauge(sb, "optimizer_gurobi_mip_gap", "Relative MIP gap of the current or last model", gurobiGap);
+      writeGauge(sb, "optimizer_gurobi_incumbent", "Best objective of the current or last model", gurobiIncumbent);
+      writeGauge(sb, "optimizer_gurobi_bound", "Best bound of the current or last model", gurobiBound);
+      writeGauge(sb, "optimizer_gurobi_runtime_seconds", "Runtime of the current or last model at the last update",
+            gurobiRuntime);
+      MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+      writeGauge(sb, "optimizer_jvm_heap_used_bytes", "Heap in use", heap.getUsed());
+      writeGauge(sb, "optimizer_jvm_heap_committed_bytes", "Heap committed", heap.getCommitted());
+      writeGauge(sb, "optimizer_gui_messages", "Messages waiting in the GUI queue",
+            ResultsGUI.getEvents() != null ? ResultsGUI.getPendingMessages() : 0);
+      Map<String, Profiler.Phase> phases = Profiler.getPhases();
+      writeHeader(sb, "optimizer_phase_seconds", "Accumulated time per phase of the last run", "gauge");
+      writePhases(sb, "optimizer_phase_seconds", phases, "");
+      writeHeader(sb, "optimizer_phase_allocated_bytes", "Accumulated allocated bytes per phase of the last run",
+            "gauge");
+      writePhases(sb, "optimizer_phase_allocated_bytes", phases, "");
+      return sb.toString();
+   }
+
+   // nested phases are labeled with their path, e.g. read_parameters/topology_load
+   private static void writePhases(StringBuilder sb, String name, Map<String, Profiler.Phase> phases,
+         String parent) {
+      for (Map.Entry<String, Profiler.Phase> entry : phases.entrySet()) {
+         String phase = parent + entry.getKey();
+         Profiler.Phase value = entry.getValue();
+         writeSample(sb, name, "phase=\"" + escape(phase) + "\"",
+               name.equals("optimizer_phase_seconds") ? value.getTime() : value.getAllocatedBytes());
+         writePhases(sb, name, value.getPhases(), phase + "/");
+      }
+   }
+
+   private static void writeCounter(StringBuilder sb, String name, String help, Map<String, LongAdder> counters) {
+      writeHeader(sb, name, help, "counter");
+      for (Map.Entry<String, LongAdder> entry : counters.entrySet())
+         writeSample(sb, name, "algorithm=\"" + escape(entry.getKey()) + "\"", entry.getValue().sum());
+   }
+
+   private static void writeGauge(StringBuilder sb, String name, String help, double value) {
+      writeHeader(sb, name, help, "gauge");
+      writeSample(sb, name, null, value);
+   }
+
+   private static void writeHeader(StringBuilder sb, String name, String help, String type) {
+      sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+      sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+   }
+
+   private static void writeSample(StringBuilder sb, String name, String labels, double value) {
+      sb.append(name);
+      if (labels != null)
+         sb.append('{').append(labels).append('}');
+      sb.append(' ').append(formatValue(value)).append('\n');
+   }
+
+   private static String formatValue(double value) {
+      if (Double.isNaN(value))
+         return "NaN";
+      if (Double.isInfinite(value))
+         return value > 0 ? "+Inf" : "-Inf";
+      if (value == Math.rint(value) && Math.abs(value) < 1e15)
+         return Long.toString((long) value);
+      return Double.toString(value);
+   }
+
+   private static String escape(String labelValue) {
+      return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+   }
+
+   private static class Histogram {
+      private final double[] buckets;
+      private final AtomicLongArray counts;
+      private final DoubleAdder sum = new DoubleAdder();
+      private final LongAdder count = new LongAdder();
+
+      private Histogram(double[] buckets) {
+         this.buckets = buckets;
+         this.counts = new AtomicLongArray(buckets.length);
+      }
+
+      private void observe(double value) {
+         count.increment();
+         sum.add(value);
+         for (int i = 0; i < buckets.length; i++)
+            if (value <= buckets[i]) {
+               counts.incrementAndGet(i);
+               break;
+            }
+      }
+
+      private void write(StringBuilder sb, String name, String labels) {
+         long cumulative = 0;
+         for (int i = 0; i < buckets.length; i++) {
+            cumulative += counts.get(i);
+            writeSample(sb, name + "_bucket", labels + ",le=\"" + formatValue(buckets[i]) + "\"", cumulative);
+         }
+         writeSample(sb, name + "_bucket", labels + ",le=\"+Inf\"", count.sum());
+         writeSample(sb, name + "_sum", labels, sum.sum());
+         writeSample(sb, name + "_count", labels, count.sum());
+      }
+   }
+}
@@ -0,0 +1,161 @@
+package optimizer.results;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Nested wall-clock timers and thread-allocated bytes for the phases of a run. Phases are nested under the phase
+// open in the same thread and repeated phases are accumulated. Allocations in worker threads are not included.
+// Every thread that resets the profiler gets its own tree, so concurrent jobs do not mix their phases.
+public class Profiler {
+
+   private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+   private static final boolean allocationSupported = isAllocationSupported();
+   private static final ThreadLocal<Deque<OpenPhase>> openPhases = ThreadLocal.withInitial(ArrayDeque::new);
+   private static final ThreadLocal<Phase> threadRoot = new ThreadLocal<>();
+   // tree of the last run started, for threads without their own
+   private static volatile Phase lastRoot = new Phase();
+
+   public static synchronized void reset() {
+      Phase root = new Phase();
+      threadRoot.set(root);
+      lastRoot = root;
+      openPhases.get().clear();
+   }
+
+   private static Phase root() {
+      Phase root = threadRoot.get();
+      return root != null ? root : lastRoot;
+   }
+
+   public static void start(String name) {
+      Deque<OpenPhase> stack = openPhases.get();
+      Phase parent;
+      synchronized (Profiler.class) {
+         parent = stack.isEmpty() ? root() : stack.peek().phase;
+         parent = parent.phases.computeIfAbsent(name, k -> new Phase());
+      }
+      stack.push(new OpenPhase(name, parent, System.nanoTime(), allocatedBytes()));
+   }
+
+   // closes the phase and any inner phase left open, e.g. by an exception
+   public static void stop(String name) {
+      Deque<OpenPhase> stack = openPhases.get();
+      long endTime = System.nanoTime();
+      long endBytes = allocatedBytes();
+      boolean isOpen = false;
+      for (OpenPhase openPhase : stack)
+         if (openPhase.name.equals(name)) {
+            isOpen = true;
+            break;
+         }
+      if (!isOpen)
+         return;
+      synchronized (Profiler.class) {
+         OpenPhase openPhase;
+         do {
+            openPhase = stack.pop();
+            openPhase.phase.count++;
+            openPhase.phase.time += (endTime - openPhase.startTime) / 1e9;
+            if (allocationSupported)
+               openPhase.phase.allocatedBytes += endBytes - openPhase.startBytes;
+         } while (!openPhase.name.equals(name));
+      }
+   }
+
+   // phases still open in the calling thread are included with their time and allocations so far
+   public static synchronized Map<String, Phase> getPhases() {
+      long endTime = System.nanoTime();
+      long endBytes = allocatedBytes();
+      Phase root = root().copy();
+      Phase phase = root;
+      Iterator<OpenPhase> iterator = openPhases.get().descendingIterator();
+      while (iterator.hasNext()) {
+         OpenPhase openPhase = iterator.next();
+         phase = phase.phases.get(openPhase.name);
+         if (phase == null)
+            break;
+         phase.count++;
+         phase.time += (endTime - openPhase.startTime) / 1e9;
+         if (allocationSupported)
+            phase.allocatedBytes += endBytes - openPhase.startBytes;
+      }
+      return root.phases;
+   }
+
+   private static long allocatedBytes() {
+      if (!allocationSupported)
+         return 0;
+      return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+   }
+
+   private static boolean isAllocationSupported() {
+      try {
+         return threadMXBean instanceof com.sun.management.ThreadMXBean
+               && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()
+               && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemoryEnabled();
+      } catch (UnsupportedOperationException e) {
+         return false;
+      }
+   }
+
+   private static class OpenPhase {
+      private final String name;
+      private final Phase phase;
+      private final long startTime;
+      private final long startBytes;
+
+      private OpenPhase(String name, Phase phase, long startTime, long startBytes) {
+         this.name = name;
+         this.phase = phase;
+         this.startTime = startTime;
+         this.startBytes = startBytes;
+      }
+   }
+
+   public static class Phase {
+      @JsonProperty("count")
+      private long count;
+      // in seconds
+      @JsonProperty("time")
+      private double time;
+      @JsonProperty("allocated_bytes")
+      private long allocatedBytes;
+      @JsonProperty("phases")
+      @JsonInclude(JsonInclude.Include.NON_EMPTY)
+      private LinkedHashMap<String, Phase> phases = new LinkedHashMap<>();
+
+      private Phase copy() {
+         Phase phase = new Phase();
+         phase.count = count;
+         phase.time = time;
+         phase.allocatedBytes = allocatedBytes;
+         for (Map.Entry<String, Phase> entry : phases.entrySet())
+            phase.phases.put(entry.getKey(), entry.getValue().copy());
+         return phase;
+      }
+
+      public long getCount() {
+         return count;
+      }
+
+      public double getTime() {
+         return time;
+      }
+
+      public long getAllocatedBytes() {
+         return allocatedBytes;
+      }
+
+      public Map<String, Phase> getPhases() {
+         return phases;
+      }
+   }
+}
@@ -0,0 +1,118 @@
+package optimizer.results;
+
+// Quantile sketch of nonnegative values in logarithmic buckets, bucket i holds the values in (gamma^(i-1), gamma^i].
+// Quantiles are within the relative accuracy of the sketch and clamped to the exact min and max. Values below
+// MIN_VALUE, including negative ones, are counted as zeros, NaN and infinite values are ignored. Sketches with the
+// same accuracy can be merged, so runs can be aggregated without keeping their samples.
+public class QuantileSketch {
+
+   private static final double MIN_VALUE = 1e-9;
+   private final double relativeAccuracy;
+   private final double gamma;
+   private final double logGamma;
+   private long[] counts = new long[0];
+   // bucket of counts[0]
+   private int offset;
+   private long zeroCount;
+   private long totalCount;
+   private double min = Double.MAX_VALUE;
+   private double max = -Double.MAX_VALUE;
+
+   public QuantileSketch(double relativeAccuracy) {
+      if (relativeAccuracy <= 0 || relativeAccuracy >= 1)
+         throw new IllegalArgumentException("relative accuracy must be in (0, 1)");
+      this.relativeAccuracy = relativeAccuracy;
+      this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+      this.logGamma = Math.log(gamma);
+   }
+
+   public void add(double value) {
+      if (Double.isNaN(value) || Double.isInfinite(value))
+         return;
+      if (value < MIN_VALUE)
+         zeroCount++;
+      else {
+         int index = (int) Math.ceil(Math.log(value) / logGamma);
+         ensureCapacity(index, index);
+         counts[index - offset]++;
+      }
+      totalCount++;
+      if (value < min)
+         min = value;
+      if (value > max)
+         max = value;
+   }
+
+   public void merge(QuantileSketch other) {
+      if (other.relativeAccuracy != relativeAccuracy)
+         throw new IllegalArgumentException("sketches with different accuracy cannot be merged");
+      if (other.totalCount == 0)
+         return;
+      if (other.counts.length > 0) {
+         ensureCapacity(other.offset, other.offset + other.counts.length - 1);
+         for (int i = 0; i < other.counts.length; i++)
+            counts[other.offset + i - offset] += other.counts[i];
+      }
+      zeroCount += other.zeroCount;
+      totalCount += other.totalCount;
+      min = Math.min(min, other.min);
+      max = Math.max(max, other.max);
+   }
+
+   // value at the given quantile in [0, 1] by nearest rank, 0 if empty
+   public double quantile(double q) {
+      if (totalCount == 0)
+         return 0;
+      long rank = (long) Math.ceil(q * totalCount);
+      if (rank < 1)
+         rank = 1;
+      if (rank >= totalCount)
+         return max;
+      long accumulated = zeroCount;
+      if (accumulated >= rank)
+         return Math.max(Math.min(0, max), min);
+      for (int i = 0; i < counts.length; i++) {
+         accumulated += counts[i];
+         if (accumulated >= rank)
+            return Math.min(Math.max(2 * Math.pow(gamma, offset + i) / (gamma + 1), min), max);
+      }
+      return max;
+   }
+
+   private void ensureCapacity(int fromIndex, int toIndex) {
+      if (counts.length == 0) {
+         offset = fromIndex;
+         counts = new long[toIndex - fromIndex + 1];
+         return;
+      }
+      int newOffset = Math.min(offset, fromIndex);
+      int newEnd = Math.max(offset + counts.length - 1, toIndex);
+      if (newOffset == offset && newEnd == offset + counts.length - 1)
+         return;
+      // grow with some slack to the side that is extended
+      if (newOffset < offset)
+         newOffset = Math.min(newOffset, offset - counts.length / 2);
+      if (newEnd > offset + counts.length - 1)
+         newEnd = Math.max(newEnd, offset + counts.length - 1 + counts.length / 2);
+      long[] newCounts = new long[newEnd - newOffset + 1];
+      System.arraycopy(counts, 0, newCounts, offset - newOffset, counts.length);
+      counts = newCounts;
+      offset = newOffset;
+   }
+
+   public double getRelativeAccuracy() {
+      return relativeAccuracy;
+   }
+
+   public long getTotalCount() {
+      return totalCount;
+   }
+
+   public double getMin() {
+      return totalCount > 0 ? min : 0;
+   }
+
+   public double getMax() {
+      return totalCount > 0 ? max : 0;
+   }
+}
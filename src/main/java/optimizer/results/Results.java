@@ -2,22 +2,30 @@ package optimizer.results;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import optimizer.LinkPathIndex;
 import optimizer.Parameters;
 import optimizer.elements.*;
 import optimizer.gui.GraphData;
+import optimizer.gui.Job;
 import optimizer.gui.Scenario;
 import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
 import org.graphstream.graph.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static optimizer.Definitions.*;
 import static optimizer.results.Auxiliary.printLog;
 
 public class Results {
    private transient static final Logger log = LoggerFactory.getLogger(Results.class);
+   private transient static final int UTILIZATION_GRAPH_POINTS = 10;
    // @JsonIgnore tag -> ignores specific variable for json result file
    // transient modifier -> ignores specific variable for posting optimizer.results
    // to web UI.
@@ -50,6 +58,17 @@ public class Results {
    private double[] fpSummary;
    @JsonProperty("sd_summary")
    private double[] sdSummary;
+   @JsonProperty("lu_percentiles")
+   private Map<String, Double> luPercentiles;
+   @JsonProperty("xu_percentiles")
+   private Map<String, Double> xuPercentiles;
+   @JsonProperty("sd_percentiles")
+   private Map<String, Double> sdPercentiles;
+   @JsonProperty("sd_tail")
+   private Map<String, Object> sdTail;
+   // sketches of the tail, to merge runs
+   @JsonIgnore
+   private transient ServiceDelayTail serviceDelayTail;
    @JsonProperty("avg_path_length")
    private double avgPathLength;
    @JsonProperty("total_traffic")
@@ -59,8 +78,9 @@ public class Results {
    @JsonProperty("synchronization_traffic")
    private double synchronizationTraffic;
 
+   // written while exporting, not kept as strings
    @JsonProperty("variables")
-   private LinkedHashMap<String, List<String>> variables;
+   private Variables variables;
    @JsonProperty("xu")
    private transient List<Double> xu;
    @JsonProperty("lu")
@@ -83,7 +103,7 @@ public class Results {
    private List<GraphData> sdGraph;
 
    public Results() {
-      variables = new LinkedHashMap<>();
+      variables = new Variables(this);
       luGraph = new ArrayList<>();
       xuGraph = new ArrayList<>();
       sdGraph = new ArrayList<>();
@@ -99,11 +119,14 @@ public class Results {
       this.xuSummary = new double[4];
       this.fpSummary = new double[4];
       this.sdSummary = new double[4];
+      this.luPercentiles = new LinkedHashMap<>();
+      this.xuPercentiles = new LinkedHashMap<>();
+      this.sdPercentiles = new LinkedHashMap<>();
       this.luGraph = new ArrayList<>();
       this.xuGraph = new ArrayList<>();
       this.sdGraph = new ArrayList<>();
       this.rawVariables = new LinkedHashMap<>();
-      this.variables = new LinkedHashMap<>();
+      this.variables = new Variables(this);
       this.lu = new ArrayList<>();
       this.xu = new ArrayList<>();
       this.sd = new ArrayList<>();
@@ -116,130 +139,120 @@ public class Results {
 
    public void initializeResults(double objVal, boolean[][][] initialPlacement) {
       // summary results
-      migrations = countMigrations(initialPlacement);
-      replications = countReplications();
+      countFunctions(initialPlacement);
       totalNumFunctionsOriginal = pm.getTotalNumFunctions();
-      totalNumFunctions = countFunctions();
-      numFunctionsCloud = countFunctionsInCloudServers();
       totalTraffic = calculateTotalTraffic();
       trafficLinks = Auxiliary.roundDouble(trafficOnLinks(), 2);
       avgPathLength = Auxiliary.roundDouble(avgPathLength(), 2);
       this.objVal = Auxiliary.roundDouble(objVal, 6);
       lu = new ArrayList<>(linkUtilizationMap().values());
       xu = new ArrayList<>(serverUtilizationMap().values());
-      setSummaryResults(luSummary, lu);
-      setSummaryResults(xuSummary, xu);
-      luGraph(lu);
-      xuGraph(xu);
+      Statistics luStatistics = statistics(lu, new Statistics(0, 1, UTILIZATION_GRAPH_POINTS));
+      Statistics xuStatistics = statistics(xu, new Statistics(0, 1, UTILIZATION_GRAPH_POINTS));
+      setSummaryResults(luSummary, luPercentiles, luStatistics);
+      setSummaryResults(xuSummary, xuPercentiles, xuStatistics);
+      utilizationGraph(luGraph, luStatistics);
+      utilizationGraph(xuGraph, xuStatistics);
+
+      if (isMonetary())
+         monetaryValues();
+      if (sc.getConstraints().get(SYNC_TRAFFIC))
+         synchronizationTraffic = Auxiliary.roundDouble(synchronizationTraffic(), 2);
+
+      List<List<Double>> serviceDelays = serviceDelays(initialPlacement);
+      sd = new ArrayList<>();
+      serviceDelayTail = new ServiceDelayTail();
+      for (int s = 0; s < serviceDelays.size(); s++) {
+         Service service = pm.getServices().get(s);
+         for (double delay : serviceDelays.get(s))
+            serviceDelayTail.add(service.getId(), delay, service.getMaxDelay());
+         sd.addAll(serviceDelays.get(s));
+      }
+      sdTail = serviceDelayTail.toMap();
+      Statistics sdStatistics = statistics(sd, new Statistics());
+      setSummaryResults(sdSummary, sdPercentiles, sdStatistics);
+      sdGraph(sd, sdStatistics);
+   }
 
+   // variables as formatted strings, written from the raw variables when the results are exported
+   void writeVariables(Variables.Sink sink) {
+      // results read back without the model
+      if (pm == null || rawVariables == null)
+         return;
       // general variables
-      zSP(); // binary, routing per path
-      zSPD(); // binary, routing per demand
-      fX(); // binary, used servers
-      fXSV(); // binary, placement per server
-      fXSVD(); // binary, placement per demand
-      uX(); // link utilization
-      uL(); // server utilization
+      zSP(sink); // binary, routing per path
+      zSPD(sink); // binary, routing per demand
+      fX(sink); // binary, used servers
+      fXSV(sink); // binary, placement per server
+      fXSVD(sink); // binary, placement per demand
+      uX(sink); // link utilization
+      uL(sink); // server utilization
 
       // model specific variables
       if (sc.getObjFunc().equals(DIMEN_NUM_SERVERS))
-         xN(); // integer, num servers per node
+         xN(sink); // integer, num servers per node
       if (sc.getObjFunc().equals(DIMEN_LINK_CAP))
-         cLT();
+         cLT(sink);
       if (sc.getObjFunc().equals(DIMEN_SERVER_CAP))
-         cXT();
-      if (sc.getObjFunc().equals(OPEX_SERVERS) || sc.getObjFunc().equals(FUNCTIONS_CHARGES)
-            || sc.getObjFunc().equals(QOS_PENALTIES) || sc.getObjFunc().equals(ALL_MONETARY_COSTS)) {
-         oX(); // opex per server
-         oSV(); // function charges
-         qSDP(); // qos penalties
+         cXT(sink);
+      if (isMonetary()) {
+         oX(sink); // opex per server
+         oSV(sink); // function charges
+         qSDP(sink); // qos penalties
+         ySDP(sink);
       }
 
       // sync traffic variables
       if (sc.getConstraints().get(SYNC_TRAFFIC)) {
-         gSVXY(); // binary, aux synchronization traffic
-         hSVP(); // binary, traffic synchronization
-         synchronizationTraffic = Auxiliary.roundDouble(synchronizationTraffic(), 2);
+         gSVXY(sink); // binary, aux synchronization traffic
+         hSVP(sink); // binary, traffic synchronization
       }
 
-      sd = serviceDelayList(initialPlacement);
-      setSummaryResults(sdSummary, sd);
-      sdGraph(sd);
-      dSVXD();
+      dSPD(sink);
+      dSVXD(sink);
    }
 
-   private Integer[] countMigrations(boolean[][][] initialPlacement) {
-      Map<Integer, Integer> migrationsMap = new HashMap<>();
-      for (Function functionType : pm.getFunctionTypes())
-         migrationsMap.put(functionType.getType(), 0);
-      if (initialPlacement != null)
-         try {
-            boolean[][][] var = (boolean[][][]) rawVariables.get(fXSV);
-            for (int x = 0; x < pm.getServers().size(); x++)
-               for (int s = 0; s < pm.getServices().size(); s++)
-                  for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
-                     if (initialPlacement[x][s][v] && !var[x][s][v]) {
-                        int functionType = pm.getServices().get(s).getFunctions().get(v).getType();
-                        migrationsMap.put(functionType, migrationsMap.get(functionType) + 1);
-                     }
-         } catch (Exception e) {
-            printLog(log, ERROR, "counting migrations: " + e.getMessage());
-         }
-      List<Integer> values = new ArrayList<>(migrationsMap.values());
-      return values.<Integer>toArray(new Integer[0]);
+   private boolean isMonetary() {
+      return sc.getObjFunc().equals(OPEX_SERVERS) || sc.getObjFunc().equals(FUNCTIONS_CHARGES)
+            || sc.getObjFunc().equals(QOS_PENALTIES) || sc.getObjFunc().equals(ALL_MONETARY_COSTS);
    }
 
-   private Integer[] countReplications() {
+   // migrations and replications per function type and the number of placed functions, in one pass over fXSV
+   private void countFunctions(boolean[][][] initialPlacement) {
+      Map<Integer, Integer> migrationsMap = new HashMap<>();
       Map<Integer, Integer> replicationsMap = new HashMap<>();
-      for (Function functionType : pm.getFunctionTypes())
+      for (Function functionType : pm.getFunctionTypes()) {
+         migrationsMap.put(functionType.getType(), 0);
          replicationsMap.put(functionType.getType(), 0);
-      try {
-         boolean[][][] var = (boolean[][][]) rawVariables.get(fXSV);
-         for (int s = 0; s < pm.getServices().size(); s++)
-            for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++) {
-               int replicasTemp = -1;
-               for (int x = 0; x < pm.getServers().size(); x++)
-                  if (var[x][s][v])
-                     replicasTemp++;
-               int functionType = pm.getServices().get(s).getFunctions().get(v).getType();
-               replicationsMap.put(functionType, replicationsMap.get(functionType) + replicasTemp);
-            }
-      } catch (Exception e) {
-         printLog(log, ERROR, "counting replications: " + e.getMessage());
       }
-      List<Integer> values = new ArrayList<>(replicationsMap.values());
-      return values.<Integer>toArray(new Integer[0]);
-   }
-
-   private double countFunctions() {
-      double numFunctions = 0;
+      totalNumFunctions = 0;
+      numFunctionsCloud = 0;
       try {
          boolean[][][] var = (boolean[][][]) rawVariables.get(fXSV);
-         for (int x = 0; x < pm.getServers().size(); x++)
+         int[][] replicas = new int[pm.getServices().size()][];
+         for (int s = 0; s < pm.getServices().size(); s++)
+            replicas[s] = new int[pm.getServices().get(s).getFunctions().size()];
+         for (int x = 0; x < pm.getServers().size(); x++) {
+            boolean isCloud = (int) pm.getServers().get(x).getParent().getAttribute(NODE_TYPE) == NODE_TYPE_CLOUD;
             for (int s = 0; s < pm.getServices().size(); s++)
-               for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
-                  if (var[x][s][v])
-                     numFunctions++;
-      } catch (Exception e) {
-         printLog(log, ERROR, "counting num functions: " + e.getMessage());
-      }
-      return numFunctions;
-   }
-
-   private double countFunctionsInCloudServers() {
-      double numFunctionsCloud = 0;
-      try {
-         boolean[][][] var = (boolean[][][]) rawVariables.get(fXSV);
-         for (int x = 0; x < pm.getServers().size(); x++)
-            if ((int) pm.getServers().get(x).getParent().getAttribute(NODE_TYPE) == NODE_TYPE_CLOUD)
-               for (int s = 0; s < pm.getServices().size(); s++)
-                  for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
-                     if (var[x][s][v])
+               for (int v = 0; v < replicas[s].length; v++)
+                  if (var[x][s][v]) {
+                     replicas[s][v]++;
+                     totalNumFunctions++;
+                     if (isCloud)
                         numFunctionsCloud++;
+                  } else if (initialPlacement != null && initialPlacement[x][s][v])
+                     migrationsMap.merge(pm.getServices().get(s).getFunctions().get(v).getType(), 1, Integer::sum);
+         }
+         for (int s = 0; s < pm.getServices().size(); s++)
+            for (int v = 0; v < replicas[s].length; v++)
+               replicationsMap.merge(pm.getServices().get(s).getFunctions().get(v).getType(), replicas[s][v] - 1,
+                     Integer::sum);
       } catch (Exception e) {
-         printLog(log, ERROR, "counting num functions in cloud: " + e.getMessage());
+         printLog(log, ERROR, "counting functions: " + e.getMessage());
       }
-      return numFunctionsCloud;
+      migrations = new ArrayList<>(migrationsMap.values()).toArray(new Integer[0]);
+      replications = new ArrayList<>(replicationsMap.values()).toArray(new Integer[0]);
    }
 
    private int calculateTotalTraffic() {
@@ -276,71 +289,124 @@ public class Results {
       return serverMapResults;
    }
 
-   private List<Double> serviceDelayList(boolean[][][] initialPlacement) {
+   // end to end delay of every routed demand per service, in the order of paths and demands. The processing delay of
+   // a function instance does not depend on the path or the demand, so it is computed once per service
+   private List<List<Double>> serviceDelays(boolean[][][] initialPlacement) {
+      int numThreads = (int) pm.getGlobal(RESULTS_THREADS, 1);
+      List<List<Double>> serviceDelays = new ArrayList<>();
+      if (numThreads > 1 && pm.getServices().size() > 1) {
+         ExecutorService executor = Executors.newFixedThreadPool(Math.min(numThreads, pm.getServices().size()));
+         try {
+            List<Future<List<Double>>> futures = new ArrayList<>();
+            for (int s = 0; s < pm.getServices().size(); s++) {
+               int service = s;
+               futures.add(executor.submit(Job.bind(() -> serviceDelayList(service, initialPlacement))));
+            }
+            for (Future<List<Double>> future : futures)
+               serviceDelays.add(future.get());
+         } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e.getCause() != null ? e.getCause() : e);
+         } finally {
+            executor.shutdown();
+         }
+      } else
+         for (int s = 0; s < pm.getServices().size(); s++)
+            serviceDelays.add(serviceDelayList(s, initialPlacement));
+      return serviceDelays;
+   }
+
+   private List<Double> serviceDelayList(int s, boolean[][][] initialPlacement) {
       List<Double> serviceDelayList = new ArrayList<>();
       boolean[][][] zSPDvar = (boolean[][][]) rawVariables.get(zSPD);
       boolean[][][][] fXSVDvar = (boolean[][][][]) rawVariables.get(fXSVD);
       boolean[][][] fXSVvar = (boolean[][][]) rawVariables.get(fXSV);
       double[] uXvar = (double[]) rawVariables.get(uX);
-      List<String> strings = new ArrayList<>();
-      for (int s = 0; s < pm.getServices().size(); s++) {
-         Service service = pm.getServices().get(s);
-         for (int p = 0; p < service.getTrafficFlow().getPaths().size(); p++) {
-            Path path = service.getTrafficFlow().getPaths().get(p);
-            for (int d = 0; d < service.getTrafficFlow().getDemands().size(); d++)
-               if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
-                  if (zSPDvar[s][p][d]) {
-                     double serviceDelay = 0;
-
-                     // add processing delay
-                     for (int n = 0; n < path.getNodePath().size(); n++)
-                        for (int x = 0; x < pm.getServers().size(); x++)
-                           if (pm.getServers().get(x).getParent().equals(path.getNodePath().get(n)))
-                              for (int v = 0; v < service.getFunctions().size(); v++) {
-                                 if (fXSVDvar[x][s][v][d]) {
-                                    Function function = service.getFunctions().get(v);
-                                    double ratio = (double) function.getAttribute(FUNCTION_LOAD_RATIO)
-                                          * (double) function.getAttribute(FUNCTION_PROCESS_TRAFFIC_DELAY)
-                                          / ((int) function.getAttribute(FUNCTION_MAX_DEM)
-                                                * (int) function.getAttribute(FUNCTION_MAX_BW)
-                                                * (double) function.getAttribute(FUNCTION_LOAD_RATIO));
-                                    double processingDelay = 0;
-                                    for (int d1 = 0; d1 < service.getTrafficFlow().getDemands().size(); d1++)
-                                       if (service.getTrafficFlow().getAux().get(d1))
-                                          if (fXSVDvar[x][s][v][d1])
-                                             processingDelay += ratio * service.getTrafficFlow().getDemands().get(d1);
-                                    processingDelay += (double) function.getAttribute(FUNCTION_MIN_PROCESS_DELAY);
-                                    processingDelay += (double) function.getAttribute(FUNCTION_PROCESS_DELAY)
-                                          * uXvar[x];
-                                    serviceDelay += processingDelay;
-                                 }
-                              }
-
-                     // add propagation delay
-                     for (Edge link : path.getEdgePath())
-                        serviceDelay += (double) link.getAttribute(LINK_DELAY) * 1000; // in ms
-
-                     // add service downtime
-                     if (initialPlacement != null)
-                        for (int x = 0; x < pm.getServers().size(); x++)
-                           for (int v = 0; v < service.getFunctions().size(); v++)
-                              if (initialPlacement[x][s][v] && !fXSVvar[x][s][v])
-                                 serviceDelay += (double) service.getAttribute(SERVICE_DOWNTIME); // in ms
-
-                     // print total end to end delay
-                     serviceDelay = Auxiliary.roundDouble(serviceDelay, 3);
-                     strings.add("(" + (s + this.offset) + "," + (p + this.offset) + "," + (d + this.offset) + "): ["
-                           + pm.getServices().get(s).getId() + "]"
-                           + pm.getServices().get(s).getTrafficFlow().getPaths().get(p).getNodePath() + "["
-                           + serviceDelay + "]");
-                     serviceDelayList.add(serviceDelay);
-                  }
+      int[][] serversPerNode = pm.getServersPerNode();
+      Service service = pm.getServices().get(s);
+      TrafficFlow trafficFlow = service.getTrafficFlow();
+      int numServers = pm.getServers().size();
+      int numFunctions = service.getFunctions().size();
+
+      // processing delay of every function instance
+      double[][] processingDelay = new double[numServers][numFunctions];
+      for (int v = 0; v < numFunctions; v++) {
+         Function function = service.getFunctions().get(v);
+         double ratio = (double) function.getAttribute(FUNCTION_LOAD_RATIO)
+               * (double) function.getAttribute(FUNCTION_PROCESS_TRAFFIC_DELAY)
+               / ((int) function.getAttribute(FUNCTION_MAX_DEM) * (int) function.getAttribute(FUNCTION_MAX_BW)
+                     * (double) function.getAttribute(FUNCTION_LOAD_RATIO));
+         double minProcessDelay = (double) function.getAttribute(FUNCTION_MIN_PROCESS_DELAY);
+         double processDelay = (double) function.getAttribute(FUNCTION_PROCESS_DELAY);
+         for (int x = 0; x < numServers; x++) {
+            double delay = 0;
+            for (int d1 = 0; d1 < trafficFlow.getDemands().size(); d1++)
+               if (trafficFlow.getAux().get(d1))
+                  if (fXSVDvar[x][s][v][d1])
+                     delay += ratio * trafficFlow.getDemands().get(d1);
+            delay += minProcessDelay;
+            delay += processDelay * uXvar[x];
+            processingDelay[x][v] = delay;
          }
       }
-      variables.put(dSPD, strings);
+
+      // service downtime, added once per migrated function
+      int numMigrations = 0;
+      if (initialPlacement != null)
+         for (int x = 0; x < numServers; x++)
+            for (int v = 0; v < numFunctions; v++)
+               if (initialPlacement[x][s][v] && !fXSVvar[x][s][v])
+                  numMigrations++;
+
+      for (int p = 0; p < trafficFlow.getPaths().size(); p++) {
+         Path path = trafficFlow.getPaths().get(p);
+         int[] pathServers = null;
+         double[] linkDelays = null;
+         for (int d = 0; d < trafficFlow.getDemands().size(); d++)
+            if (trafficFlow.getAux().get(d))
+               if (zSPDvar[s][p][d]) {
+                  if (pathServers == null) {
+                     pathServers = getServersOfPath(path, serversPerNode);
+                     linkDelays = new double[path.getEdgePath().size()];
+                     for (int l = 0; l < linkDelays.length; l++)
+                        linkDelays[l] = (double) path.getEdgePath().get(l).getAttribute(LINK_DELAY) * 1000; // in ms
+                  }
+                  double serviceDelay = 0;
+
+                  // add processing delay
+                  for (int x : pathServers)
+                     for (int v = 0; v < numFunctions; v++)
+                        if (fXSVDvar[x][s][v][d])
+                           serviceDelay += processingDelay[x][v];
+
+                  // add propagation delay
+                  for (double linkDelay : linkDelays)
+                     serviceDelay += linkDelay;
+
+                  // add service downtime
+                  for (int m = 0; m < numMigrations; m++)
+                     serviceDelay += (double) service.getAttribute(SERVICE_DOWNTIME); // in ms
+
+                  // total end to end delay
+                  serviceDelay = Auxiliary.roundDouble(serviceDelay, 3);
+                  serviceDelayList.add(serviceDelay);
+               }
+      }
       return serviceDelayList;
    }
 
+   // servers on the nodes of the path, in the order of the nodes
+   private int[] getServersOfPath(Path path, int[][] serversPerNode) {
+      int numServers = 0;
+      for (Node node : path.getNodePath())
+         numServers += serversPerNode[node.getIndex()].length;
+      int[] pathServers = new int[numServers];
+      int i = 0;
+      for (Node node : path.getNodePath())
+         for (int x : serversPerNode[node.getIndex()])
+            pathServers[i++] = x;
+      return pathServers;
+   }
+
    private double avgPathLength() {
       double avgPathLength = 0;
       try {
@@ -376,22 +442,25 @@ public class Results {
       double synchronizationTraffic = 0;
       try {
          boolean[][][] var = (boolean[][][]) rawVariables.get(hSVP);
+         LinkPathIndex index = pm.getLinkPathIndex();
+         int[] linkPaths = index.getLinkPaths();
+         double[] traffic = new double[pm.getServices().size()];
+         for (int s = 0; s < pm.getServices().size(); s++)
+            for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+               if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
+                  traffic[s] += pm.getServices().get(s).getTrafficFlow().getDemands().get(d);
          for (int l = 0; l < pm.getLinks().size(); l++) {
-            for (int p = 0; p < pm.getPaths().size(); p++) {
-               if (!pm.getPaths().get(p).contains(pm.getLinks().get(l)))
-                  continue;
-               for (int s = 0; s < pm.getServices().size(); s++) {
-                  double traffic = 0;
-                  for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
-                     if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
-                        traffic += pm.getServices().get(s).getTrafficFlow().getDemands().get(d);
+            for (int i = index.getLinkPathsStart(l); i < index.getLinkPathsEnd(l); i++) {
+               int p = linkPaths[i];
+               if (p >= pm.getPaths().size())
+                  break;
+               for (int s = 0; s < pm.getServices().size(); s++)
                   for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++) {
-                     double trafficScaled = traffic * (double) pm.getServices().get(s).getFunctions().get(v)
+                     double trafficScaled = traffic[s] * (double) pm.getServices().get(s).getFunctions().get(v)
                            .getAttribute(FUNCTION_SYNC_LOAD_RATIO);
                      if (var[s][v][p])
                         synchronizationTraffic += trafficScaled;
                   }
-               }
             }
          }
       } catch (Exception e) {
@@ -403,116 +472,127 @@ public class Results {
    /*****************************************
     * GENERAL VARIABLES
     ************************************/
-   private void zSP() {
+   private void zSP(Variables.Sink sink) {
       try {
-         boolean[][] var = (boolean[][]) rawVariables.get(zSP);
-         List<String> strings = new ArrayList<>();
+         boolean[][] var = Variables.checked(rawVariables.get(zSP), boolean[][].class,
+               pm.getServices().size(), pm.getPathsTrafficFlow());
+         sink.start(zSP);
          for (int s = 0; s < pm.getServices().size(); s++)
             for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
                if (var[s][p])
-                  strings.add(
+                  sink.add(
                         "(" + (s + this.offset) + "," + (p + this.offset) + "): [" + pm.getServices().get(s).getId()
                               + "]" + pm.getServices().get(s).getTrafficFlow().getPaths().get(p).getNodePath());
-         variables.put(zSP, strings);
+         sink.end();
       } catch (Exception e) {
+         sink.abort();
          printLog(log, ERROR, zSP + " var results: " + e.getMessage());
       }
    }
 
-   private void zSPD() {
+   private void zSPD(Variables.Sink sink) {
       try {
-         boolean[][][] var = (boolean[][][]) rawVariables.get(zSPD);
-         List<String> strings = new ArrayList<>();
+         boolean[][][] var = Variables.checked(rawVariables.get(zSPD), boolean[][][].class,
+               pm.getServices().size(), pm.getPathsTrafficFlow(), pm.getDemandsTrafficFlow());
+         sink.start(zSPD);
          for (int s = 0; s < pm.getServices().size(); s++)
             for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
                for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
                   if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
                      if (var[s][p][d])
-                        strings.add("(" + (s + this.offset) + "," + (p + this.offset) + "," + (d + this.offset) + "): ["
+                        sink.add("(" + (s + this.offset) + "," + (p + this.offset) + "," + (d + this.offset) + "): ["
                               + pm.getServices().get(s).getId() + "]"
                               + pm.getServices().get(s).getTrafficFlow().getPaths().get(p).getNodePath() + "["
                               + pm.getServices().get(s).getTrafficFlow().getDemands().get(d) + "]");
-         variables.put(zSPD, strings);
+         sink.end();
       } catch (Exception e) {
+         sink.abort();
          printLog(log, ERROR, zSPD + " var results: " + e.getMessage());
       }
    }
 
-   private void fX() {
+   private void fX(Variables.Sink sink) {
       try {
-         boolean[] var = (boolean[]) rawVariables.get(fX);
-         List<String> strings = new ArrayList<>();
+         boolean[] var = Variables.checked(rawVariables.get(fX), boolean[].class, pm.getServers().size());
+         sink.start(fX);
          for (int x = 0; x < pm.getServers().size(); x++)
             if (var[x])
-               strings.add("(" + (x + this.offset) + "): [" + pm.getServers().get(x).getId() + "]");
-         variables.put(fX, strings);
+               sink.add("(" + (x + this.offset) + "): [" + pm.getServers().get(x).getId() + "]");
+         sink.end();
       } catch (Exception e) {
+         sink.abort();
          printLog(log, ERROR, fX + " var results: " + e.getMessage());
       }
    }
 
-   private void fXSV() {
+   private void fXSV(Variables.Sink sink) {
       try {
-         boolean[][][] var = (boolean[][][]) rawVariables.get(fXSV);
-         List<String> strings = new ArrayList<>();
+         boolean[][][] var = Variables.checked(rawVariables.get(fXSV), boolean[][][].class,
+               pm.getServers().size(), pm.getServices().size(), pm.getServiceLength());
+         sink.start(fXSV);
          for (int x = 0; x < pm.getServers().size(); x++)
             for (int s = 0; s < pm.getServices().size(); s++)
                for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
                   if (var[x][s][v])
-                     strings.add("(" + (x + this.offset) + "," + (s + this.offset) + "," + (v + this.offset) + "): ["
+                     sink.add("(" + (x + this.offset) + "," + (s + this.offset) + "," + (v + this.offset) + "): ["
                            + pm.getServers().get(x).getId() + "][" + pm.getServices().get(s).getId() + "]["
                            + pm.getServices().get(s).getFunctions().get(v).getType() + "]");
-         variables.put(fXSV, strings);
+         sink.end();
       } catch (Exception e) {
+         sink.abort();
          printLog(log, ERROR, fXSV + " var results: " + e.getMessage());
       }
    }
 
-   private void fXSVD() {
+   private void fXSVD(Variables.Sink sink) {
       try {
-         boolean[][][][] var = (boolean[][][][]) rawVariables.get(fXSVD);
-         List<String> strings = new ArrayList<>();
+         boolean[][][][] var = Variables.checked(rawVariables.get(fXSVD), boolean[][][][].class,
+               pm.getServers().size(), pm.getServices().size(), pm.getServiceLength(), pm.getDemandsTrafficFlow());
+         sink.start(fXSVD);
          for (int x = 0; x < pm.getServers().size(); x++)
             for (int s = 0; s < pm.getServices().size(); s++)
                for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
                   for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
                      if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
                         if (var[x][s][v][d])
-                           strings.add("(" + (x + this.offset) + "," + (s + this.offset) + "," + (v + this.offset) + ","
+                           sink.add("(" + (x + this.offset) + "," + (s + this.offset) + "," + (v + this.offset) + ","
                                  + (d + this.offset) + "): [" + pm.getServers().get(x).getId() + "]["
                                  + pm.getServices().get(s).getId() + "]["
                                  + pm.getServices().get(s).getFunctions().get(v).getType() + "]["
                                  + pm.getServices().get(s).getTrafficFlow().getDemands().get(d) + "]");
-         variables.put(fXSVD, strings);
+         sink.end();
       } catch (Exception e) {
+         sink.abort();
          printLog(log, ERROR, fXSVD + " var results: " + e.getMessage());
       }
    }
 
-   private void uX() {
+   private void uX(Variables.Sink sink) {
       try {
-         double[] var = (double[]) rawVariables.get(uX);
-         List<String> strings = new ArrayList<>();
+         double[] var = Variables.checked(rawVariables.get(uX), double[].class, pm.getServers().size());
+         sink.start(uX);
          for (int x = 0; x < pm.getServers().size(); x++)
-            strings.add("(" + (x + this.offset) + "): [" + pm.getServers().get(x).getId() + "]["
+            sink.add("(" + (x + this.offset) + "): [" + pm.getServers().get(x).getId() + "]["
                   + Auxiliary.roundDouble(var[x], 3) + "]");
-         variables.put(uX, strings);
+         sink.end();
       } catch (Exception e) {
+         sink.abort();
          printLog(log, ERROR, uX + " var results: " + e.getMessage());
       }
    }
 
-   private void uL() {
+   private void uL(Variables.Sink sink) {
       try {
-         double[] var = (double[]) rawVariables.get(uL);
-         List<String> strings = new ArrayList<>();
+         double[] var = Variables.checked(rawVariables.get(uL), double[].class, pm.getLinks().size());
+         sink.start(uL);
          for (int l = 0; l < pm.getLinks().size(); l++)
-            strings.add("(" + (l + this.offset) + "): [" + pm.getLinks().get(l).getId() + "]["
+            sink.add("(" + (l + this.offset) + "): [" + pm.getLinks().get(l).getId() + "]["
                   + pm.getLinks().get(l).getAttribute(LINK_DISTANCE) + "]["
                   + pm.getLinks().get(l).getAttribute(LINK_DELAY) + "][" + Auxiliary.roundDouble(var[l], 3) + "]["
                   + Auxiliary.roundDouble(var[l], 3) * (int) pm.getLinks().get(l).getAttribute(LINK_CAPACITY) + "]");
-         variables.put(uL, strings);
+         sink.end();
       } catch (Exception e) {
+         sink.abort();
          printLog(log, ERROR, uL + " var results: " + e.getMessage());
       }
    }
@@ -522,105 +602,164 @@ public class Results {
    /**********************************
     * MODEL SPECIFIC VARIABLES
     **********************************/
-   private void xN() {
+   private void xN(Variables.Sink sink) {
       try {
-         double[] var = (double[]) rawVariables.get(xN);
-         List<String> strings = new ArrayList<>();
+         double[] var = Variables.checked(rawVariables.get(xN), double[].class, pm.getNodes().size());
+         sink.start(xN);
          for (int n = 0; n < pm.getNodes().size(); n++)
             if (var[n] > 0)
-               strings.add("(" + (n + this.offset) + "): [" + pm.getNodes().get(n).getId() + "][" + var[n] + "]");
-         variables.put(xN, strings);
+               sink.add("(" + (n + this.offset) + "): [" + pm.getNodes().get(n).getId() + "][" + var[n] + "]");
+         sink.end();
       } catch (Exception e) {
+         sink.abort();
          printLog(log, WARNING, xN + " var results: " + e.getMessage());
       }
    }
 
-   private void cLT() {
+   private void cLT(Variables.Sink sink) {
       try {
-         boolean[][] var = (boolean[][]) rawVariables.get(cLT);
-         boolean[][][] var2 = (boolean[][][]) rawVariables.get(zSPD);
          ArrayList<Integer> types = (ArrayList<Integer>) pm.getGlobal().get(LINK_CAPACITY_TYPES);
-         List<String> strings = new ArrayList<>();
-         for (int l = 0; l < pm.getLinks().size(); l++) {
-            double linkLoad = 0;
-            for (int s = 0; s < pm.getServices().size(); s++)
-               for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++) {
-                  if (!pm.getServices().get(s).getTrafficFlow().getPaths().get(p).contains(pm.getLinks().get(l)))
-                     continue;
-                  for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
-                     if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
-                        if (var2[s][p][d])
-                           linkLoad += (double) pm.getServices().get(s).getTrafficFlow().getDemands().get(d);
-               }
-
+         boolean[][] var = Variables.checked(rawVariables.get(cLT), boolean[][].class,
+               pm.getLinks().size(), types.size());
+         boolean[][][] var2 = Variables.checked(rawVariables.get(zSPD), boolean[][][].class,
+               pm.getServices().size(), pm.getPathsTrafficFlow(), pm.getDemandsTrafficFlow());
+         // loads of all links in one pass over the paths, added in the same order as per link
+         LinkPathIndex index = pm.getLinkPathIndex();
+         int[] pathLinks = index.getPathLinks();
+         double[] linkLoads = new double[pm.getLinks().size()];
+         for (int s = 0; s < pm.getServices().size(); s++) {
+            TrafficFlow trafficFlow = pm.getServices().get(s).getTrafficFlow();
+            for (int p = 0; p < trafficFlow.getPaths().size(); p++) {
+               int q = index.getPathIndex(trafficFlow.getPaths().get(p));
+               for (int d = 0; d < trafficFlow.getDemands().size(); d++)
+                  if (trafficFlow.getAux().get(d) && var2[s][p][d])
+                     for (int i = index.getPathLinksStart(q); i < index.getPathLinksEnd(q); i++)
+                        linkLoads[pathLinks[i]] += (double) trafficFlow.getDemands().get(d);
+            }
+         }
+         sink.start(cLT);
+         for (int l = 0; l < pm.getLinks().size(); l++)
             for (int t = 0; t < types.size(); t++)
                if (var[l][t])
-                  strings.add("(" + (l + this.offset) + "): [" + pm.getLinks().get(l).getId() + "]["
-                        + types.get(t) + "][" + linkLoad / types.get(t) + "]");
-         }
-         variables.put(cLT, strings);
+                  sink.add("(" + (l + this.offset) + "): [" + pm.getLinks().get(l).getId() + "]["
+                        + types.get(t) + "][" + linkLoads[l] / types.get(t) + "]");
+         sink.end();
       } catch (Exception e) {
+         sink.abort();
          printLog(log, WARNING, cLT + " var results: " + e.getMessage());
       }
    }
 
-   private void cXT() {
+   private void cXT(Variables.Sink sink) {
       try {
-         boolean[][] var = (boolean[][]) rawVariables.get(cXT);
          ArrayList<Integer> types = (ArrayList<Integer>) pm.getGlobal().get(SERVER_CAPACITY_TYPES);
-         List<String> strings = new ArrayList<>();
+         boolean[][] var = Variables.checked(rawVariables.get(cXT), boolean[][].class,
+               pm.getServers().size(), types.size());
+         sink.start(cXT);
          for (int x = 0; x < pm.getServers().size(); x++)
             for (int t = 0; t < types.size(); t++)
                if (var[x][t])
-                  strings.add(
+                  sink.add(
                         "(" + (x + this.offset) + "): [" + pm.getServers().get(x).getParent().getId() + "]["
                               + pm.getServers().get(x).getId() + "][" + types.get(t) + "]");
-         variables.put(cXT, strings);
+         sink.end();
       } catch (Exception e) {
+         sink.abort();
          printLog(log, WARNING, cXT + " var results: " + e.getMessage());
       }
    }
 
-   private void oX() {
+   // values of the monetary variables, failures are reported here and not again when writing the variables
+   private void monetaryValues() {
       try {
          ox = new ArrayList<>();
          double[] var = (double[]) rawVariables.get(oX);
-         List<String> strings = new ArrayList<>();
          for (int x = 0; x < pm.getServers().size(); x++)
-            if ((int) pm.getServers().get(x).getParent().getAttribute(NODE_TYPE) != NODE_TYPE_CLOUD) {
-               strings.add("(" + (x + this.offset) + "): [" + pm.getServers().get(x).getId() + "][" + var[x] + "]");
+            if ((int) pm.getServers().get(x).getParent().getAttribute(NODE_TYPE) != NODE_TYPE_CLOUD)
                ox.add(var[x]);
-            }
-         variables.put(oX, strings);
       } catch (Exception e) {
          printLog(log, WARNING, oX + " var results: " + e.getMessage());
       }
-   }
-
-   private void oSV() {
       try {
          osv = new ArrayList<>();
          double[][] var = (double[][]) rawVariables.get(oSV);
-         List<String> strings = new ArrayList<>();
          for (int s = 0; s < pm.getServices().size(); s++)
             for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
-               if (var[s][v] > 0) {
-                  strings.add("(" + (s + this.offset) + "," + (v + this.offset) + "): [" + var[s][v] + "]");
+               if (var[s][v] > 0)
                   osv.add(var[s][v]);
-               }
-         variables.put(oSV, strings);
       } catch (Exception e) {
          printLog(log, WARNING, oSV + " var results: " + e.getMessage());
       }
-   }
-
-   private void qSDP() {
       try {
          qsdp = new ArrayList<>();
          double[][][] var = (double[][][]) rawVariables.get(qSDP);
-         List<String> strings = new ArrayList<>();
-         double[][][] varAux = (double[][][]) rawVariables.get(ySDP);
-         List<String> stringsAux = new ArrayList<>();
+         for (int s = 0; s < pm.getServices().size(); s++)
+            for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+               if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
+                  for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
+                     if (var[s][d][p] != 0)
+                        qsdp.add(var[s][d][p]);
+      } catch (Exception e) {
+         printLog(log, WARNING, qSDP + " var results: " + e.getMessage());
+      }
+   }
+
+   private void oX(Variables.Sink sink) {
+      try {
+         double[] var = Variables.checked(rawVariables.get(oX), double[].class, pm.getServers().size());
+         sink.start(oX);
+         for (int x = 0; x < pm.getServers().size(); x++)
+            if ((int) pm.getServers().get(x).getParent().getAttribute(NODE_TYPE) != NODE_TYPE_CLOUD)
+               sink.add("(" + (x + this.offset) + "): [" + pm.getServers().get(x).getId() + "][" + var[x] + "]");
+         sink.end();
+      } catch (Exception e) {
+         sink.abort();
+      }
+   }
+
+   private void oSV(Variables.Sink sink) {
+      try {
+         double[][] var = Variables.checked(rawVariables.get(oSV), double[][].class,
+               pm.getServices().size(), pm.getServiceLength());
+         sink.start(oSV);
+         for (int s = 0; s < pm.getServices().size(); s++)
+            for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
+               if (var[s][v] > 0)
+                  sink.add("(" + (s + this.offset) + "," + (v + this.offset) + "): [" + var[s][v] + "]");
+         sink.end();
+      } catch (Exception e) {
+         sink.abort();
+      }
+   }
+
+   private void qSDP(Variables.Sink sink) {
+      try {
+         double[][][] var = Variables.checked(rawVariables.get(qSDP), double[][][].class,
+               pm.getServices().size(), pm.getDemandsTrafficFlow(), pm.getPathsTrafficFlow());
+         sink.start(qSDP);
+         for (int s = 0; s < pm.getServices().size(); s++)
+            for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+               if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
+                  for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
+                     if (var[s][d][p] != 0)
+                        sink.add("(" + (s + this.offset) + "," + (d + this.offset) + "," + (p + this.offset) + "): ["
+                              + var[s][d][p] + "]");
+         sink.end();
+      } catch (Exception e) {
+         sink.abort();
+      }
+   }
+
+   private void ySDP(Variables.Sink sink) {
+      try {
+         // left out together with qSDP
+         if (rawVariables.get(qSDP) == null)
+            return;
+         double[][][] varAux = null;
+         if (rawVariables.get(ySDP) != null)
+            varAux = Variables.checked(rawVariables.get(ySDP), double[][][].class, pm.getServices().size(),
+                  pm.getDemandsTrafficFlow(), pm.getPathsTrafficFlow());
+         sink.start(ySDP);
          for (int s = 0; s < pm.getServices().size(); s++) {
             Service service = pm.getServices().get(s);
             double profit = 0;
@@ -635,61 +774,58 @@ public class Results {
 
             for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
                if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
-                  for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++) {
-                     if (var[s][d][p] != 0) {
-                        strings.add("(" + (s + this.offset) + "," + (d + this.offset) + "," + (p + this.offset) + "): ["
-                              + var[s][d][p] + "]");
-                        qsdp.add(var[s][d][p]);
-                     }
+                  for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
                      if (varAux != null)
                         if (varAux[s][d][p] != 0)
-                           stringsAux.add("(" + (s + this.offset) + "," + (d + this.offset) + "," + (p + this.offset)
+                           sink.add("(" + (s + this.offset) + "," + (d + this.offset) + "," + (p + this.offset)
                                  + "): [" + (varAux[s][d][p]) + "]["
                                  + ((varAux[s][d][p] / (maxServiceDelay) - 1) * qosPenalty) + "][" + maxServiceDelay
                                  + "]");
-                  }
          }
-         variables.put(qSDP, strings);
-         variables.put(ySDP, stringsAux);
+         sink.end();
       } catch (Exception e) {
-         printLog(log, WARNING, qSDP + " var results: " + e.getMessage());
+         sink.abort();
       }
    }
 
    /*************************************
     * TRAFFIC SYNC VARIABLES
     **********************************/
-   private void gSVXY() {
+   private void gSVXY(Variables.Sink sink) {
       try {
-         boolean[][][][] var = (boolean[][][][]) rawVariables.get(gSVXY);
-         List<String> strings = new ArrayList<>();
+         boolean[][][][] var = Variables.checked(rawVariables.get(gSVXY), boolean[][][][].class,
+               pm.getServices().size(), pm.getServiceLength(), pm.getServers().size(), pm.getServers().size());
+         sink.start(gSVXY);
          for (int s = 0; s < pm.getServices().size(); s++)
             for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
                for (int x = 0; x < pm.getServers().size(); x++)
                   for (int y = 0; y < pm.getServers().size(); y++)
                      if (!pm.getServers().get(x).getParent().equals(pm.getServers().get(y).getParent()))
                         if (var[s][v][x][y])
-                           strings.add("(" + (s + this.offset) + "," + (v + this.offset) + "," + (x + this.offset) + ","
+                           sink.add("(" + (s + this.offset) + "," + (v + this.offset) + "," + (x + this.offset) + ","
                                  + (y + this.offset) + "): [" + pm.getServers().get(x).getId() + "]["
                                  + pm.getServers().get(y).getId() + "]");
-         variables.put(gSVXY, strings);
+         sink.end();
       } catch (Exception e) {
+         sink.abort();
          printLog(log, WARNING, gSVXY + " var results: " + e.getMessage());
       }
    }
 
-   private void hSVP() {
+   private void hSVP(Variables.Sink sink) {
       try {
-         boolean[][][] var = (boolean[][][]) rawVariables.get(hSVP);
-         List<String> strings = new ArrayList<>();
+         boolean[][][] var = Variables.checked(rawVariables.get(hSVP), boolean[][][].class,
+               pm.getServices().size(), pm.getServiceLength(), pm.getPaths().size());
+         sink.start(hSVP);
          for (int s = 0; s < pm.getServices().size(); s++)
             for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
                for (int p = 0; p < pm.getPaths().size(); p++)
                   if (var[s][v][p])
-                     strings.add("(" + (s + this.offset) + "," + (v + this.offset) + "," + (p + this.offset) + "): "
+                     sink.add("(" + (s + this.offset) + "," + (v + this.offset) + "," + (p + this.offset) + "): "
                            + pm.getPaths().get(p).getNodePath());
-         variables.put(hSVP, strings);
+         sink.end();
       } catch (Exception e) {
+         sink.abort();
          printLog(log, WARNING, hSVP + " var results: " + e.getMessage());
       }
    }
@@ -699,71 +835,91 @@ public class Results {
    /***********************************
     * SERVICE DELAY VARIABLES
     **********************************/
-   private void dSVXD() {
+   // end to end delays in the order of the service delay list
+   private void dSPD(Variables.Sink sink) {
+      try {
+         boolean[][][] var = Variables.checked(rawVariables.get(zSPD), boolean[][][].class,
+               pm.getServices().size(), pm.getPathsTrafficFlow(), pm.getDemandsTrafficFlow());
+         sink.start(dSPD);
+         int i = 0;
+         for (int s = 0; s < pm.getServices().size(); s++)
+            for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
+               for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+                  if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
+                     if (var[s][p][d])
+                        sink.add("(" + (s + this.offset) + "," + (p + this.offset) + "," + (d + this.offset) + "): ["
+                              + pm.getServices().get(s).getId() + "]"
+                              + pm.getServices().get(s).getTrafficFlow().getPaths().get(p).getNodePath() + "["
+                              + sd.get(i++) + "]");
+         sink.end();
+      } catch (Exception e) {
+         sink.abort();
+         printLog(log, WARNING, dSPD + " var results: " + e.getMessage());
+      }
+   }
+
+   private void dSVXD(Variables.Sink sink) {
       try {
-         double[][][][] var = (double[][][][]) rawVariables.get(dSVXD);
-         List<String> strings = new ArrayList<>();
+         double[][][][] var = Variables.checked(rawVariables.get(dSVXD), double[][][][].class,
+               pm.getServices().size(), pm.getServiceLength(), pm.getServers().size(), pm.getDemandsTrafficFlow());
+         sink.start(dSVXD);
          for (int s = 0; s < pm.getServices().size(); s++)
             for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
                for (int x = 0; x < pm.getServers().size(); x++)
                   for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
                      if (var[s][v][x][d] > 0)
-                        strings.add("(" + (s + this.offset) + "," + (v + this.offset) + "," + (x + this.offset) + ","
+                        sink.add("(" + (s + this.offset) + "," + (v + this.offset) + "," + (x + this.offset) + ","
                               + (d + this.offset) + "): " + "[" + var[s][v][x][d] + "]");
-         variables.put(dSVXD, strings);
+         sink.end();
       } catch (Exception e) {
+         sink.abort();
          // printLog(log, WARNING, dSVXD + " var results: " + e.getMessage());
       }
    }
 
    /**********************************************************************************************/
 
-   private void setSummaryResults(double[] array, List<Double> var) {
-      array[0] = Auxiliary.avg(new ArrayList<>(var));
-      array[1] = Auxiliary.min(new ArrayList<>(var));
-      array[2] = Auxiliary.max(new ArrayList<>(var));
-      array[3] = Auxiliary.vrc(new ArrayList<>(var), array[0]);
+   private static Statistics statistics(List<Double> values, Statistics statistics) {
+      for (double value : values)
+         statistics.add(value);
+      return statistics;
    }
 
-   private void luGraph(List<Double> uL) {
-      int xPoints = 10;
-      for (int i = 0; i < xPoints; i++)
-         luGraph.add(new GraphData("0." + i, 0));
-      for (Double anUL : uL)
-         for (int j = 0; j < xPoints; j++)
-            if (anUL * 10 < j + 1 && anUL * 10 >= j) {
-               luGraph.get(j).setValue(luGraph.get(j).getValue() + 1);
-               break;
-            }
+   // average, min, max and variance, and the percentiles
+   private void setSummaryResults(double[] array, Map<String, Double> percentiles, Statistics statistics) {
+      array[0] = Auxiliary.roundDouble(statistics.getMean(), 2);
+      array[1] = Auxiliary.roundDouble(statistics.getMin(), 4);
+      array[2] = Auxiliary.roundDouble(statistics.getMax(), 4);
+      array[3] = Auxiliary.roundDouble(statistics.getVariance(), 2);
+      for (int percentile : SUMMARY_PERCENTILES)
+         percentiles.put("p" + percentile, Auxiliary.roundDouble(statistics.getQuantile(percentile / 100.0), 4));
    }
 
-   private void xuGraph(List<Double> uX) {
-      int xPoints = 10;
-      for (int i = 0; i < xPoints; i++)
-         xuGraph.add(new GraphData("0." + i, 0));
-      for (Double anUX : uX)
-         for (int j = 0; j < xPoints; j++)
-            if (anUX * 10 < j + 1 && anUX * 10 >= j) {
-               xuGraph.get(j).setValue(xuGraph.get(j).getValue() + 1);
-               break;
-            }
+   // number of values per tenth of utilization, from the buckets of the statistics
+   private void utilizationGraph(List<GraphData> graph, Statistics statistics) {
+      for (int i = 0; i < UTILIZATION_GRAPH_POINTS; i++)
+         graph.add(new GraphData("0." + i, statistics.getBuckets()[i]));
    }
 
-   private void sdGraph(List<Double> sd) {
+   private void sdGraph(List<Double> sd, Statistics statistics) {
       int xPoints = 10;
-      double min = Auxiliary.min(new ArrayList<>(sd));
-      double max = Auxiliary.max(new ArrayList<>(sd));
+      double min = Auxiliary.roundDouble(statistics.getMin(), 4);
+      double max = Auxiliary.roundDouble(statistics.getMax(), 4);
       double step = Auxiliary.roundDouble((max - min) / xPoints, 4);
       if (max != min) {
+         double[] labels = new double[xPoints + 1];
+         double[] counts = new double[xPoints + 1];
          for (int i = 0; i < xPoints + 1; i++)
-            sdGraph.add(new GraphData(String.valueOf(Auxiliary.roundDouble((step * i) + min, 4)), 0));
-         for (Double anSd : sd)
-            for (int j = 0; j < xPoints + 1; j++)
-               if (anSd < Double.parseDouble(sdGraph.get(j).getYear()) + step
-                     && anSd >= Double.parseDouble(sdGraph.get(j).getYear())) {
-                  sdGraph.get(j).setValue(sdGraph.get(j).getValue() + 1);
+            labels[i] = Auxiliary.roundDouble((step * i) + min, 4);
+         // buckets start at the rounded labels, so the search starts one bucket before the computed one
+         for (double anSd : sd)
+            for (int j = Math.max(Math.min((int) ((anSd - min) / step), xPoints) - 1, 0); j < xPoints + 1; j++)
+               if (anSd < labels[j] + step && anSd >= labels[j]) {
+                  counts[j]++;
                   break;
                }
+         for (int i = 0; i < xPoints + 1; i++)
+            sdGraph.add(new GraphData(String.valueOf(labels[i]), counts[i]));
       } else
          sdGraph.add(new GraphData(String.valueOf(max), sd.size()));
    }
@@ -784,6 +940,12 @@ public class Results {
       this.computationTime = computationTime;
    }
 
+   // taken while the file is written, as the last property, so the phases include the export up to here
+   @JsonProperty("phases")
+   public Map<String, Profiler.Phase> getPhases() {
+      return Profiler.getPhases();
+   }
+
    public Scenario getScenario() {
       return sc;
    }
@@ -792,8 +954,9 @@ public class Results {
       return rawVariables;
    }
 
+   @JsonIgnore
    public Map<String, List<String>> getVariables() {
-      return variables;
+      return variables != null ? variables.toMap() : new LinkedHashMap<>();
    }
 
    public double[] getLuSummary() {
@@ -812,6 +975,26 @@ public class Results {
       return sdSummary;
    }
 
+   public Map<String, Double> getLuPercentiles() {
+      return luPercentiles;
+   }
+
+   public Map<String, Double> getXuPercentiles() {
+      return xuPercentiles;
+   }
+
+   public Map<String, Double> getSdPercentiles() {
+      return sdPercentiles;
+   }
+
+   public Map<String, Object> getSdTail() {
+      return sdTail;
+   }
+
+   public ServiceDelayTail getServiceDelayTail() {
+      return serviceDelayTail;
+   }
+
    public double getAvgPathLength() {
       return avgPathLength;
    }
@@ -840,6 +1023,14 @@ public class Results {
       return totalNumFunctionsOriginal;
    }
 
+   public double getTotalNumFunctions() {
+      return totalNumFunctions;
+   }
+
+   public int getOffset() {
+      return offset;
+   }
+
    public double getNumFunctionsCloud() {
       return numFunctionsCloud;
    }
@@ -0,0 +1,221 @@
+package optimizer.results;
+
+import com.google.gson.Gson;
+import optimizer.Parameters;
+import optimizer.gui.ResultsGUI;
+import optimizer.gui.Scenario;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static optimizer.Definitions.*;
+import static optimizer.results.Auxiliary.printLog;
+
+// Results of deterministic runs stored under a hash of everything the run depends on: the .yml, topology and paths
+// files, the seeds and the scenario. A repeated run copies the stored result files into a new results folder instead
+// of solving again. Entries are evicted least recently used first when the cache exceeds its quota, which is set in
+// MB with -Dresults_cache_quota_mb (0 disables the cache).
+public class ResultsCache {
+
+   private static final Logger log = LoggerFactory.getLogger(ResultsCache.class);
+   private static final Gson gson = new Gson();
+   private static final String FILES_FOLDER = "files";
+   private static final String ENTRY_FILE = "entry.json";
+
+   public static boolean isCacheable(Scenario sce) {
+      if (getQuota() <= 0 || sce.isBypassCache())
+         return false;
+      // random fit depends on the clock
+      return sce.getName().equals(LP) || sce.getName().equals(LP_DEC) || sce.getName().equals(LP_RELAX)
+            || sce.getName().equals(FF) || sce.getName().equals(GRD);
+   }
+
+   // null if an input file cannot be read
+   public static String getKey(Scenario sce) {
+      try {
+         MessageDigest digest = MessageDigest.getInstance("SHA-256");
+         update(digest, RESULTS_CACHE_VERSION);
+         String inputFileName = sce.getInputFileName();
+         String path = Auxiliary.getResourcesPath(inputFileName + ".yml");
+         if (path == null)
+            return null;
+         String graphName = inputFileName.split("_")[0];
+         update(digest, new File(path + inputFileName + ".yml"));
+         File topology = new File(path + graphName + ".dgs");
+         if (!topology.exists())
+            topology = new File(path + graphName + ".gml");
+         update(digest, topology);
+         update(digest, new File(path + graphName + ".txt"));
+         try (InputStream seeds = ResultsCache.class.getResourceAsStream("/aux_files/seeds.txt")) {
+            if (seeds == null)
+               return null;
+            digest.update(seeds.readAllBytes());
+         }
+         update(digest, sce.getName());
+         update(digest, sce.getObjFunc());
+         update(digest, String.valueOf(sce.isMaximization()));
+         update(digest, String.valueOf(new TreeMap<>(sce.getConstraints())));
+         StringBuilder key = new StringBuilder();
+         for (byte b : digest.digest())
+            key.append(String.format("%02x", b));
+         return key.toString();
+      } catch (IOException | NoSuchAlgorithmException e) {
+         return null;
+      }
+   }
+
+   private static void update(MessageDigest digest, String value) {
+      byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+      digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) ':');
+      digest.update(bytes);
+   }
+
+   private static void update(MessageDigest digest, File file) throws IOException {
+      if (!file.exists()) {
+         update(digest, "");
+         return;
+      }
+      byte[] bytes = Files.readAllBytes(file.toPath());
+      update(digest, Integer.toString(bytes.length));
+      digest.update(bytes);
+   }
+
+   public static synchronized boolean contains(String key) {
+      return new File(new File(getCacheFolder(), key), ENTRY_FILE).exists();
+   }
+
+   // copies the cached files into the results manager folder and shows the results, false on a miss
+   public static boolean restore(String key, Parameters pm, ResultsManager rm) {
+      File entryFolder = new File(getCacheFolder(), key);
+      File entryFile = new File(entryFolder, ENTRY_FILE);
+      synchronized (ResultsCache.class) {
+         if (!entryFile.exists())
+            return false;
+         try {
+            Entry entry;
+            try (Reader reader = Files.newBufferedReader(entryFile.toPath())) {
+               entry = gson.fromJson(reader, Entry.class);
+            }
+            File[] files = new File(entryFolder, FILES_FOLDER).listFiles();
+            if (files != null)
+               for (File file : files)
+                  Files.copy(file.toPath(), new File(rm.getResultsFolder(), file.getName()).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            entryFolder.setLastModified(System.currentTimeMillis());
+            if (entry.results != null)
+               ResultsGUI.restoreResults(pm, entry.results, entry.serverLabels, entry.linkLabels);
+         } catch (Exception e) {
+            printLog(log, WARNING, "cached results could not be read");
+            deleteFolder(entryFolder);
+            return false;
+         }
+      }
+      printLog(log, INFO, "results loaded from cache");
+      return true;
+   }
+
+   public static void store(String key, ResultsManager rm, Results results) {
+      File cacheFolder = getCacheFolder();
+      File entryFolder = new File(cacheFolder, key);
+      File tempFolder = new File(cacheFolder, key + ".tmp" + Thread.currentThread().getId());
+      try {
+         File filesFolder = new File(tempFolder, FILES_FOLDER);
+         Files.createDirectories(filesFolder.toPath());
+         // the folder is unique to this run, so it only holds the files the run wrote
+         File[] files = new File(rm.getResultsFolder()).listFiles();
+         if (files != null)
+            for (File file : files)
+               if (file.isFile())
+                  Files.copy(file.toPath(), new File(filesFolder, file.getName()).toPath());
+         Entry entry = new Entry();
+         if (results != null) {
+            entry.results = results;
+            entry.serverLabels = ResultsGUI.getServerLabels(results);
+            entry.linkLabels = ResultsGUI.getLinkLabels(results);
+         }
+         try (Writer writer = Files.newBufferedWriter(new File(tempFolder, ENTRY_FILE).toPath())) {
+            gson.toJson(entry, writer);
+         }
+         synchronized (ResultsCache.class) {
+            if (entryFolder.exists())
+               deleteFolder(entryFolder);
+            Files.move(tempFolder.toPath(), entryFolder.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            evict(cacheFolder);
+         }
+      } catch (Exception e) {
+         printLog(log, WARNING, "results could not be cached");
+      } finally {
+         deleteFolder(tempFolder);
+      }
+   }
+
+   private static void evict(File cacheFolder) {
+      long quota = getQuota() * 1024 * 1024;
+      File[] entries = cacheFolder.listFiles(file -> file.isDirectory() && !file.getName().contains(".tmp"));
+      if (entries == null)
+         return;
+      List<File> entryList = new ArrayList<>(Arrays.asList(entries));
+      entryList.sort(Comparator.comparingLong(File::lastModified));
+      long totalSize = 0;
+      for (File entry : entryList)
+         totalSize += size(entry);
+      // the newest entry is kept even if it alone exceeds the quota
+      for (int i = 0; i < entryList.size() - 1 && totalSize > quota; i++) {
+         totalSize -= size(entryList.get(i));
+         deleteFolder(entryList.get(i));
+      }
+   }
+
+   private static long size(File file) {
+      if (file.isFile())
+         return file.length();
+      long size = 0;
+      File[] files = file.listFiles();
+      if (files != null)
+         for (File f : files)
+            size += size(f);
+      return size;
+   }
+
+   private static void deleteFolder(File folder) {
+      File[] files = folder.listFiles();
+      if (files != null)
+         for (File file : files)
+            deleteFolder(file);
+      folder.delete();
+   }
+
+   private static File getCacheFolder() {
+      File cacheFolder = new File(ResultsManager.getResultsPath(), RESULTS_CACHE_FOLDER);
+      if (!cacheFolder.exists())
+         cacheFolder.mkdirs();
+      return cacheFolder;
+   }
+
+   private static long getQuota() {
+      return Long.getLong(RESULTS_CACHE_QUOTA, RESULTS_CACHE_QUOTA_DEFAULT);
+   }
+
+   private static class Entry {
+      private Results results;
+      private Map<String, String[]> serverLabels;
+      private Map<String, String[]> linkLabels;
+   }
+}
@@ -0,0 +1,263 @@
+package optimizer.results;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static optimizer.Definitions.*;
+import static optimizer.results.Auxiliary.printLog;
+
+// Binary columnar file of the results for post-processing, big-endian and read without parsing strings:
+//
+//    int magic, short version, int number of columns
+//    per column: UTF name, byte type (1 int32, 2 float64), int length, values
+//
+// Every raw variable is written in coordinate form, as one int32 column per index, e.g. zSP.s and zSP.p, with
+// the entries that are true or, for continuous and integer variables, nonzero, whose values go to a float64 or int32
+// column named as the variable. Indices start at offset_results as in the JSON file. The summary values, the
+// percentiles, the service delay tail and the xu, lu and sd lists follow as float64 columns.
+public class ResultsColumns {
+
+   private static final Logger log = LoggerFactory.getLogger(ResultsColumns.class);
+   private static final int MAGIC = 0x4E535043; // NSPC
+   private static final short VERSION = 1;
+   private static final byte INT32 = 1;
+   private static final byte FLOAT64 = 2;
+
+   public static void write(File file, Results results) throws IOException {
+      Map<String, Object> columns = new LinkedHashMap<>();
+      if (results.getRawVariables() != null)
+         for (Map.Entry<String, Object> entry : results.getRawVariables().entrySet())
+            if (entry.getValue() != null)
+               addVariable(columns, entry.getKey(), entry.getValue(), results.getOffset());
+      columns.put("objective_value", new double[] { results.getObjVal() });
+      columns.put("computation_time", new double[] { results.getComputationTime() });
+      columns.put("num_functions_cloud", new double[] { results.getNumFunctionsCloud() });
+      columns.put("total_num_functions", new double[] { results.getTotalNumFunctions() });
+      columns.put("avg_path_length", new double[] { results.getAvgPathLength() });
+      columns.put("total_traffic", new double[] { results.getTotalTraffic() });
+      columns.put("traffic_on_links", new double[] { results.getTrafficLinks() });
+      columns.put("synchronization_traffic", new double[] { results.getSynchronizationTraffic() });
+      addDoubles(columns, "lu_summary", results.getLuSummary());
+      addDoubles(columns, "xu_summary", results.getXuSummary());
+      addDoubles(columns, "fp_summary", results.getFpSummary());
+      addDoubles(columns, "sd_summary", results.getSdSummary());
+      addPercentiles(columns, "lu_percentiles", results.getLuPercentiles());
+      addPercentiles(columns, "xu_percentiles", results.getXuPercentiles());
+      addPercentiles(columns, "sd_percentiles", results.getSdPercentiles());
+      addTail(columns, "sd_tail", results.getSdTail());
+      addList(columns, "xu", results.getXu());
+      addList(columns, "lu", results.getLu());
+      addList(columns, "sd", results.getSd());
+      try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(file), JSON_BUFFER_SIZE))) {
+         out.writeInt(MAGIC);
+         out.writeShort(VERSION);
+         out.writeInt(columns.size());
+         for (Map.Entry<String, Object> column : columns.entrySet()) {
+            out.writeUTF(column.getKey());
+            if (column.getValue() instanceof int[]) {
+               int[] values = (int[]) column.getValue();
+               out.writeByte(INT32);
+               out.writeInt(values.length);
+               for (int value : values)
+                  out.writeInt(value);
+            } else {
+               double[] values = (double[]) column.getValue();
+               out.writeByte(FLOAT64);
+               out.writeInt(values.length);
+               for (double value : values)
+                  out.writeDouble(value);
+            }
+         }
+      }
+   }
+
+   // columns by name as int[] or double[]
+   public static Map<String, Object> read(File file) throws IOException {
+      Map<String, Object> columns = new LinkedHashMap<>();
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+         if (in.readInt() != MAGIC)
+            throw new IOException(file.getName() + " is not a results columns file");
+         short version = in.readShort();
+         if (version != VERSION)
+            throw new IOException("unsupported results columns version " + version);
+         int numColumns = in.readInt();
+         for (int c = 0; c < numColumns; c++) {
+            String name = in.readUTF();
+            byte type = in.readByte();
+            int length = in.readInt();
+            if (type == INT32) {
+               int[] values = new int[length];
+               for (int i = 0; i < length; i++)
+                  values[i] = in.readInt();
+               columns.put(name, values);
+            } else if (type == FLOAT64) {
+               double[] values = new double[length];
+               for (int i = 0; i < length; i++)
+                  values[i] = in.readDouble();
+               columns.put(name, values);
+            } else
+               throw new IOException("unknown type " + type + " of column " + name);
+         }
+      }
+      return columns;
+   }
+
+   private static void addVariable(Map<String, Object> columns, String name, Object variable, int offset) {
+      int numDimensions = 0;
+      for (Class<?> c = variable.getClass(); c.isArray(); c = c.getComponentType())
+         numDimensions++;
+      Class<?> elementType = variable.getClass();
+      while (elementType.isArray())
+         elementType = elementType.getComponentType();
+      if (elementType != boolean.class && elementType != double.class && elementType != int.class) {
+         printLog(log, WARNING, name + " not exported to columns, " + elementType.getSimpleName() + " values");
+         return;
+      }
+      Entries entries = new Entries(numDimensions, elementType);
+      collect(variable, new int[numDimensions], 0, entries);
+      for (int i = 0; i < numDimensions; i++) {
+         int[] index = entries.indices[i].toArray();
+         for (int j = 0; j < index.length; j++)
+            index[j] += offset;
+         columns.put(name + "." + indexName(name, numDimensions, i), index);
+      }
+      if (entries.values != null)
+         columns.put(name, entries.values.toArray());
+      if (entries.intValues != null)
+         columns.put(name, entries.intValues.toArray());
+   }
+
+   // index letters follow the variable name, e.g. s and p for zSP
+   private static String indexName(String name, int numDimensions, int dimension) {
+      if (name.length() == numDimensions + 1)
+         return String.valueOf(Character.toLowerCase(name.charAt(dimension + 1)));
+      return String.valueOf(dimension);
+   }
+
+   // arrays can be jagged, e.g. the number of paths differs per service
+   private static void collect(Object array, int[] position, int dimension, Entries entries) {
+      int length = Array.getLength(array);
+      if (dimension == position.length - 1) {
+         for (int i = 0; i < length; i++) {
+            position[dimension] = i;
+            if (array instanceof boolean[]) {
+               if (((boolean[]) array)[i])
+                  entries.add(position, 0);
+            } else if (array instanceof int[]) {
+               int value = ((int[]) array)[i];
+               if (value != 0)
+                  entries.add(position, value);
+            } else {
+               double value = ((double[]) array)[i];
+               if (value != 0)
+                  entries.add(position, value);
+            }
+         }
+         return;
+      }
+      for (int i = 0; i < length; i++) {
+         Object subArray = Array.get(array, i);
+         if (subArray == null)
+            continue;
+         position[dimension] = i;
+         collect(subArray, position, dimension + 1, entries);
+      }
+   }
+
+   private static void addDoubles(Map<String, Object> columns, String name, double[] values) {
+      if (values != null)
+         columns.put(name, values);
+   }
+
+   // one column per percentile, e.g. lu_percentiles.p95
+   private static void addPercentiles(Map<String, Object> columns, String name, Map<String, Double> percentiles) {
+      if (percentiles != null)
+         for (Map.Entry<String, Double> entry : percentiles.entrySet())
+            columns.put(name + "." + entry.getKey(), new double[] { entry.getValue() });
+   }
+
+   // overall values of the tail, the breakdown per chain is only in the JSON file
+   private static void addTail(Map<String, Object> columns, String name, Map<String, Object> tail) {
+      if (tail != null)
+         for (Map.Entry<String, Object> entry : tail.entrySet())
+            if (entry.getValue() instanceof Number)
+               columns.put(name + "." + entry.getKey(), new double[] { ((Number) entry.getValue()).doubleValue() });
+   }
+
+   private static void addList(Map<String, Object> columns, String name, List<Double> values) {
+      if (values == null)
+         return;
+      double[] array = new double[values.size()];
+      for (int i = 0; i < array.length; i++)
+         array[i] = values.get(i);
+      columns.put(name, array);
+   }
+
+   private static class Entries {
+      private final IntList[] indices;
+      private final DoubleList values;
+      private final IntList intValues;
+
+      private Entries(int numDimensions, Class<?> elementType) {
+         indices = new IntList[numDimensions];
+         for (int i = 0; i < numDimensions; i++)
+            indices[i] = new IntList();
+         values = elementType == double.class ? new DoubleList() : null;
+         intValues = elementType == int.class ? new IntList() : null;
+      }
+
+      private void add(int[] position, double value) {
+         for (int i = 0; i < position.length; i++)
+            indices[i].add(position[i]);
+         if (values != null)
+            values.add(value);
+         if (intValues != null)
+            intValues.add((int) value);
+      }
+   }
+
+   private static class IntList {
+      private int[] values = new int[16];
+      private int size;
+
+      private void add(int value) {
+         if (size == values.length)
+            values = Arrays.copyOf(values, size * 2);
+         values[size++] = value;
+      }
+
+      private int[] toArray() {
+         return Arrays.copyOf(values, size);
+      }
+   }
+
+   private static class DoubleList {
+      private double[] values = new double[16];
+      private int size;
+
+      private void add(double value) {
+         if (size == values.length)
+            values = Arrays.copyOf(values, size * 2);
+         values[size++] = value;
+      }
+
+      private double[] toArray() {
+         return Arrays.copyOf(values, size);
+      }
+   }
+}
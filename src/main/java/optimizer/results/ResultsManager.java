@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.util.DefaultIndenter;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import gurobi.GRB;
 import gurobi.GRBEnv;
 import gurobi.GRBException;
@@ -18,6 +19,7 @@ import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 import static optimizer.Definitions.*;
 import static optimizer.results.Auxiliary.printLog;
@@ -25,37 +27,70 @@ import static optimizer.results.Auxiliary.printLog;
 public class ResultsManager {
 
    private static final Logger log = LoggerFactory.getLogger(ResultsManager.class);
+   // writers are immutable and thread-safe, so the mapper and its serializers are built once
+   private static final ObjectWriter jsonWriter = createJsonWriter();
    private String resultsFolder;
 
+   // every manager gets its own folder, runs started in the same second on the same graph get a numbered suffix
    public ResultsManager(String folderName) {
       SimpleDateFormat MY_FORMAT = new SimpleDateFormat("dd-MM-yy_HH-mm-ss_", Locale.getDefault());
       Date date = new Date();
+      String path = getResultsPath();
+      File parentDirectory = new File(path);
+      if (!parentDirectory.exists())
+         parentDirectory.mkdir();
+      String folder = path + MY_FORMAT.format(date) + folderName;
+      resultsFolder = folder;
+      // mkdir is atomic, so concurrent managers never get the same folder
+      for (int i = 1; !new File(resultsFolder).mkdir() && new File(resultsFolder).exists(); i++)
+         resultsFolder = folder + "_" + i;
+   }
+
+   // results folder next to the jar or the classes folder
+   static String getResultsPath() {
       String path = ResultsManager.class.getProtectionDomain().getCodeSource().getLocation().getPath();
       File f = new File(path);
       if (!f.isDirectory())
          path = f.getParent()+ "/results/";
       else 
          path = path + "../results/";
-      path = path.replaceAll("%20", " ");
-      File parentDirectory = new File(path);
-      if (!parentDirectory.exists())
-         parentDirectory.mkdir();
-      resultsFolder = path + MY_FORMAT.format(date) + folderName;
-      new File(resultsFolder).mkdir();
+      return path.replaceAll("%20", " ");
    }
 
+   // the object is streamed to the file, results variables are written from the raw variables without building
+   // their strings first. With -Djson_gzip=true the file is compressed into .json.gz and with -Dcolumns_export=true
+   // results are also written as .columns
    public void exportJsonObject(String fileName, Object object) {
-      File jsonFile = new File(resultsFolder + "/" + fileName + ".json");
-      ObjectMapper mapper = new ObjectMapper(new JsonFactory());
+      boolean gzip = Boolean.getBoolean(JSON_GZIP);
+      File jsonFile = new File(resultsFolder + "/" + fileName + (gzip ? ".json.gz" : ".json"));
+      Profiler.start(PHASE_JSON_EXPORT);
+      try (OutputStream outputStream = gzip
+            ? new GZIPOutputStream(new FileOutputStream(jsonFile), JSON_BUFFER_SIZE)
+            : new BufferedOutputStream(new FileOutputStream(jsonFile), JSON_BUFFER_SIZE)) {
+         jsonWriter.writeValue(outputStream, object);
+      } catch (IOException e) {
+         e.printStackTrace();
+      }
+      if (object instanceof Results && Boolean.getBoolean(COLUMNS_EXPORT))
+         exportColumns(fileName, (Results) object);
+      Profiler.stop(PHASE_JSON_EXPORT);
+   }
+
+   // typed columns of the results for analysis tools, see ResultsColumns
+   public void exportColumns(String fileName, Results results) {
+      try {
+         ResultsColumns.write(new File(resultsFolder + "/" + fileName + ".columns"), results);
+      } catch (IOException e) {
+         printLog(log, WARNING, "error writing results columns: " + e.getMessage());
+      }
+   }
+
+   private static ObjectWriter createJsonWriter() {
       DefaultPrettyPrinter.Indenter indenter = new DefaultIndenter("  ", DefaultIndenter.SYS_LF);
       DefaultPrettyPrinter printer = new DefaultPrettyPrinter();
       printer.indentObjectsWith(indenter);
       printer.indentArraysWith(indenter);
-      try {
-         mapper.writer(printer).writeValue(jsonFile, object);
-      } catch (IOException e) {
-         e.printStackTrace();
-      }
+      return new ObjectMapper(new JsonFactory()).writer(printer);
    }
 
    public String importConfDrlFile(String fileName) {
@@ -0,0 +1,69 @@
+package optimizer.results;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static optimizer.Definitions.QUANTILE_ACCURACY;
+
+// Tail of the end to end service delay of the routed demands, overall and per service chain: p90, p99 and max from
+// quantile sketches and the fraction of demands above the max_delay of their service, services without max_delay
+// are never above. Tails of several runs can be merged without keeping their delays.
+public class ServiceDelayTail {
+
+   private final Tail overall = new Tail();
+   // by service id, which is the chain of function types
+   private final Map<String, Tail> chains = new TreeMap<>();
+
+   public void add(String chain, double delay, double maxDelay) {
+      boolean isAboveMaxDelay = maxDelay > 0 && delay > maxDelay;
+      overall.add(delay, isAboveMaxDelay);
+      chains.computeIfAbsent(chain, k -> new Tail()).add(delay, isAboveMaxDelay);
+   }
+
+   public void merge(ServiceDelayTail other) {
+      overall.merge(other.overall);
+      for (Map.Entry<String, Tail> entry : other.chains.entrySet())
+         chains.computeIfAbsent(entry.getKey(), k -> new Tail()).merge(entry.getValue());
+   }
+
+   public long getDemands() {
+      return overall.sketch.getTotalCount();
+   }
+
+   public Map<String, Object> toMap() {
+      Map<String, Object> map = overall.toMap();
+      Map<String, Object> chainMaps = new LinkedHashMap<>();
+      for (Map.Entry<String, Tail> entry : chains.entrySet())
+         chainMaps.put(entry.getKey(), entry.getValue().toMap());
+      map.put("chains", chainMaps);
+      return map;
+   }
+
+   private static class Tail {
+      private final QuantileSketch sketch = new QuantileSketch(QUANTILE_ACCURACY);
+      private long aboveMaxDelay;
+
+      private void add(double delay, boolean isAboveMaxDelay) {
+         sketch.add(delay);
+         if (isAboveMaxDelay)
+            aboveMaxDelay++;
+      }
+
+      private void merge(Tail other) {
+         sketch.merge(other.sketch);
+         aboveMaxDelay += other.aboveMaxDelay;
+      }
+
+      private Map<String, Object> toMap() {
+         Map<String, Object> map = new LinkedHashMap<>();
+         long demands = sketch.getTotalCount();
+         map.put("demands", demands);
+         map.put("p90", Auxiliary.roundDouble(sketch.quantile(0.9), 4));
+         map.put("p99", Auxiliary.roundDouble(sketch.quantile(0.99), 4));
+         map.put("max", Auxiliary.roundDouble(sketch.getMax(), 4));
+         map.put("above_max_delay", demands > 0 ? Auxiliary.roundDouble((double) aboveMaxDelay / demands, 4) : 0.0);
+         return map;
+      }
+   }
+}
@@ -0,0 +1,104 @@
+package optimizer.results;
+
+import static optimizer.Definitions.QUANTILE_ACCURACY;
+
+// Statistics of a stream of values in one pass: count, mean and variance (Welford), min, max, a quantile sketch and,
+// optionally, counts of fixed-width buckets between lower and upper, values out of the range are not counted.
+// Empty statistics report 0.
+public class Statistics {
+
+   private long count;
+   private double mean;
+   private double m2;
+   private double min = Double.MAX_VALUE;
+   private double max = -Double.MAX_VALUE;
+   private final QuantileSketch sketch = new QuantileSketch(QUANTILE_ACCURACY);
+   private final double lower;
+   private final double scale;
+   private final long[] buckets;
+
+   public Statistics() {
+      this.lower = 0;
+      this.scale = 0;
+      this.buckets = null;
+   }
+
+   public Statistics(double lower, double upper, int numBuckets) {
+      this.lower = lower;
+      this.scale = numBuckets / (upper - lower);
+      this.buckets = new long[numBuckets];
+   }
+
+   public void add(double value) {
+      count++;
+      double delta = value - mean;
+      mean += delta / count;
+      m2 += delta * (value - mean);
+      if (value < min)
+         min = value;
+      if (value > max)
+         max = value;
+      sketch.add(value);
+      if (buckets != null) {
+         double position = (value - lower) * scale;
+         if (position >= 0 && position < buckets.length)
+            buckets[(int) position]++;
+      }
+   }
+
+   public void addAll(double[] values) {
+      for (double value : values)
+         add(value);
+   }
+
+   // buckets are merged only if both statistics have the same ones
+   public void merge(Statistics other) {
+      if (other.count == 0)
+         return;
+      long total = count + other.count;
+      double delta = other.mean - mean;
+      mean += delta * other.count / total;
+      m2 += other.m2 + delta * delta * count * other.count / total;
+      count = total;
+      min = Math.min(min, other.min);
+      max = Math.max(max, other.max);
+      sketch.merge(other.sketch);
+      if (buckets != null && other.buckets != null && buckets.length == other.buckets.length && lower == other.lower
+            && scale == other.scale)
+         for (int i = 0; i < buckets.length; i++)
+            buckets[i] += other.buckets[i];
+   }
+
+   public long getCount() {
+      return count;
+   }
+
+   public double getMean() {
+      return mean;
+   }
+
+   // population variance
+   public double getVariance() {
+      return count > 0 ? m2 / count : 0;
+   }
+
+   public double getMin() {
+      return count > 0 ? min : 0;
+   }
+
+   public double getMax() {
+      return count > 0 ? max : 0;
+   }
+
+   public double getQuantile(double q) {
+      return sketch.quantile(q);
+   }
+
+   public QuantileSketch getSketch() {
+      return sketch;
+   }
+
+   public long[] getBuckets() {
+      return buckets;
+   }
+}
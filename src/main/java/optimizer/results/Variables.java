@@ -0,0 +1,256 @@
+package optimizer.results;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Variables of the results as formatted strings, one list per variable. On export every value is formatted from the
+// raw variables and streamed into the JSON generator right away, the lists of all variables are only built when
+// requested. A raw variable is cast and checked before its name is written, so a bad variable is left out entirely.
+// Gson, used by the web UI and the results cache, writes and reads them through the same sinks, and results read
+// back without their raw variables keep the lists that were read.
+@JsonAdapter(Variables.GsonAdapter.class)
+public class Variables implements JsonSerializable {
+
+   private final Results results;
+   private final Map<String, List<String>> readVariables;
+
+   Variables(Results results) {
+      this.results = results;
+      this.readVariables = null;
+   }
+
+   private Variables(Map<String, List<String>> readVariables) {
+      this.results = null;
+      this.readVariables = readVariables;
+   }
+
+   @Override
+   public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+      StreamingSink sink = new StreamingSink() {
+         @Override
+         void writeStart(String name) throws IOException {
+            generator.writeFieldName(name);
+            generator.writeStartArray();
+         }
+
+         @Override
+         void writeValue(String value) throws IOException {
+            generator.writeString(value);
+         }
+
+         @Override
+         void writeEnd() throws IOException {
+            generator.writeEndArray();
+         }
+      };
+      generator.writeStartObject();
+      write(sink);
+      if (sink.exception != null)
+         throw sink.exception;
+      generator.writeEndObject();
+   }
+
+   @Override
+   public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSer)
+         throws IOException {
+      serialize(generator, serializers);
+   }
+
+   public Map<String, List<String>> toMap() {
+      ListSink sink = new ListSink();
+      write(sink);
+      return sink.variables;
+   }
+
+   private void write(Sink sink) {
+      if (readVariables == null) {
+         results.writeVariables(sink);
+         return;
+      }
+      for (Map.Entry<String, List<String>> variable : readVariables.entrySet()) {
+         sink.start(variable.getKey());
+         for (String value : variable.getValue())
+            sink.add(value);
+         sink.end();
+      }
+   }
+
+   // raw variable cast to its type, with at least the given length in every dimension
+   static <T> T checked(Object raw, Class<T> type, int... lengths) {
+      if (raw == null)
+         throw new IllegalArgumentException("not set");
+      if (!type.isInstance(raw))
+         throw new IllegalArgumentException(raw.getClass().getSimpleName() + " is not " + type.getSimpleName());
+      checkLengths(raw, lengths, 0);
+      return type.cast(raw);
+   }
+
+   private static void checkLengths(Object array, int[] lengths, int dimension) {
+      if (array == null)
+         throw new IllegalArgumentException("dimension " + dimension + " not set");
+      int length = Array.getLength(array);
+      if (length < lengths[dimension])
+         throw new IllegalArgumentException("dimension " + dimension + " has " + length + " < " + lengths[dimension]);
+      if (dimension + 1 < lengths.length)
+         for (int i = 0; i < lengths[dimension]; i++)
+            checkLengths(Array.get(array, i), lengths, dimension + 1);
+   }
+
+   // receives the values of one variable after another, a variable that fails while being written is aborted and
+   // keeps the values written so far, as in the streamed files
+   interface Sink {
+      void start(String name);
+
+      void add(String value);
+
+      void end();
+
+      void abort();
+   }
+
+   private static class ListSink implements Sink {
+      private final LinkedHashMap<String, List<String>> variables = new LinkedHashMap<>();
+      private String name;
+      private List<String> values;
+
+      @Override
+      public void start(String name) {
+         this.name = name;
+         this.values = new ArrayList<>();
+      }
+
+      @Override
+      public void add(String value) {
+         values.add(value);
+      }
+
+      @Override
+      public void end() {
+         if (values != null)
+            variables.put(name, values);
+         values = null;
+      }
+
+      @Override
+      public void abort() {
+         end();
+      }
+   }
+
+   // values are written as they are added, the first write error is kept and stops writing
+   private abstract static class StreamingSink implements Sink {
+      private boolean isOpen;
+      IOException exception;
+
+      @Override
+      public void start(String name) {
+         if (exception == null)
+            try {
+               writeStart(name);
+               isOpen = true;
+            } catch (IOException e) {
+               exception = e;
+            }
+      }
+
+      @Override
+      public void add(String value) {
+         if (exception == null && isOpen)
+            try {
+               writeValue(value);
+            } catch (IOException e) {
+               exception = e;
+            }
+      }
+
+      @Override
+      public void end() {
+         if (exception == null && isOpen)
+            try {
+               writeEnd();
+            } catch (IOException e) {
+               exception = e;
+            }
+         isOpen = false;
+      }
+
+      @Override
+      public void abort() {
+         end();
+      }
+
+      abstract void writeStart(String name) throws IOException;
+
+      abstract void writeValue(String value) throws IOException;
+
+      abstract void writeEnd() throws IOException;
+   }
+
+   static class GsonAdapter extends TypeAdapter<Variables> {
+
+      @Override
+      public void write(JsonWriter out, Variables variables) throws IOException {
+         if (variables == null) {
+            out.nullValue();
+            return;
+         }
+         StreamingSink sink = new StreamingSink() {
+            @Override
+            void writeStart(String name) throws IOException {
+               out.name(name);
+               out.beginArray();
+            }
+
+            @Override
+            void writeValue(String value) throws IOException {
+               out.value(value);
+            }
+
+            @Override
+            void writeEnd() throws IOException {
+               out.endArray();
+            }
+         };
+         out.beginObject();
+         variables.write(sink);
+         if (sink.exception != null)
+            throw sink.exception;
+         out.endObject();
+      }
+
+      @Override
+      public Variables read(JsonReader in) throws IOException {
+         if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+         }
+         Map<String, List<String>> readVariables = new LinkedHashMap<>();
+         in.beginObject();
+         while (in.hasNext()) {
+            String name = in.nextName();
+            List<String> values = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext())
+               values.add(in.nextString());
+            in.endArray();
+            readVariables.put(name, values);
+         }
+         in.endObject();
+         return new Variables(readVariables);
+      }
+   }
+}
@@ -3,6 +3,9 @@ package optimizer.scenarios;
 import static optimizer.Definitions.*;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +19,9 @@ import optimizer.algorithms.VariablesAlg;
 import optimizer.gui.Scenario;
 import optimizer.lp.LauncherLP;
 import optimizer.results.Auxiliary;
+import optimizer.results.Results;
 import optimizer.results.ResultsManager;
+import optimizer.results.ServiceDelayTail;
 import static optimizer.results.Auxiliary.printLog;
 
 public class Journal {
@@ -63,7 +68,8 @@ public class Journal {
                                     + pm.getGraphName() + "_" + GRD + "_" + sce.getObjFunc(),
                             pm, sce, false);
                     outputFileName = pm.getGraphName() + "_" + LP + "_" + sce.getObjFunc();
-                    LauncherLP.run(pm, sce, rm, initModel, initSol, outputFileName, true);
+                    VariablesAlg initVars = initModel != null ? new VariablesAlg(pm, initModel) : null;
+                    LauncherLP.run(pm, sce, rm, initVars, initSol, outputFileName, true);
                     break;
 
                 case JOURNAL_ALL_SFC_LENGTH:
@@ -91,16 +97,20 @@ public class Journal {
     private static void runCustomSFCLength(Scenario sce, String customString) throws GRBException {
         ArrayList<Integer> services = new ArrayList<>();
         ArrayList<Integer> serviceLength = new ArrayList<>();
+        Map<String, Map<String, ServiceDelayTail>> sweepDelayTails = new LinkedHashMap<>();
         for (int s = 1; s <= 10; s++) {
             services = new ArrayList<>();
             services.add(1);
             serviceLength = new ArrayList<>();
             serviceLength.add(s);
+            Map<String, ServiceDelayTail> tails = new TreeMap<>();
+            sweepDelayTails.put(String.valueOf(s), tails);
             if (customString.equals(JOURNAL_ALL))
-                runJournalAll(sce, services, serviceLength, 0);
+                runJournalAll(sce, services, serviceLength, 0, tails);
             if (customString.equals(JOURNAL_HEU))
-                runJournalHeu(sce, services, serviceLength, 0);
+                runJournalHeu(sce, services, serviceLength, 0, tails);
         }
+        exportSweepDelayTails(sce.getInputFileName() + "_sfc_length", sweepDelayTails);
     }
 
     private static void runCustomServerCap(Scenario sce, String customString) throws GRBException {
@@ -112,16 +122,46 @@ public class Journal {
         }
 
         int[] serverCaps = new int[] { 250, 500, 750, 1000, 1250, 1500, 1750, 2000, 2250, 2500, 2750, 3000 };
+        Map<String, Map<String, ServiceDelayTail>> sweepDelayTails = new LinkedHashMap<>();
         for (int s = 0; s < serverCaps.length; s++) {
+            Map<String, ServiceDelayTail> tails = new TreeMap<>();
+            sweepDelayTails.put(String.valueOf(serverCaps[s]), tails);
             if (customString.equals(JOURNAL_ALL))
-                runJournalAll(sce, services, serviceLength, serverCaps[s]);
+                runJournalAll(sce, services, serviceLength, serverCaps[s], tails);
             if (customString.equals(JOURNAL_HEU))
-                runJournalHeu(sce, services, serviceLength, serverCaps[s]);
+                runJournalHeu(sce, services, serviceLength, serverCaps[s], tails);
         }
+        exportSweepDelayTails(sce.getInputFileName() + "_server_cap", sweepDelayTails);
+    }
+
+    // merges the service delay tail of the run into the tails of its sweep point, by algorithm, objective and initial
+    // placement; the repetitions of RF are merged together
+    private static void addToSweep(Map<String, ServiceDelayTail> tails, String alg, String objFunc,
+            String outputFileExtension, Results results) {
+        if (results == null || results.getServiceDelayTail() == null)
+            return;
+        String placement = outputFileExtension.replaceAll("_\\d+$", "");
+        String key = alg + "_" + objFunc + (placement.isEmpty() ? "" : "_" + placement);
+        tails.computeIfAbsent(key, k -> new ServiceDelayTail()).merge(results.getServiceDelayTail());
+    }
+
+    private static void exportSweepDelayTails(String sweepName,
+            Map<String, Map<String, ServiceDelayTail>> sweepDelayTails) {
+        Map<String, Object> points = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, ServiceDelayTail>> point : sweepDelayTails.entrySet()) {
+            if (point.getValue().isEmpty())
+                continue;
+            Map<String, Object> tails = new LinkedHashMap<>();
+            for (Map.Entry<String, ServiceDelayTail> entry : point.getValue().entrySet())
+                tails.put(entry.getKey(), entry.getValue().toMap());
+            points.put(point.getKey(), tails);
+        }
+        if (!points.isEmpty())
+            new ResultsManager(sweepName).exportJsonObject(sweepName + "_sd_tail", points);
     }
 
     private static void runJournalAll(Scenario sce, ArrayList<Integer> services, ArrayList<Integer> service_lengths,
-            int serverCap) throws GRBException {
+            int serverCap, Map<String, ServiceDelayTail> tails) throws GRBException {
         String resultsFolderExtension = "";
         if (serverCap != 0)
             resultsFolderExtension = "_" + String.valueOf(serverCap);
@@ -131,70 +171,73 @@ public class Journal {
         boolean toMST = false;
 
         // 1 - obsv1 [LP]
-        GRBModel obsv1LP = runJournalLP(sce, MGR_REP_CLOUD, OBSV_1, NULL, rm, null, toMST, services, service_lengths,
-                serverCap);
+        Results obsv1LP = runJournalLP(sce, MGR_REP_CLOUD, OBSV_1, NULL, rm, tails, null, toMST, services,
+                service_lengths, serverCap);
         VariablesAlg obsv1Alg = new VariablesAlg(pm, obsv1LP);
         // 2 - pred2 [LP]
-        GRBModel pred2LP = runJournalLP(sce, MGR_REP_CLOUD, PRED_2, NULL, rm, null, toMST, services, service_lengths,
-                serverCap);
+        Results pred2LP = runJournalLP(sce, MGR_REP_CLOUD, PRED_2, NULL, rm, tails, null, toMST, services,
+                service_lengths, serverCap);
         VariablesAlg pred2Alg = new VariablesAlg(pm, pred2LP);
         // 3 - over2 [LP]
-        GRBModel over2LP = runJournalLP(sce, MGR_REP_CLOUD, OVER_2, NULL, rm, null, toMST, services, service_lengths,
-                serverCap);
+        Results over2LP = runJournalLP(sce, MGR_REP_CLOUD, OVER_2, NULL, rm, tails, null, toMST, services,
+                service_lengths, serverCap);
         VariablesAlg over2Alg = new VariablesAlg(pm, over2LP);
 
         // 1 - obsv1 -- > obsv2 [LP]
-        runJournalLP(sce, MGR, OBSV_2, OBSV_1, rm, obsv1LP, toMST, services, service_lengths, serverCap);
-        runJournalLP(sce, REP, OBSV_2, OBSV_1, rm, obsv1LP, toMST, services, service_lengths, serverCap);
-        runJournalLP(sce, CLOUD, OBSV_2, OBSV_1, rm, obsv1LP, toMST, services, service_lengths, serverCap);
-        runJournalLP(sce, MGR_REP_CLOUD, OBSV_2, OBSV_1, rm, obsv1LP, toMST, services, service_lengths, serverCap);
+        runJournalLP(sce, MGR, OBSV_2, OBSV_1, rm, tails, obsv1Alg, toMST, services, service_lengths, serverCap);
+        runJournalLP(sce, REP, OBSV_2, OBSV_1, rm, tails, obsv1Alg, toMST, services, service_lengths, serverCap);
+        runJournalLP(sce, CLOUD, OBSV_2, OBSV_1, rm, tails, obsv1Alg, toMST, services, service_lengths, serverCap);
+        runJournalLP(sce, MGR_REP_CLOUD, OBSV_2, OBSV_1, rm, tails, obsv1Alg, toMST, services, service_lengths,
+                serverCap);
         // 2 - pred2 -- > obsv2 [LP]
-        runJournalLP(sce, MGR, OBSV_2, PRED_2, rm, pred2LP, toMST, services, service_lengths, serverCap);
-        runJournalLP(sce, REP, OBSV_2, PRED_2, rm, pred2LP, toMST, services, service_lengths, serverCap);
-        runJournalLP(sce, CLOUD, OBSV_2, PRED_2, rm, pred2LP, toMST, services, service_lengths, serverCap);
-        runJournalLP(sce, MGR_REP_CLOUD, OBSV_2, PRED_2, rm, pred2LP, toMST, services, service_lengths, serverCap);
+        runJournalLP(sce, MGR, OBSV_2, PRED_2, rm, tails, pred2Alg, toMST, services, service_lengths, serverCap);
+        runJournalLP(sce, REP, OBSV_2, PRED_2, rm, tails, pred2Alg, toMST, services, service_lengths, serverCap);
+        runJournalLP(sce, CLOUD, OBSV_2, PRED_2, rm, tails, pred2Alg, toMST, services, service_lengths, serverCap);
+        runJournalLP(sce, MGR_REP_CLOUD, OBSV_2, PRED_2, rm, tails, pred2Alg, toMST, services, service_lengths,
+                serverCap);
         // 3 - over2 -- > obsv2 [LP]
-        runJournalLP(sce, MGR, OBSV_2, OVER_2, rm, over2LP, toMST, services, service_lengths, serverCap);
-        runJournalLP(sce, REP, OBSV_2, OVER_2, rm, over2LP, toMST, services, service_lengths, serverCap);
-        runJournalLP(sce, CLOUD, OBSV_2, OVER_2, rm, over2LP, toMST, services, service_lengths, serverCap);
-        runJournalLP(sce, MGR_REP_CLOUD, OBSV_2, OVER_2, rm, over2LP, toMST, services, service_lengths, serverCap);
+        runJournalLP(sce, MGR, OBSV_2, OVER_2, rm, tails, over2Alg, toMST, services, service_lengths, serverCap);
+        runJournalLP(sce, REP, OBSV_2, OVER_2, rm, tails, over2Alg, toMST, services, service_lengths, serverCap);
+        runJournalLP(sce, CLOUD, OBSV_2, OVER_2, rm, tails, over2Alg, toMST, services, service_lengths, serverCap);
+        runJournalLP(sce, MGR_REP_CLOUD, OBSV_2, OVER_2, rm, tails, over2Alg, toMST, services, service_lengths,
+                serverCap);
 
         // 1 - obsv1 -- > obsv2 [FF]
-        runJournalHeu(sce, FF, MGR_REP_CLOUD, OBSV_2, OBSV_1, rm, obsv1Alg, toMST, services, service_lengths, serverCap);
+        runJournalHeu(sce, FF, MGR_REP_CLOUD, OBSV_2, OBSV_1, rm, tails, obsv1Alg, toMST, services, service_lengths,
+                serverCap);
         // 2 - pred2 -- > obsv2 [FF]
-        runJournalHeu(sce, FF, MGR_REP_CLOUD, OBSV_2, PRED_2, rm, pred2Alg, toMST, services, service_lengths, serverCap);
+        runJournalHeu(sce, FF, MGR_REP_CLOUD, OBSV_2, PRED_2, rm, tails, pred2Alg, toMST, services, service_lengths,
+                serverCap);
         // 3 - over2 -- > obsv2 [FF]
-        runJournalHeu(sce, FF, MGR_REP_CLOUD, OBSV_2, OVER_2, rm, over2Alg, toMST, services, service_lengths, serverCap);
+        runJournalHeu(sce, FF, MGR_REP_CLOUD, OBSV_2, OVER_2, rm, tails, over2Alg, toMST, services, service_lengths,
+                serverCap);
 
         // 1 - obsv1 -- > obsv2 [RF]
         for (int i = 0; i < 10; i++)
-            runJournalHeu(sce, RF, MGR_REP_CLOUD, OBSV_2, OBSV_1 + "_" + i, rm, obsv1Alg, toMST, services,
-                    service_lengths,
-                    serverCap);
+            runJournalHeu(sce, RF, MGR_REP_CLOUD, OBSV_2, OBSV_1 + "_" + i, rm, tails, obsv1Alg, toMST, services,
+                    service_lengths, serverCap);
         // 2 - pred2 -- > obsv2 [RF]
         for (int i = 0; i < 10; i++)
-            runJournalHeu(sce, RF, MGR_REP_CLOUD, OBSV_2, PRED_2 + "_" + i, rm, pred2Alg, toMST, services,
-                    service_lengths,
-                    serverCap);
+            runJournalHeu(sce, RF, MGR_REP_CLOUD, OBSV_2, PRED_2 + "_" + i, rm, tails, pred2Alg, toMST, services,
+                    service_lengths, serverCap);
         // 3 - over2 -- > obsv2 [RF]
         for (int i = 0; i < 10; i++)
-            runJournalHeu(sce, RF, MGR_REP_CLOUD, OBSV_2, OVER_2 + "_" + i, rm, over2Alg, toMST, services,
-                    service_lengths,
-                    serverCap);
+            runJournalHeu(sce, RF, MGR_REP_CLOUD, OBSV_2, OVER_2 + "_" + i, rm, tails, over2Alg, toMST, services,
+                    service_lengths, serverCap);
 
         // 1 - obsv1 -- > obsv2 [GRD]
-        runJournalHeu(sce, GRD, MGR_REP_CLOUD, OBSV_2, OBSV_1, rm, obsv1Alg, toMST, services, service_lengths,
+        runJournalHeu(sce, GRD, MGR_REP_CLOUD, OBSV_2, OBSV_1, rm, tails, obsv1Alg, toMST, services, service_lengths,
                 serverCap);
         // 2 - pred2 -- > obsv2 [GRD]
-        runJournalHeu(sce, GRD, MGR_REP_CLOUD, OBSV_2, PRED_2, rm, pred2Alg, toMST, services, service_lengths,
+        runJournalHeu(sce, GRD, MGR_REP_CLOUD, OBSV_2, PRED_2, rm, tails, pred2Alg, toMST, services, service_lengths,
                 serverCap);
         // 3 - over2 -- > obsv2 [GRD]
-        runJournalHeu(sce, GRD, MGR_REP_CLOUD, OBSV_2, OVER_2, rm, over2Alg, toMST, services, service_lengths,
+        runJournalHeu(sce, GRD, MGR_REP_CLOUD, OBSV_2, OVER_2, rm, tails, over2Alg, toMST, services, service_lengths,
                 serverCap);
     }
 
     private static void runJournalHeu(Scenario sce, ArrayList<Integer> services, ArrayList<Integer> service_lengths,
-            int serverCap) {
+            int serverCap, Map<String, ServiceDelayTail> tails) {
         String resultsFolderExtension = "";
         if (serverCap != 0)
             resultsFolderExtension = "_" + String.valueOf(serverCap);
@@ -204,68 +247,73 @@ public class Journal {
         boolean toMST = false;
 
         // 1 - obsv1 [GRD]
-        VariablesAlg obsv1GRD = runJournalHeu(sce, JOURNAL_GRD_FIRST, MGR_REP_CLOUD, OBSV_1, NULL, rm, null, toMST, services,
-                service_lengths, serverCap);
+        VariablesAlg obsv1GRD = runJournalHeu(sce, JOURNAL_GRD_FIRST, MGR_REP_CLOUD, OBSV_1, NULL, rm, tails, null,
+                toMST, services, service_lengths, serverCap);
         // 2 - pred2 [GRD]
-        VariablesAlg pred2GRD = runJournalHeu(sce, JOURNAL_GRD_FIRST, MGR_REP_CLOUD, PRED_2, NULL, rm, null, toMST, services,
-                service_lengths, serverCap);
+        VariablesAlg pred2GRD = runJournalHeu(sce, JOURNAL_GRD_FIRST, MGR_REP_CLOUD, PRED_2, NULL, rm, tails, null,
+                toMST, services, service_lengths, serverCap);
         // 3 - over2 [GRD]
-        VariablesAlg over2GRD = runJournalHeu(sce, JOURNAL_GRD_FIRST, MGR_REP_CLOUD, OVER_2, NULL, rm, null, toMST, services,
-                service_lengths, serverCap);
+        VariablesAlg over2GRD = runJournalHeu(sce, JOURNAL_GRD_FIRST, MGR_REP_CLOUD, OVER_2, NULL, rm, tails, null,
+                toMST, services, service_lengths, serverCap);
 
         // 1 - obsv1 -- > obsv2 [FF]
-        runJournalHeu(sce, FF, MGR_REP_CLOUD, OBSV_2, OBSV_1, rm, obsv1GRD, toMST, services, service_lengths, serverCap);
+        runJournalHeu(sce, FF, MGR_REP_CLOUD, OBSV_2, OBSV_1, rm, tails, obsv1GRD, toMST, services, service_lengths,
+                serverCap);
         // 2 - pred2 -- > obsv2 [FF]
-        runJournalHeu(sce, FF, MGR_REP_CLOUD, OBSV_2, PRED_2, rm, pred2GRD, toMST, services, service_lengths, serverCap);
+        runJournalHeu(sce, FF, MGR_REP_CLOUD, OBSV_2, PRED_2, rm, tails, pred2GRD, toMST, services, service_lengths,
+                serverCap);
         // 3 - over2 -- > obsv2 [FF]
-        runJournalHeu(sce, FF, MGR_REP_CLOUD, OBSV_2, OVER_2, rm, over2GRD, toMST, services, service_lengths, serverCap);
+        runJournalHeu(sce, FF, MGR_REP_CLOUD, OBSV_2, OVER_2, rm, tails, over2GRD, toMST, services, service_lengths,
+                serverCap);
 
         // 1 - obsv1 -- > obsv2 [RF]
         for (int i = 0; i < 10; i++)
-            runJournalHeu(sce, RF, MGR_REP_CLOUD, OBSV_2, OBSV_1 + "_" + i, rm, obsv1GRD, toMST, services,
-                    service_lengths,
-                    serverCap);
+            runJournalHeu(sce, RF, MGR_REP_CLOUD, OBSV_2, OBSV_1 + "_" + i, rm, tails, obsv1GRD, toMST, services,
+                    service_lengths, serverCap);
         // 2 - pred2 -- > obsv2 [RF]
         for (int i = 0; i < 10; i++)
-            runJournalHeu(sce, RF, MGR_REP_CLOUD, OBSV_2, PRED_2 + "_" + i, rm, pred2GRD, toMST, services,
-                    service_lengths,
-                    serverCap);
+            runJournalHeu(sce, RF, MGR_REP_CLOUD, OBSV_2, PRED_2 + "_" + i, rm, tails, pred2GRD, toMST, services,
+                    service_lengths, serverCap);
         // 3 - over2 -- > obsv2 [RF]
         for (int i = 0; i < 10; i++)
-            runJournalHeu(sce, RF, MGR_REP_CLOUD, OBSV_2, OVER_2 + "_" + i, rm, over2GRD, toMST, services,
-                    service_lengths,
-                    serverCap);
+            runJournalHeu(sce, RF, MGR_REP_CLOUD, OBSV_2, OVER_2 + "_" + i, rm, tails, over2GRD, toMST, services,
+                    service_lengths, serverCap);
 
         // 1 - obsv1 -- > obsv2 [GRD]
-        runJournalHeu(sce, GRD, MGR_REP_CLOUD, OBSV_2, OBSV_1, rm, obsv1GRD, toMST, services, service_lengths,
+        runJournalHeu(sce, GRD, MGR_REP_CLOUD, OBSV_2, OBSV_1, rm, tails, obsv1GRD, toMST, services, service_lengths,
                 serverCap);
         // 2 - pred2 -- > obsv2 [GRD]
-        runJournalHeu(sce, GRD, MGR_REP_CLOUD, OBSV_2, PRED_2, rm, pred2GRD, toMST, services, service_lengths,
+        runJournalHeu(sce, GRD, MGR_REP_CLOUD, OBSV_2, PRED_2, rm, tails, pred2GRD, toMST, services, service_lengths,
                 serverCap);
         // 3 - over2 -- > obsv2 [GRD]
-        runJournalHeu(sce, GRD, MGR_REP_CLOUD, OBSV_2, OVER_2, rm, over2GRD, toMST, services, service_lengths,
+        runJournalHeu(sce, GRD, MGR_REP_CLOUD, OBSV_2, OVER_2, rm, tails, over2GRD, toMST, services, service_lengths,
                 serverCap);
     }
 
-    private static GRBModel runJournalLP(Scenario sce, String objFunc, String inputFileExtension,
-            String outputFileExtension, ResultsManager resultsManager, GRBModel initPlacementModel, boolean exportMST,
-            ArrayList<Integer> services, ArrayList<Integer> serviceLength, int serverCap) throws GRBException {
+    private static Results runJournalLP(Scenario sce, String objFunc, String inputFileExtension,
+            String outputFileExtension, ResultsManager resultsManager, Map<String, ServiceDelayTail> tails,
+            VariablesAlg initPlacementVars, boolean exportMST, ArrayList<Integer> services,
+            ArrayList<Integer> serviceLength, int serverCap) throws GRBException {
         readParameters(sce.getInputFileName() + "_" + inputFileExtension, false, services, serviceLength, serverCap);
         sce.setObjFunc(objFunc);
         sce.setConstraint(PATHS_SERVERS_CLOUD, true);
         String outputFileName = pm.getGraphName() + "_" + LP + "_" + sce.getObjFunc() + "_" + outputFileExtension;
-        return LauncherLP.run(pm, sce, resultsManager, initPlacementModel, null, outputFileName, exportMST);
+        Results results = LauncherLP.run(pm, sce, resultsManager, initPlacementVars, null, outputFileName, exportMST);
+        addToSweep(tails, LP, objFunc, outputFileExtension, results);
+        return results;
     }
 
     private static VariablesAlg runJournalHeu(Scenario sce, String alg, String objFunc, String inputFileExtension,
-            String outputFileExtension, ResultsManager resultsManager, VariablesAlg initPlacementVars,
-            boolean exportMST,
+            String outputFileExtension, ResultsManager resultsManager, Map<String, ServiceDelayTail> tails,
+            VariablesAlg initPlacementVars, boolean exportMST,
             ArrayList<Integer> services, ArrayList<Integer> serviceLength, int serverCap) {
         readParameters(sce.getInputFileName() + "_" + inputFileExtension, false, services, serviceLength, serverCap);
         sce.setName(alg);
         sce.setObjFunc(objFunc);
         String outputFileName = pm.getGraphName() + "_" + alg + "_" + sce.getObjFunc() + "_" + outputFileExtension;
-        return LauncherAlg.run(pm, sce, resultsManager, initPlacementVars, outputFileName, exportMST);
+        Results results = LauncherAlg.run(pm, sce, resultsManager, initPlacementVars, outputFileName, exportMST);
+        addToSweep(tails, alg, objFunc, outputFileExtension, results);
+        return new VariablesAlg(pm, results);
     }
 
 }
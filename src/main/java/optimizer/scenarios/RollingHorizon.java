@@ -0,0 +1,201 @@
+package optimizer.scenarios;
+
+import static optimizer.Definitions.*;
+import static optimizer.results.Auxiliary.printLog;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import gurobi.GRBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import optimizer.Manager;
+import optimizer.Parameters;
+import optimizer.algorithms.LauncherAlg;
+import optimizer.algorithms.NetworkManager;
+import optimizer.algorithms.VariablesAlg;
+import optimizer.algorithms.heuristics.HeuristicAlgorithm;
+import optimizer.gui.ResultsGUI;
+import optimizer.gui.Scenario;
+import optimizer.lp.LauncherLP;
+import optimizer.results.Auxiliary;
+import optimizer.results.Metrics;
+import optimizer.results.Profiler;
+import optimizer.results.Results;
+import optimizer.results.ResultsManager;
+
+// Re-optimizes a sequence of traffic snapshots <inputFileName>_0.yml, <inputFileName>_1.yml, ... where every step
+// starts from the placement of the previous one. Heuristic steps only re-allocate new or changed demands and block
+// those that do not fit, LP steps start from the routing and placement of the unchanged demands.
+public class RollingHorizon {
+
+    private static final Logger log = LoggerFactory.getLogger(RollingHorizon.class);
+
+    public static void run(Scenario sce) throws GRBException {
+        ResultsManager rm = null;
+        String algorithm = null;
+        String outputFileName = null;
+        List<Map<String, Object>> timeSeries = new ArrayList<>();
+        VariablesAlg previousVars = null;
+        Results previousResults = null;
+        int[][] previousDemands = null;
+        for (int t = 0;; t++) {
+            String snapshot = sce.getInputFileName() + "_" + t;
+            if (Auxiliary.getResourcesPath(snapshot + ".yml") == null) {
+                if (t == 0)
+                    printLog(log, ERROR, snapshot + ".yml file not found");
+                break;
+            }
+            Manager.readParameters(snapshot);
+            Parameters pm = Manager.getParameters();
+            if (rm == null) {
+                algorithm = (String) pm.getGlobal(ROLLING_ALGORITHM, GRD);
+                rm = new ResultsManager(pm.getGraphName() + "_" + ROLLING_HORIZON);
+                outputFileName = pm.getGraphName() + "_" + ROLLING_HORIZON + "_" + algorithm + "_"
+                        + sce.getObjFunc();
+            }
+            int[][] demands = getActiveDemands(pm);
+            boolean[][] changedDemands = getChangedDemands(pm, demands, previousDemands);
+            if (previousVars != null && !haveSameDimensions(pm, previousVars)) {
+                printLog(log, WARNING, "snapshot " + t + " does not match the previous one, solving from scratch");
+                previousVars = null;
+                previousResults = null;
+                changedDemands = getChangedDemands(pm, demands, null);
+            }
+            printLog(log, INFO, "rolling horizon step " + t + " [" + countChanged(changedDemands) + " changed]");
+
+            Results results;
+            List<int[]> blockedDemands = null;
+            if (algorithm.equals(LP)) {
+                // a step without solution leaves nothing to start from
+                boolean[][] startDemands = previousResults != null ? getUnchangedDemands(changedDemands) : null;
+                results = LauncherLP.run(pm, sce, rm, previousVars, null, startDemands, outputFileName + "_" + t,
+                        false);
+            }
+            else {
+                blockedDemands = new ArrayList<>();
+                results = runHeuristicStep(pm, sce, rm, algorithm, previousVars, changedDemands, blockedDemands,
+                        outputFileName + "_" + t);
+            }
+            previousVars = new VariablesAlg(pm, results);
+            previousResults = results;
+            timeSeries.add(generateStep(t, snapshot, demands, changedDemands, blockedDemands, results));
+            previousDemands = demands;
+            if (Manager.isInterrupted())
+                break;
+        }
+        if (rm != null)
+            rm.exportJsonObject(outputFileName + "_series", timeSeries);
+        printLog(log, INFO, "done");
+    }
+
+    // without previous placement every demand is changed, demands that do not fit are added to blockedDemands
+    private static Results runHeuristicStep(Parameters pm, Scenario sce, ResultsManager rm, String algorithm,
+            VariablesAlg previousVars, boolean[][] changedDemands, List<int[]> blockedDemands,
+            String outputFileName) {
+        Profiler.start(PHASE_MODEL_BUILD);
+        VariablesAlg vars = new VariablesAlg(pm, previousVars, sce.getObjFunc());
+        NetworkManager networkManager = new NetworkManager(pm, vars);
+        HeuristicAlgorithm heuristicAlgorithm = new HeuristicAlgorithm(pm, vars, networkManager);
+        Profiler.stop(PHASE_MODEL_BUILD);
+        double startTime = System.currentTimeMillis();
+        Profiler.start(PHASE_SOLVE);
+        blockedDemands.addAll(heuristicAlgorithm.allocateServicesIncrementally(algorithm, changedDemands));
+        Profiler.stop(PHASE_SOLVE);
+        double elapsedTime = System.currentTimeMillis() - startTime;
+        Metrics.observeSolveTime(sce.getName(), elapsedTime / 1000);
+        Profiler.start(PHASE_RESULT_EXTRACTION);
+        vars.generateRestOfVariablesForResults();
+        Results results = LauncherAlg.generateResults(pm, sce, vars, vars.fXSVinitial);
+        Profiler.stop(PHASE_RESULT_EXTRACTION);
+        results.setComputationTime(elapsedTime / 1000);
+        rm.exportJsonObject(outputFileName, results);
+        ResultsGUI.updateResults(results);
+        return results;
+    }
+
+    // demand value per service and demand, -1 when the demand is not used
+    private static int[][] getActiveDemands(Parameters pm) {
+        int[][] demands = new int[pm.getServices().size()][];
+        for (int s = 0; s < pm.getServices().size(); s++) {
+            demands[s] = new int[pm.getServices().get(s).getTrafficFlow().getDemands().size()];
+            for (int d = 0; d < demands[s].length; d++)
+                if (pm.getServices().get(s).getTrafficFlow().getAux().get(d))
+                    demands[s][d] = pm.getServices().get(s).getTrafficFlow().getDemands().get(d);
+                else
+                    demands[s][d] = -1;
+        }
+        return demands;
+    }
+
+    private static boolean[][] getChangedDemands(Parameters pm, int[][] demands, int[][] previousDemands) {
+        boolean[][] changed = new boolean[demands.length][];
+        for (int s = 0; s < demands.length; s++) {
+            changed[s] = new boolean[demands[s].length];
+            for (int d = 0; d < demands[s].length; d++)
+                changed[s][d] = previousDemands == null || previousDemands.length != demands.length
+                        || d >= previousDemands[s].length || previousDemands[s][d] != demands[s][d];
+        }
+        return changed;
+    }
+
+    // null when every demand changed, so the LP step gets no MIP start
+    private static boolean[][] getUnchangedDemands(boolean[][] changedDemands) {
+        boolean[][] unchanged = new boolean[changedDemands.length][];
+        boolean isAnyUnchanged = false;
+        for (int s = 0; s < changedDemands.length; s++) {
+            unchanged[s] = new boolean[changedDemands[s].length];
+            for (int d = 0; d < changedDemands[s].length; d++) {
+                unchanged[s][d] = !changedDemands[s][d];
+                isAnyUnchanged |= unchanged[s][d];
+            }
+        }
+        return isAnyUnchanged ? unchanged : null;
+    }
+
+    private static boolean haveSameDimensions(Parameters pm, VariablesAlg previousVars) {
+        return previousVars.zSPD.length == pm.getServices().size()
+                && previousVars.zSPD[0].length == pm.getPathsTrafficFlow()
+                && previousVars.zSPD[0][0].length == pm.getDemandsTrafficFlow()
+                && previousVars.fXSV.length == pm.getServers().size()
+                && previousVars.fXSV[0][0].length == pm.getServiceLength();
+    }
+
+    private static int countChanged(boolean[][] changedDemands) {
+        int changed = 0;
+        for (boolean[] changedService : changedDemands)
+            for (boolean isChanged : changedService)
+                if (isChanged)
+                    changed++;
+        return changed;
+    }
+
+    private static Map<String, Object> generateStep(int t, String snapshot, int[][] demands, boolean[][] changedDemands,
+            List<int[]> blockedDemands, Results results) {
+        int activeDemands = 0;
+        for (int[] serviceDemands : demands)
+            for (int demand : serviceDemands)
+                if (demand != -1)
+                    activeDemands++;
+        Map<String, Object> step = new LinkedHashMap<>();
+        step.put("step", t);
+        step.put("snapshot", snapshot);
+        step.put("active_demands", activeDemands);
+        step.put("changed_demands", countChanged(changedDemands));
+        if (blockedDemands != null)
+            step.put("blocked_demands", blockedDemands);
+        if (results != null) {
+            step.put("objective_value", results.getObjVal());
+            step.put("computation_time", results.getComputationTime());
+            step.put("migrations", results.getMigrations());
+            step.put("replications", results.getReplications());
+            step.put("lu_summary", results.getLuSummary());
+            step.put("xu_summary", results.getXuSummary());
+        } else
+            step.put("objective_value", null);
+        return step;
+    }
+}
@@ -0,0 +1,87 @@
+package optimizer.simulation;
+
+import java.util.Arrays;
+
+// Binary min-heap of departure events on primitive arrays, ordered by time
+class EventQueue {
+
+   private double[] times;
+   private int[] services;
+   private int[] demands;
+   private int size;
+
+   EventQueue(int initialCapacity) {
+      times = new double[Math.max(initialCapacity, 16)];
+      services = new int[times.length];
+      demands = new int[times.length];
+   }
+
+   void add(double time, int s, int d) {
+      if (size == times.length) {
+         times = Arrays.copyOf(times, size * 2);
+         services = Arrays.copyOf(services, size * 2);
+         demands = Arrays.copyOf(demands, size * 2);
+      }
+      int i = size++;
+      while (i > 0) {
+         int parent = (i - 1) >>> 1;
+         if (times[parent] <= time)
+            break;
+         set(i, parent);
+         i = parent;
+      }
+      times[i] = time;
+      services[i] = s;
+      demands[i] = d;
+   }
+
+   // removes the earliest event, read it before with peekTime, peekService and peekDemand
+   void poll() {
+      size--;
+      if (size == 0)
+         return;
+      double time = times[size];
+      int s = services[size];
+      int d = demands[size];
+      int i = 0;
+      int half = size >>> 1;
+      while (i < half) {
+         int child = 2 * i + 1;
+         if (child + 1 < size && times[child + 1] < times[child])
+            child++;
+         if (time <= times[child])
+            break;
+         set(i, child);
+         i = child;
+      }
+      times[i] = time;
+      services[i] = s;
+      demands[i] = d;
+   }
+
+   private void set(int to, int from) {
+      times[to] = times[from];
+      services[to] = services[from];
+      demands[to] = demands[from];
+   }
+
+   double peekTime() {
+      return times[0];
+   }
+
+   int peekService() {
+      return services[0];
+   }
+
+   int peekDemand() {
+      return demands[0];
+   }
+
+   boolean isEmpty() {
+      return size == 0;
+   }
+
+   int size() {
+      return size;
+   }
+}
@@ -0,0 +1,60 @@
+package optimizer.simulation;
+
+// Log-linear histogram of latencies in nanoseconds, 16 sub-buckets per power of two (~6% precision)
+class LatencyHistogram {
+
+   private static final int SUB_BUCKET_BITS = 5;
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+   private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+   private final long[] counts = new long[(64 - SUB_BUCKET_BITS + 2) * HALF_SUB_BUCKETS];
+   private long totalCount;
+   private long max;
+
+   void record(long latency) {
+      if (latency < 0)
+         latency = 0;
+      counts[index(latency)]++;
+      totalCount++;
+      if (latency > max)
+         max = latency;
+   }
+
+   // value at the given quantile in [0, 1], upper bound of the bucket
+   long quantile(double q) {
+      if (totalCount == 0)
+         return 0;
+      long rank = (long) Math.ceil(q * totalCount);
+      if (rank < 1)
+         rank = 1;
+      long accumulated = 0;
+      for (int i = 0; i < counts.length; i++) {
+         accumulated += counts[i];
+         if (accumulated >= rank)
+            return Math.min(upperBound(i), max);
+      }
+      return max;
+   }
+
+   long getMax() {
+      return max;
+   }
+
+   long getTotalCount() {
+      return totalCount;
+   }
+
+   private static int index(long value) {
+      if (value < SUB_BUCKETS)
+         return (int) value;
+      int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+      return exponent * HALF_SUB_BUCKETS + (int) (value >>> exponent);
+   }
+
+   private static long upperBound(int index) {
+      if (index < SUB_BUCKETS)
+         return index;
+      int exponent = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+      long mantissa = index - (long) exponent * HALF_SUB_BUCKETS;
+      return ((mantissa + 1) << exponent) - 1;
+   }
+}
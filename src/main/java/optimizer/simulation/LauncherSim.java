@@ -0,0 +1,65 @@
+package optimizer.simulation;
+
+import optimizer.Parameters;
+import optimizer.algorithms.LauncherAlg;
+import optimizer.algorithms.VariablesAlg;
+import optimizer.gui.ResultsGUI;
+import optimizer.gui.Scenario;
+import optimizer.results.Auxiliary;
+import optimizer.results.Metrics;
+import optimizer.results.Profiler;
+import optimizer.results.Results;
+import optimizer.results.ResultsManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+import static optimizer.Definitions.*;
+import static optimizer.results.Auxiliary.printLog;
+
+public class LauncherSim {
+
+   private static final Logger log = LoggerFactory.getLogger(LauncherSim.class);
+
+   public static SimulationResults run(Parameters pm, Scenario sce, ResultsManager resultsManager,
+         String outputFileName) {
+      long numEvents = ((Number) pm.getGlobal(SIM_EVENTS, 1000000)).longValue();
+      double arrivalRate = ((Number) pm.getGlobal(SIM_ARRIVAL_RATE, 1.0)).doubleValue();
+      double holdingTime = ((Number) pm.getGlobal(SIM_HOLDING_TIME, 1.0)).doubleValue();
+      if (numEvents <= 0 || arrivalRate <= 0 || holdingTime <= 0) {
+         printLog(log, ERROR, "simulation parameters must be positive");
+         return null;
+      }
+      Profiler.start(PHASE_MODEL_BUILD);
+      VariablesAlg vars = new VariablesAlg(pm, null, sce.getObjFunc());
+      Simulator simulator = new Simulator(pm, vars, new Random(pm.getSeed()), arrivalRate, holdingTime);
+      Profiler.stop(PHASE_MODEL_BUILD);
+      printLog(log, INFO, "starting simulation [" + numEvents + " events, arrival rate " + arrivalRate
+            + ", holding time " + holdingTime + "]");
+      double startTime = System.currentTimeMillis();
+      Profiler.start(PHASE_SOLVE);
+      SimulationResults simulationResults = simulator.run(numEvents);
+      Profiler.stop(PHASE_SOLVE);
+      double elapsedTime = System.currentTimeMillis() - startTime;
+      Metrics.observeSolveTime(sce.getName(), elapsedTime / 1000);
+      simulationResults.setComputationTime(elapsedTime / 1000);
+      printLog(log, INFO, "finished [blocking " + Auxiliary.roundDouble(simulationResults.getBlockingRatio(), 4)
+            + "][p99 " + simulationResults.getDecisionLatency().get("p99") + " us]["
+            + (long) simulationResults.getEventsPerSecond() + " events/s]");
+      resultsManager.exportJsonObject(outputFileName, simulationResults);
+
+      // network state at the end of the simulation
+      printLog(log, INFO, "generating results...");
+      Profiler.start(PHASE_RESULT_EXTRACTION);
+      vars.generateRestOfVariablesForResults();
+      Results results = LauncherAlg.generateResults(pm, sce, vars, vars.fXSVinitial);
+      Profiler.stop(PHASE_RESULT_EXTRACTION);
+      results.setComputationTime(elapsedTime / 1000);
+      resultsManager.exportJsonObject(outputFileName + "_final_state", results);
+      ResultsGUI.updateResults(results);
+      simulator.restoreDemands();
+      printLog(log, INFO, "done");
+      return simulationResults;
+   }
+}
@@ -0,0 +1,119 @@
+package optimizer.simulation;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SimulationResults {
+
+   @JsonProperty("events")
+   private long events;
+   @JsonProperty("arrivals")
+   private long arrivals;
+   @JsonProperty("departures")
+   private long departures;
+   @JsonProperty("admitted")
+   private long admitted;
+   @JsonProperty("blocked")
+   private long blocked;
+   @JsonProperty("blocked_no_free_demand")
+   private long blockedNoFreeDemand;
+   @JsonProperty("blocking_ratio")
+   private double blockingRatio;
+   @JsonProperty("simulated_time")
+   private double simulatedTime;
+   @JsonProperty("avg_link_utilization")
+   private double avgLinkUtilization;
+   @JsonProperty("avg_server_utilization")
+   private double avgServerUtilization;
+   @JsonProperty("peak_link_utilization")
+   private double peakLinkUtilization;
+   @JsonProperty("peak_server_utilization")
+   private double peakServerUtilization;
+   @JsonProperty("avg_active_demands")
+   private double avgActiveDemands;
+   // decision latency of admissions in microseconds
+   @JsonProperty("decision_latency")
+   private Map<String, Double> decisionLatency;
+   @JsonProperty("events_per_second")
+   private double eventsPerSecond;
+   @JsonProperty("computation_time")
+   private double computationTime;
+
+   public SimulationResults() {
+      decisionLatency = new LinkedHashMap<>();
+   }
+
+   void setCounters(long events, long arrivals, long departures, long admitted, long blocked,
+         long blockedNoFreeDemand) {
+      this.events = events;
+      this.arrivals = arrivals;
+      this.departures = departures;
+      this.admitted = admitted;
+      this.blocked = blocked;
+      this.blockedNoFreeDemand = blockedNoFreeDemand;
+      if (arrivals > 0)
+         blockingRatio = (double) blocked / arrivals;
+   }
+
+   void setUtilization(double simulatedTime, double avgLinkUtilization, double avgServerUtilization,
+         double peakLinkUtilization, double peakServerUtilization, double avgActiveDemands) {
+      this.simulatedTime = simulatedTime;
+      this.avgLinkUtilization = avgLinkUtilization;
+      this.avgServerUtilization = avgServerUtilization;
+      this.peakLinkUtilization = peakLinkUtilization;
+      this.peakServerUtilization = peakServerUtilization;
+      this.avgActiveDemands = avgActiveDemands;
+   }
+
+   void setDecisionLatency(LatencyHistogram histogram) {
+      decisionLatency.put("p50", histogram.quantile(0.5) / 1e3);
+      decisionLatency.put("p90", histogram.quantile(0.9) / 1e3);
+      decisionLatency.put("p99", histogram.quantile(0.99) / 1e3);
+      decisionLatency.put("p999", histogram.quantile(0.999) / 1e3);
+      decisionLatency.put("max", histogram.getMax() / 1e3);
+   }
+
+   void setComputationTime(double computationTime) {
+      this.computationTime = computationTime;
+      if (computationTime > 0)
+         eventsPerSecond = events / computationTime;
+   }
+
+   public long getEvents() {
+      return events;
+   }
+
+   public long getArrivals() {
+      return arrivals;
+   }
+
+   public long getBlocked() {
+      return blocked;
+   }
+
+   public double getBlockingRatio() {
+      return blockingRatio;
+   }
+
+   public double getAvgLinkUtilization() {
+      return avgLinkUtilization;
+   }
+
+   public double getAvgServerUtilization() {
+      return avgServerUtilization;
+   }
+
+   public Map<String, Double> getDecisionLatency() {
+      return decisionLatency;
+   }
+
+   public double getEventsPerSecond() {
+      return eventsPerSecond;
+   }
+
+   public double getComputationTime() {
+      return computationTime;
+   }
+}
@@ -0,0 +1,251 @@
+package optimizer.simulation;
+
+import optimizer.Manager;
+import optimizer.Parameters;
+import optimizer.algorithms.NetworkManager;
+import optimizer.algorithms.VariablesAlg;
+import optimizer.elements.TrafficFlow;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static optimizer.Definitions.*;
+import static optimizer.results.Auxiliary.printLog;
+
+// Discrete-event simulation of demands arriving as a Poisson process per service and leaving after an exponential
+// holding time. Every arrival takes a free demand slot of its service and is admitted online by the network manager.
+public class Simulator {
+
+   private static final Logger log = LoggerFactory.getLogger(Simulator.class);
+   private static final int INTERRUPT_CHECK_MASK = (1 << 16) - 1;
+
+   private final Parameters pm;
+   private final VariablesAlg vars;
+   private final NetworkManager networkManager;
+   private final Random rnd;
+   private final double arrivalRate;
+   private final double holdingTime;
+   private final EventQueue departures;
+   private final LatencyHistogram latencies;
+   // free demand slots per service, used as a stack
+   private final int[][] freeDemands;
+   private final int[] numFreeDemands;
+   private final int[][] originalDemands;
+   // utilization per link and server index, refreshed only for the ones used by the demand of every event
+   private final String[] linkIds;
+   private final String[] serverIds;
+   private final int[][][] pathLinks;
+   private final double[] linkUtilizations;
+   private final double[] serverUtilizations;
+   private final int[] usedServers;
+   private double linkUtilizationSum;
+   private double serverUtilizationSum;
+
+   public Simulator(Parameters pm, VariablesAlg vars, Random rnd, double arrivalRate, double holdingTime) {
+      this.pm = pm;
+      this.vars = vars;
+      this.networkManager = new NetworkManager(pm, vars);
+      this.rnd = rnd;
+      this.arrivalRate = arrivalRate;
+      this.holdingTime = holdingTime;
+      this.latencies = new LatencyHistogram();
+      int numServices = pm.getServices().size();
+      freeDemands = new int[numServices][];
+      numFreeDemands = new int[numServices];
+      originalDemands = new int[numServices][];
+      int totalDemands = 0;
+      for (int s = 0; s < numServices; s++) {
+         TrafficFlow trafficFlow = pm.getServices().get(s).getTrafficFlow();
+         int numDemands = trafficFlow.getDemands().size();
+         freeDemands[s] = new int[numDemands];
+         originalDemands[s] = new int[numDemands];
+         for (int d = 0; d < numDemands; d++) {
+            originalDemands[s][d] = trafficFlow.getDemands().get(d);
+            if (!networkManager.isDemandAdmitted(s, d))
+               freeDemands[s][numFreeDemands[s]++] = d;
+         }
+         totalDemands += numDemands;
+      }
+      departures = new EventQueue(totalDemands);
+      List<Edge> links = pm.getLinks();
+      linkIds = new String[links.size()];
+      Map<String, Integer> linkIndexes = new HashMap<>();
+      for (int l = 0; l < links.size(); l++) {
+         linkIds[l] = links.get(l).getId();
+         linkIndexes.put(linkIds[l], l);
+      }
+      serverIds = new String[pm.getServers().size()];
+      for (int x = 0; x < serverIds.length; x++)
+         serverIds[x] = pm.getServers().get(x).getId();
+      pathLinks = new int[numServices][][];
+      for (int s = 0; s < numServices; s++) {
+         List<Path> paths = pm.getServices().get(s).getTrafficFlow().getPaths();
+         pathLinks[s] = new int[paths.size()][];
+         for (int p = 0; p < paths.size(); p++) {
+            List<Edge> pathEdges = paths.get(p).getEdgePath();
+            pathLinks[s][p] = new int[pathEdges.size()];
+            for (int i = 0; i < pathEdges.size(); i++)
+               pathLinks[s][p][i] = linkIndexes.get(pathEdges.get(i).getId());
+         }
+      }
+      linkUtilizations = new double[linkIds.length];
+      serverUtilizations = new double[serverIds.length];
+      usedServers = new int[pm.getServiceLength()];
+      refreshUtilization();
+   }
+
+   public SimulationResults run(long numEvents) {
+      int numServices = pm.getServices().size();
+      double totalArrivalRate = arrivalRate * numServices;
+      long arrivals = 0, numDepartures = 0, admitted = 0, blocked = 0, blockedNoFreeDemand = 0;
+      double time = 0, nextArrival = exponential(totalArrivalRate);
+      double linkUtilization = meanLinkUtilization(), serverUtilization = meanServerUtilization();
+      double linkUtilizationArea = 0, serverUtilizationArea = 0, activeDemandsArea = 0;
+      double peakLinkUtilization = linkUtilization, peakServerUtilization = serverUtilization;
+      long progressStep = Math.max(numEvents / 10, 1);
+      long events = 0;
+      for (; events < numEvents; events++) {
+         if ((events & INTERRUPT_CHECK_MASK) == 0) {
+            if (Manager.isInterrupted())
+               break;
+            // sums of the refreshed values drift with rounding
+            refreshUtilization();
+         }
+         boolean isDeparture = !departures.isEmpty() && departures.peekTime() <= nextArrival;
+         double eventTime = isDeparture ? departures.peekTime() : nextArrival;
+         double dt = eventTime - time;
+         linkUtilizationArea += linkUtilization * dt;
+         serverUtilizationArea += serverUtilization * dt;
+         activeDemandsArea += departures.size() * dt;
+         time = eventTime;
+         if (isDeparture) {
+            int s = departures.peekService();
+            int d = departures.peekDemand();
+            departures.poll();
+            int p = usedPath(s, d);
+            findUsedServers(s, d);
+            networkManager.releaseDemand(s, d);
+            updateUtilization(s, p);
+            freeDemands[s][numFreeDemands[s]++] = d;
+            numDepartures++;
+         } else {
+            nextArrival = time + exponential(totalArrivalRate);
+            arrivals++;
+            int s = rnd.nextInt(numServices);
+            if (numFreeDemands[s] == 0) {
+               blocked++;
+               blockedNoFreeDemand++;
+               continue;
+            }
+            int d = freeDemands[s][numFreeDemands[s] - 1];
+            int trafficDemand = drawTrafficDemand(s);
+            long startTime = System.nanoTime();
+            boolean isAdmitted = networkManager.admitDemand(s, d, trafficDemand);
+            latencies.record(System.nanoTime() - startTime);
+            if (!isAdmitted) {
+               blocked++;
+               continue;
+            }
+            numFreeDemands[s]--;
+            findUsedServers(s, d);
+            updateUtilization(s, usedPath(s, d));
+            departures.add(time + exponential(1.0 / holdingTime), s, d);
+            admitted++;
+         }
+         linkUtilization = meanLinkUtilization();
+         serverUtilization = meanServerUtilization();
+         if (linkUtilization > peakLinkUtilization)
+            peakLinkUtilization = linkUtilization;
+         if (serverUtilization > peakServerUtilization)
+            peakServerUtilization = serverUtilization;
+         if ((events + 1) % progressStep == 0)
+            printLog(log, INFO, "simulated " + (events + 1) + "/" + numEvents + " events [blocking "
+                  + (arrivals > 0 ? (double) blocked / arrivals : 0) + "]");
+      }
+      SimulationResults results = new SimulationResults();
+      results.setCounters(events, arrivals, numDepartures, admitted, blocked, blockedNoFreeDemand);
+      if (time > 0)
+         results.setUtilization(time, linkUtilizationArea / time, serverUtilizationArea / time, peakLinkUtilization,
+               peakServerUtilization, activeDemandsArea / time);
+      results.setDecisionLatency(latencies);
+      return results;
+   }
+
+   // puts back the demand values of the input file, overwritten by the arrivals
+   public void restoreDemands() {
+      for (int s = 0; s < originalDemands.length; s++)
+         for (int d = 0; d < originalDemands[s].length; d++)
+            pm.getServices().get(s).getTrafficFlow().getDemands().set(d, originalDemands[s][d]);
+   }
+
+   // bandwidth of a new demand from the min/max range of the traffic flow, or any demand value of the input file
+   private int drawTrafficDemand(int s) {
+      TrafficFlow trafficFlow = pm.getServices().get(s).getTrafficFlow();
+      if (trafficFlow.getMaxBw() > 0)
+         return rnd.nextInt(trafficFlow.getMaxBw() + 1 - trafficFlow.getMinBw()) + trafficFlow.getMinBw();
+      if (trafficFlow.getDemandsSpecific() != null && trafficFlow.getDemandsSpecific().length > 0)
+         return trafficFlow.getDemandsSpecific()[rnd.nextInt(trafficFlow.getDemandsSpecific().length)];
+      return originalDemands[s][rnd.nextInt(originalDemands[s].length)];
+   }
+
+   private double exponential(double rate) {
+      return -Math.log(1.0 - rnd.nextDouble()) / rate;
+   }
+
+   private int usedPath(int s, int d) {
+      for (int p = 0; p < pathLinks[s].length; p++)
+         if (vars.zSPD[s][p][d])
+            return p;
+      return -1;
+   }
+
+   private void findUsedServers(int s, int d) {
+      for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++)
+         usedServers[v] = networkManager.getUsedServerForFunction(s, d, v);
+   }
+
+   // reads back the utilization of the links of path p and of the servers found for the demand before
+   private void updateUtilization(int s, int p) {
+      if (p != -1)
+         for (int l : pathLinks[s][p]) {
+            linkUtilizationSum -= linkUtilizations[l];
+            linkUtilizations[l] = vars.uL.get(linkIds[l]);
+            linkUtilizationSum += linkUtilizations[l];
+         }
+      for (int v = 0; v < pm.getServices().get(s).getFunctions().size(); v++) {
+         int x = usedServers[v];
+         if (x == -1)
+            continue;
+         serverUtilizationSum -= serverUtilizations[x];
+         serverUtilizations[x] = vars.uX.get(serverIds[x]);
+         serverUtilizationSum += serverUtilizations[x];
+      }
+   }
+
+   private void refreshUtilization() {
+      linkUtilizationSum = 0;
+      for (int l = 0; l < linkIds.length; l++) {
+         linkUtilizations[l] = vars.uL.get(linkIds[l]);
+         linkUtilizationSum += linkUtilizations[l];
+      }
+      serverUtilizationSum = 0;
+      for (int x = 0; x < serverIds.length; x++) {
+         serverUtilizations[x] = vars.uX.get(serverIds[x]);
+         serverUtilizationSum += serverUtilizations[x];
+      }
+   }
+
+   private double meanLinkUtilization() {
+      return linkIds.length > 0 ? linkUtilizationSum / linkIds.length : 0;
+   }
+
+   private double meanServerUtilization() {
+      return serverIds.length > 0 ? serverUtilizationSum / serverIds.length : 0;
+   }
+}
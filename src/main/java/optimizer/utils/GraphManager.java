@@ -38,6 +38,9 @@ public class GraphManager {
                graph.addEdge("e" + dstNodeString + srcNodeString + "-2", dstNodeString, srcNodeString, true);
             }
          }
+         for (Node node : graph.getNodeSet())
+            if (!node.hasAttribute(NODE_TYPE))
+               node.addAttribute(NODE_TYPE, node.hasAttribute(NODE_CLOUD) ? NODE_TYPE_CLOUD : NODE_TYPE_UNKNOWN);
          if (allNodesToCloud) {
             Set<Node> nodes = new HashSet<>();
             nodes.addAll(graph.getNodeSet());
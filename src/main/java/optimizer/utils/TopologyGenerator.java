@@ -0,0 +1,561 @@
+package optimizer.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static optimizer.Definitions.*;
+
+// Generates synthetic topologies (.dgs), their k-shortest paths (.txt) and a parameters file (.yml) with traffic
+// flows of a target size, to test how the algorithms scale beyond the bundled scenarios
+public class TopologyGenerator {
+
+   private static final Logger log = LoggerFactory.getLogger(TopologyGenerator.class);
+   private static final String NEW_LINE = System.getProperty("line.separator");
+   // nodes are placed in an area of 1x1 degrees
+   private static final double MIN_LONGITUDE = 10.0;
+   private static final double MIN_LATITUDE = 52.0;
+   private static final int MIN_CAPACITY = 1000;
+   private static final int CLOUD_CAPACITY = 1000000;
+
+   private final String path;
+   private final String fileName;
+   private final Random rnd;
+   private final List<double[]> coordinates;
+   private final List<int[]> links;
+   private final Set<Long> linkSet;
+   private final List<Integer> endpoints; // nodes that can be source or destination of traffic flows
+   private int cloudNode;
+   private int[][] trafficFlows;
+   private int[][] demands;
+   private List<List<int[]>> paths;
+
+   public TopologyGenerator(String path, String fileName, long seed) {
+      this.path = path;
+      this.fileName = fileName;
+      this.rnd = new Random(seed);
+      coordinates = new ArrayList<>();
+      links = new ArrayList<>();
+      linkSet = new HashSet<>();
+      endpoints = new ArrayList<>();
+      cloudNode = -1;
+   }
+
+   public static void run(String path, String fileName, String topologyType, int numNodes, int numTrafficFlows,
+         int numPaths, long seed) {
+      TopologyGenerator generator = new TopologyGenerator(path, fileName, seed);
+      switch (topologyType) {
+         case GRID:
+            generator.generateGrid(numNodes);
+            break;
+         case WAXMAN:
+            generator.generateWaxman(numNodes, 0.4, 4.0);
+            break;
+         case BARABASI_ALBERT:
+            generator.generateBarabasiAlbert(numNodes, 2);
+            break;
+         case FAT_TREE:
+            generator.generateFatTree(getFatTreeK(numNodes));
+            break;
+         default:
+            log.error("unknown topology type: " + topologyType);
+            return;
+      }
+      generator.generateTrafficFlows(numTrafficFlows, 1, 3, 1, 20);
+      generator.generatePaths(numPaths);
+      generator.writeTopology();
+      generator.writePaths();
+      generator.writeParameters(numPaths);
+   }
+
+   // smallest even k whose fat-tree has at least numNodes switches
+   public static int getFatTreeK(int numNodes) {
+      int k = 2;
+      while (5 * k * k / 4 < numNodes)
+         k += 2;
+      return k;
+   }
+
+   public void generateGrid(int numNodes) {
+      int side = (int) Math.ceil(Math.sqrt(numNodes));
+      for (int n = 0; n < numNodes; n++) {
+         addNode((double) (n % side) / Math.max(side - 1, 1), (double) (n / side) / Math.max(side - 1, 1));
+         endpoints.add(n);
+      }
+      for (int n = 0; n < numNodes; n++) {
+         if (n % side < side - 1 && n + 1 < numNodes)
+            addLink(n, n + 1);
+         if (n + side < numNodes)
+            addLink(n, n + side);
+      }
+   }
+
+   // Waxman model, beta is derived from the target average node degree so that the degree does not grow with size
+   public void generateWaxman(int numNodes, double alpha, double avgDegree) {
+      for (int n = 0; n < numNodes; n++) {
+         addNode(rnd.nextDouble(), rnd.nextDouble());
+         endpoints.add(n);
+      }
+      double maxDistance = Math.sqrt(2);
+      double beta = Math.sqrt(avgDegree / (2 * Math.PI * numNodes * alpha)) / maxDistance;
+      for (int n = 0; n < numNodes; n++)
+         for (int m = n + 1; m < numNodes; m++)
+            if (rnd.nextDouble() < alpha * Math.exp(-distance(n, m) / (beta * maxDistance)))
+               addLink(n, m);
+      connectComponents();
+   }
+
+   // Barabasi-Albert preferential attachment, every new node connects to m existing nodes
+   public void generateBarabasiAlbert(int numNodes, int m) {
+      List<Integer> attachments = new ArrayList<>(); // every node appears once per link end
+      for (int n = 0; n < numNodes; n++) {
+         addNode(rnd.nextDouble(), rnd.nextDouble());
+         endpoints.add(n);
+         if (n <= m) {
+            for (int k = 0; k < n; k++) {
+               addLink(k, n);
+               attachments.add(k);
+               attachments.add(n);
+            }
+            continue;
+         }
+         Set<Integer> targets = new HashSet<>();
+         while (targets.size() < m)
+            targets.add(attachments.get(rnd.nextInt(attachments.size())));
+         for (int target : targets) {
+            addLink(target, n);
+            attachments.add(target);
+            attachments.add(n);
+         }
+      }
+   }
+
+   // k-ary fat-tree of switches, edge switches are the endpoints and a cloud node is attached to all core switches
+   public void generateFatTree(int k) {
+      int half = k / 2;
+      int numCore = half * half;
+      for (int c = 0; c < numCore; c++)
+         addNode((c + 0.5) / numCore, 0.0);
+      int[][] aggregation = new int[k][half];
+      int[][] edge = new int[k][half];
+      for (int p = 0; p < k; p++)
+         for (int i = 0; i < half; i++) {
+            aggregation[p][i] = addNode((p * half + i + 0.5) / (k * half), 0.5);
+            edge[p][i] = addNode((p * half + i + 0.5) / (k * half), 1.0);
+            endpoints.add(edge[p][i]);
+         }
+      for (int p = 0; p < k; p++)
+         for (int i = 0; i < half; i++) {
+            for (int j = 0; j < half; j++)
+               addLink(edge[p][i], aggregation[p][j]);
+            for (int j = 0; j < half; j++)
+               addLink(aggregation[p][i], i * half + j);
+         }
+      cloudNode = addNode(0.5, -0.5);
+      for (int c = 0; c < numCore; c++)
+         addLink(cloudNode, c);
+   }
+
+   public void generateTrafficFlows(int numTrafficFlows, int minDem, int maxDem, int minBw, int maxBw) {
+      long numPairs = (long) endpoints.size() * (endpoints.size() - 1);
+      List<int[]> flows = new ArrayList<>();
+      if (numTrafficFlows <= 0 || numTrafficFlows >= numPairs) {
+         for (int src : endpoints)
+            for (int dst : endpoints)
+               if (src != dst)
+                  flows.add(new int[] { src, dst });
+      } else {
+         Set<Long> selected = new HashSet<>();
+         while (flows.size() < numTrafficFlows) {
+            int src = endpoints.get(rnd.nextInt(endpoints.size()));
+            int dst = endpoints.get(rnd.nextInt(endpoints.size()));
+            if (src != dst && selected.add(linkKey(src, dst)))
+               flows.add(new int[] { src, dst });
+         }
+         flows.sort(Comparator.<int[]>comparingInt(f -> f[0]).thenComparingInt(f -> f[1]));
+      }
+      trafficFlows = flows.toArray(new int[0][]);
+      demands = new int[trafficFlows.length][];
+      for (int f = 0; f < trafficFlows.length; f++) {
+         demands[f] = new int[rnd.nextInt(maxDem + 1 - minDem) + minDem];
+         for (int d = 0; d < demands[f].length; d++)
+            demands[f][d] = rnd.nextInt(maxBw + 1 - minBw) + minBw;
+      }
+   }
+
+   // k shortest paths in number of hops (Yen) for every traffic flow, computed in parallel
+   public void generatePaths(int numPaths) {
+      int numNodes = coordinates.size();
+      int[] offsets = new int[numNodes + 1];
+      for (int[] link : links) {
+         offsets[link[0] + 1]++;
+         offsets[link[1] + 1]++;
+      }
+      for (int n = 0; n < numNodes; n++)
+         offsets[n + 1] += offsets[n];
+      int[] neighbors = new int[offsets[numNodes]];
+      int[] position = Arrays.copyOf(offsets, numNodes);
+      for (int[] link : links) {
+         neighbors[position[link[0]]++] = link[1];
+         neighbors[position[link[1]]++] = link[0];
+      }
+      List<List<int[]>> generatedPaths = new ArrayList<>(Collections.nCopies(trafficFlows.length, null));
+      ThreadLocal<PathSearch> searches = ThreadLocal.withInitial(() -> new PathSearch(offsets, neighbors));
+      IntStream.range(0, trafficFlows.length).parallel().forEach(f -> generatedPaths.set(f,
+            searches.get().kShortestPaths(trafficFlows[f][0], trafficFlows[f][1], numPaths)));
+      paths = generatedPaths;
+      for (int f = 0; f < trafficFlows.length; f++)
+         if (paths.get(f).size() < numPaths)
+            log.warn("only " + paths.get(f).size() + " paths found from " + nodeId(trafficFlows[f][0]) + " to "
+                  + nodeId(trafficFlows[f][1]));
+   }
+
+   public void writeTopology() {
+      StringBuilder sb = new StringBuilder();
+      sb.append("DGS004").append(NEW_LINE).append(fileName).append(" 0 0").append(NEW_LINE).append(NEW_LINE);
+      for (int n = 0; n < coordinates.size(); n++) {
+         sb.append("an ").append(nodeId(n)).append(" x:").append(coordinates.get(n)[0]).append(" y:")
+               .append(coordinates.get(n)[1]);
+         if (n == cloudNode)
+            sb.append(" ").append(NODE_TYPE).append(":").append(NODE_TYPE_CLOUD).append(" ").append(SERVER_CAPACITY)
+                  .append(":").append(CLOUD_CAPACITY);
+         sb.append(NEW_LINE);
+      }
+      sb.append(NEW_LINE);
+      for (int[] link : links) {
+         boolean isCloudLink = link[0] == cloudNode || link[1] == cloudNode;
+         for (int direction = 0; direction < 2; direction++) {
+            String src = nodeId(link[direction]), dst = nodeId(link[1 - direction]);
+            sb.append("ae ").append(src).append("-").append(dst).append(" ").append(src).append(" > ").append(dst);
+            if (isCloudLink)
+               sb.append(" ").append(LINK_CAPACITY).append(":").append(CLOUD_CAPACITY);
+            sb.append(NEW_LINE);
+         }
+      }
+      new WritePlainTextFile(path, fileName, ".dgs").write(sb.toString());
+   }
+
+   public void writePaths() {
+      StringBuilder sb = new StringBuilder();
+      for (List<int[]> flowPaths : paths)
+         for (int[] nodePath : flowPaths) {
+            sb.append("[");
+            for (int i = 0; i < nodePath.length; i++) {
+               if (i > 0)
+                  sb.append(", ");
+               sb.append(nodeId(nodePath[i]));
+            }
+            sb.append("]").append(NEW_LINE);
+         }
+      new WritePlainTextFile(path, fileName, ".txt").write(sb.toString());
+   }
+
+   // capacities are twice the traffic that crosses the busiest link and node, cloud excluded, when every demand takes
+   // its shortest path; other paths and the load ratios of the functions are not taken into account
+   public void writeParameters(int numPaths) {
+      int[] nodeLoad = new int[coordinates.size()];
+      Map<Long, Integer> linkLoad = new HashMap<>();
+      for (int f = 0; f < trafficFlows.length; f++) {
+         if (paths.get(f).isEmpty())
+            continue;
+         int traffic = 0;
+         for (int demand : demands[f])
+            traffic += demand;
+         int[] nodePath = paths.get(f).get(0);
+         for (int i = 0; i < nodePath.length; i++) {
+            nodeLoad[nodePath[i]] += traffic;
+            if (i < nodePath.length - 1)
+               linkLoad.merge(linkKey(nodePath[i], nodePath[i + 1]), traffic, Integer::sum);
+         }
+      }
+      int maxNodeLoad = 0, maxLinkLoad = 0;
+      for (int n = 0; n < nodeLoad.length; n++)
+         if (n != cloudNode)
+            maxNodeLoad = Math.max(maxNodeLoad, nodeLoad[n]);
+      for (Map.Entry<Long, Integer> load : linkLoad.entrySet())
+         if (cloudNode == -1 || (load.getKey() / coordinates.size() != cloudNode
+               && load.getKey() % coordinates.size() != cloudNode))
+            maxLinkLoad = Math.max(maxLinkLoad, load.getValue());
+      int serverCapacity = roundCapacity(2 * maxNodeLoad);
+      int linkCapacity = roundCapacity(2 * maxLinkLoad);
+
+      StringBuilder sb = new StringBuilder();
+      sb.append("# generated ").append(coordinates.size()).append(" nodes, ").append(links.size())
+            .append(" links, ").append(trafficFlows.length).append(" traffic flows").append(NEW_LINE);
+      sb.append("global: {").append(NEW_LINE);
+      appendGlobal(sb, "gap", "0.0");
+      appendGlobal(sb, X_SCALING, "600.0");
+      appendGlobal(sb, Y_SCALING, "600.0");
+      appendGlobal(sb, SERVER_CAPACITY, String.valueOf(serverCapacity));
+      appendGlobal(sb, LINK_CAPACITY_DEFAULT, String.valueOf(linkCapacity));
+      appendGlobal(sb, DIRECTED_EDGES, "true");
+      appendGlobal(sb, NODE_NUM_SERVERS, "1");
+      appendGlobal(sb, LINKS_WEIGHT, "0.0");
+      appendGlobal(sb, SERVERS_WEIGHT, "1.0");
+      appendGlobal(sb, "link_capacity_types", "[0, " + linkCapacity / 10 + ", " + linkCapacity + "]");
+      appendGlobal(sb, OVERPROVISIONING_LINK_CAPACITY, "1.0");
+      appendGlobal(sb, "server_capacity_types", "[0, " + serverCapacity / 10 + ", " + serverCapacity + "]");
+      appendGlobal(sb, OVERPROVISIONING_SERVER_CAPACITY, "1.0");
+      appendGlobal(sb, "server_types_costs", "[5, 0]");
+      sb.append("}").append(NEW_LINE);
+      sb.append("service_chains:").append(NEW_LINE);
+      sb.append("  - id: 1").append(NEW_LINE);
+      sb.append("    chain: [1, 2, 3]").append(NEW_LINE);
+      sb.append("    max_propagation_delay: 5.0 # ms").append(NEW_LINE);
+      sb.append("    max_delay: 400 # ms").append(NEW_LINE);
+      sb.append("    attributes: {").append(NEW_LINE);
+      sb.append("      \"min_paths\": 1,").append(NEW_LINE);
+      sb.append("      \"max_paths\": ").append(numPaths).append(NEW_LINE);
+      sb.append("    }").append(NEW_LINE);
+      sb.append("function_types:").append(NEW_LINE);
+      for (int type = 1; type <= 3; type++) {
+         sb.append("  - type: ").append(type).append(NEW_LINE);
+         sb.append("    attributes: {").append(NEW_LINE);
+         sb.append("      \"replicable\": ").append(type == 2).append(",").append(NEW_LINE);
+         sb.append("      \"load_ratio\": [1.0, 1.0],").append(NEW_LINE);
+         sb.append("      \"overhead_ratio\": [0.0, 0.0],").append(NEW_LINE);
+         sb.append("      \"max_dem\": 10,").append(NEW_LINE);
+         sb.append("      \"max_bw\": 100,").append(NEW_LINE);
+         sb.append("      \"process_traffic_delay\": 3.0,").append(NEW_LINE);
+         sb.append("      \"process_delay\": 5.0,").append(NEW_LINE);
+         sb.append("      \"min_process_delay\": 2.0,").append(NEW_LINE);
+         sb.append("      \"max_delay\": 100.0").append(NEW_LINE);
+         sb.append("    }").append(NEW_LINE);
+      }
+      sb.append("traffic_flows:").append(NEW_LINE);
+      for (int f = 0; f < trafficFlows.length; f++) {
+         sb.append("  - src: '").append(nodeId(trafficFlows[f][0])).append("'").append(NEW_LINE);
+         sb.append("    dst: '").append(nodeId(trafficFlows[f][1])).append("'").append(NEW_LINE);
+         sb.append("    services: [1]").append(NEW_LINE);
+         sb.append("    demands_specific: ").append(Arrays.toString(demands[f])).append(NEW_LINE);
+      }
+      new WritePlainTextFile(path, fileName, ".yml").write(sb.toString());
+   }
+
+   public int getNumNodes() {
+      return coordinates.size();
+   }
+
+   public int getNumLinks() {
+      return links.size();
+   }
+
+   public int getNumTrafficFlows() {
+      return trafficFlows.length;
+   }
+
+   private int addNode(double x, double y) {
+      coordinates.add(new double[] { MIN_LONGITUDE + x, MIN_LATITUDE + y });
+      return coordinates.size() - 1;
+   }
+
+   private void addLink(int n, int m) {
+      if (n == m || !linkSet.add(linkKey(Math.min(n, m), Math.max(n, m))))
+         return;
+      links.add(new int[] { n, m });
+   }
+
+   // links isolated components to the nearest node of the component of the first node
+   private void connectComponents() {
+      int numNodes = coordinates.size();
+      int[] component = new int[numNodes];
+      Arrays.fill(component, -1);
+      List<List<Integer>> adjacency = new ArrayList<>();
+      for (int n = 0; n < numNodes; n++)
+         adjacency.add(new ArrayList<>());
+      for (int[] link : links) {
+         adjacency.get(link[0]).add(link[1]);
+         adjacency.get(link[1]).add(link[0]);
+      }
+      List<Integer> mainComponent = new ArrayList<>();
+      for (int n = 0; n < numNodes; n++) {
+         if (component[n] != -1)
+            continue;
+         List<Integer> members = new ArrayList<>();
+         Deque<Integer> queue = new ArrayDeque<>();
+         queue.add(n);
+         component[n] = n;
+         while (!queue.isEmpty()) {
+            int node = queue.poll();
+            members.add(node);
+            for (int neighbor : adjacency.get(node))
+               if (component[neighbor] == -1) {
+                  component[neighbor] = n;
+                  queue.add(neighbor);
+               }
+         }
+         if (n > 0) {
+            int nearest = mainComponent.get(0);
+            for (int m : mainComponent)
+               if (distance(n, m) < distance(n, nearest))
+                  nearest = m;
+            addLink(n, nearest);
+         }
+         mainComponent.addAll(members);
+      }
+   }
+
+   private double distance(int n, int m) {
+      double dx = coordinates.get(n)[0] - coordinates.get(m)[0];
+      double dy = coordinates.get(n)[1] - coordinates.get(m)[1];
+      return Math.sqrt(dx * dx + dy * dy);
+   }
+
+   private long linkKey(int n, int m) {
+      return (long) n * coordinates.size() + m;
+   }
+
+   private static String nodeId(int n) {
+      return String.valueOf(n + 1);
+   }
+
+   private static int roundCapacity(int load) {
+      return Math.max(MIN_CAPACITY, (int) Math.ceil(load / 100.0) * 100);
+   }
+
+   private static void appendGlobal(StringBuilder sb, String key, String value) {
+      sb.append("  \"").append(key).append("\": ").append(value).append(",").append(NEW_LINE);
+   }
+
+   // bidirectional breadth-first searches over a compressed adjacency list, reusing the buffers between searches
+   private static class PathSearch {
+
+      private final int[] offsets;
+      private final int[] neighbors;
+      private final int numNodes;
+      private final int[] bannedNodes;
+      // index 0 for the search from the source, 1 for the search from the destination
+      private final int[][] visited;
+      private final int[][] distances;
+      private final int[][] previous; // parent towards the source or child towards the destination
+      private final int[][] queues;
+      private final int[] heads;
+      private final int[] tails;
+      private int stamp;
+      private int meetingLength;
+      private int meetingSrcSide;
+      private int meetingDstSide;
+
+      PathSearch(int[] offsets, int[] neighbors) {
+         this.offsets = offsets;
+         this.neighbors = neighbors;
+         numNodes = offsets.length - 1;
+         bannedNodes = new int[numNodes];
+         visited = new int[2][numNodes];
+         distances = new int[2][numNodes];
+         previous = new int[2][numNodes];
+         queues = new int[2][numNodes];
+         heads = new int[2];
+         tails = new int[2];
+         stamp = 1; // buffers start at 0, which must not match any stamp
+      }
+
+      List<int[]> kShortestPaths(int src, int dst, int k) {
+         List<int[]> shortestPaths = new ArrayList<>();
+         int[] first = shortestPath(src, dst, Collections.emptySet());
+         if (first == null)
+            return shortestPaths;
+         shortestPaths.add(first);
+         PriorityQueue<int[]> candidates = new PriorityQueue<>(Comparator.comparingInt(p -> p.length));
+         Set<String> seen = new HashSet<>();
+         seen.add(Arrays.toString(first));
+         while (shortestPaths.size() < k) {
+            int[] last = shortestPaths.get(shortestPaths.size() - 1);
+            for (int j = 0; j < last.length - 1; j++) {
+               Set<Long> bannedLinks = new HashSet<>();
+               for (int[] shortestPath : shortestPaths)
+                  if (shortestPath.length > j + 1 && samePrefix(shortestPath, last, j))
+                     bannedLinks.add((long) shortestPath[j] * numNodes + shortestPath[j + 1]);
+               stamp++;
+               for (int i = 0; i < j; i++)
+                  bannedNodes[last[i]] = stamp;
+               int[] spurPath = shortestPath(last[j], dst, bannedLinks);
+               if (spurPath == null)
+                  continue;
+               int[] candidate = new int[j + spurPath.length];
+               System.arraycopy(last, 0, candidate, 0, j);
+               System.arraycopy(spurPath, 0, candidate, j, spurPath.length);
+               if (seen.add(Arrays.toString(candidate)))
+                  candidates.add(candidate);
+            }
+            if (candidates.isEmpty())
+               break;
+            shortestPaths.add(candidates.poll());
+         }
+         return shortestPaths;
+      }
+
+      // nodes marked with the current stamp in bannedNodes are skipped, the smaller frontier is expanded first
+      private int[] shortestPath(int src, int dst, Set<Long> bannedLinks) {
+         int bannedStamp = stamp;
+         stamp++;
+         int[] ends = { src, dst };
+         for (int side = 0; side < 2; side++) {
+            heads[side] = 0;
+            tails[side] = 1;
+            queues[side][0] = ends[side];
+            visited[side][ends[side]] = stamp;
+            distances[side][ends[side]] = 0;
+            previous[side][ends[side]] = -1;
+         }
+         meetingLength = Integer.MAX_VALUE;
+         while (heads[0] < tails[0] && heads[1] < tails[1]) {
+            int side = tails[0] - heads[0] <= tails[1] - heads[1] ? 0 : 1;
+            expandLevel(side, bannedLinks, bannedStamp);
+            if (meetingLength != Integer.MAX_VALUE)
+               break;
+         }
+         if (meetingLength == Integer.MAX_VALUE)
+            return null;
+         int[] nodePath = new int[meetingLength + 1];
+         int i = distances[0][meetingSrcSide];
+         for (int node = meetingSrcSide; node != -1; node = previous[0][node])
+            nodePath[i--] = node;
+         i = distances[0][meetingSrcSide] + 1;
+         for (int node = meetingDstSide; node != -1; node = previous[1][node])
+            nodePath[i++] = node;
+         return nodePath;
+      }
+
+      // expands all nodes of the current level of one side and keeps the shortest meeting with the other side
+      private void expandLevel(int side, Set<Long> bannedLinks, int bannedStamp) {
+         int other = 1 - side;
+         int levelEnd = tails[side];
+         for (; heads[side] < levelEnd; heads[side]++) {
+            int node = queues[side][heads[side]];
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+               int neighbor = neighbors[i];
+               if (bannedNodes[neighbor] == bannedStamp)
+                  continue;
+               long link = side == 0 ? (long) node * numNodes + neighbor : (long) neighbor * numNodes + node;
+               if (!bannedLinks.isEmpty() && bannedLinks.contains(link))
+                  continue;
+               if (visited[other][neighbor] == stamp) {
+                  int length = distances[side][node] + 1 + distances[other][neighbor];
+                  if (length < meetingLength) {
+                     meetingLength = length;
+                     meetingSrcSide = side == 0 ? node : neighbor;
+                     meetingDstSide = side == 0 ? neighbor : node;
+                  }
+                  continue;
+               }
+               if (visited[side][neighbor] == stamp)
+                  continue;
+               visited[side][neighbor] = stamp;
+               distances[side][neighbor] = distances[side][node] + 1;
+               previous[side][neighbor] = node;
+               queues[side][tails[side]++] = neighbor;
+            }
+         }
+      }
+
+      private static boolean samePrefix(int[] path1, int[] path2, int length) {
+         for (int i = 0; i <= length; i++)
+            if (path1[i] != path2[i])
+               return false;
+         return true;
+      }
+   }
+}
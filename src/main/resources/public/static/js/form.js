@@ -1,8 +1,28 @@
 var shortPeriod = 100;
 var longPeriod = 3000;
-var intervalMessages = setInterval(getMessage, longPeriod);
+var intervalMessages = null;
 var messages = [];
 var numMessages = 7;
+// server-sent events, polling of /message is only used without EventSource support
+var eventSource = null;
+connectEvents();
+
+function connectEvents() {
+    if (typeof EventSource === "undefined") {
+        intervalMessages = setInterval(getMessage, longPeriod);
+        return;
+    }
+    eventSource = new EventSource("events");
+    eventSource.onopen = function () {
+        if (document.getElementById("message").innerText == "WARN - backend is stopped") {
+            document.getElementById("message").innerText = messages.join("");
+            document.getElementById("run_button").removeAttribute("disabled");
+        }
+    };
+    eventSource.onerror = function () { errorConnection(); };
+    eventSource.addEventListener("log", function (e) { showMessage(e.data); });
+    eventSource.addEventListener("utilization", function (e) { applyUtilization(JSON.parse(e.data)); });
+}
 
 function getMessage() {
     try {
@@ -25,25 +45,19 @@ function errorConnection() {
         document.getElementById("message").innerText = "WARN - backend is stopped";
         document.getElementById("run_button").setAttribute("disabled", "true");
         document.getElementById("stop_button").setAttribute("disabled", "true");
-        clearInterval(intervalMessages);
-        longRefresh();
+        // EventSource reconnects by itself
+        if (eventSource == null) {
+            clearInterval(intervalMessages);
+            longRefresh();
+        }
     }
 }
 
 function successConnection(message) {
     if (message != "") {
-        messages.push(message + "\n");
-        document.getElementById("message").innerText = messages.join("");
-        if (messages.length >= numMessages)
-            messages.shift();
-        if (message == "INFO - done") { 
-            getResults();
-            document.getElementById("run_button").removeAttribute("disabled");
-            document.getElementById("stop_button").setAttribute("disabled", "true");
-        }
-        else { 
+        showMessage(message);
+        if (message != "INFO - done")
             shortRefresh();
-        }
     } else {
         document.getElementById("run_button").removeAttribute("disabled");
         document.getElementById("stop_button").setAttribute("disabled", "true");
@@ -51,12 +65,30 @@ function successConnection(message) {
     }
 }
 
+function showMessage(message) {
+    messages.push(message + "\n");
+    document.getElementById("message").innerText = messages.join("");
+    if (messages.length >= numMessages)
+        messages.shift();
+    if (message == "INFO - done")
+        getResults();
+    if (message == "INFO - done" || (eventSource != null && (message == "INFO - backend is ready"
+        || message.indexOf("ERROR") == 0))) {
+        document.getElementById("run_button").removeAttribute("disabled");
+        document.getElementById("stop_button").setAttribute("disabled", "true");
+    }
+}
+
 function shortRefresh() {
+    if (eventSource != null)
+        return;
     clearInterval(intervalMessages);
     intervalMessages = setInterval(getMessage, shortPeriod);
 }
 
 function longRefresh() {
+    if (eventSource != null)
+        return;
     clearInterval(intervalMessages);
     intervalMessages = setInterval(getMessage, longPeriod);
 }
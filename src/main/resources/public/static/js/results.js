@@ -36,7 +36,9 @@ function successResults(results){
         linkUtilizationGraph.setData(results['luGraph']);
         serverUtilizationGraph.setData(results['xuGraph']);
         serviceDelayGraph.setData(results['sdGraph']);
-        updateGraph();
+        // with server-sent events the graph is already updated from utilization deltas
+        if (eventSource == null)
+            updateGraph();
     }
 }
 
@@ -1,6 +1,8 @@
 var cy;
 var servers;
 var links;
+// smallest X-Version of the last server and link requests
+var version = null;
 initializeGraph();
 
 function initializeGraph(cyContainer) {
@@ -46,6 +48,7 @@ function initializeGraph(cyContainer) {
                 'control-point-step-size': 10
             })
     });
+    version = null;
     servers = getServers();
     links = getLinks();
     nodes = getNodes()
@@ -57,53 +60,61 @@ function initializeGraph(cyContainer) {
     }).run();
 }
 
-function areEqual(obj1, obj2) {
-    if (obj1['data']['faveColor'] !== obj2['data']['faveColor']) {
-        return false;
-    }
-    if (obj1['data']['label'] !== obj2['data']['label']) {
-        return false;
-    }
-    return true;
+function recordVersion(xhr) {
+    var newVersion = Number(xhr.getResponseHeader("X-Version"));
+    if (version == null || newVersion < version)
+        version = newVersion;
 }
 
+// only fetches the servers and links changed since the last request
 function updateGraph() {
-    var updatedServers = getServers();
-    var updatedLinks = getLinks();
-    var isChange = false;
-    for (var x = 0; x < updatedServers.length; x++) {
-        if (!areEqual(updatedServers[x], servers[x])) {
-            servers = updatedServers;
-            isChange = true;
-            break;
-        }
+    var since = version == null ? 0 : version;
+    version = null;
+    var changedServers = getChangedElements("server", since);
+    var changedLinks = getChangedElements("link", since);
+    if (changedServers == null || changedLinks == null) {
+        version = since;
+        return;
     }
-    for (var l = 0; l < links.length; l++) {
-        if (!areEqual(updatedLinks[l], links[l])) {
-            links = updatedLinks;
-            isChange = true;
-            break;
-        }
+    applyUtilization({ servers: changedServers, links: changedLinks });
+}
+
+function getChangedElements(url, since) {
+    try {
+        var message = null;
+        $.ajax
+            ({
+                url: url + "?since=" + since,
+                type: "GET",
+                async: false,
+                success: function (ans, status, xhr) {
+                    message = ans;
+                    recordVersion(xhr);
+                }
+            });
+        return message;
     }
-    if (isChange) {
-        cy.batch(function () {
-            for (var x = 0; x < servers.length; x++) {
-                cy.getElementById(servers[x]['data']['id'])
-                    .data("faveColor", servers[x]['data']['faveColor'])
-                    .data("label", servers[x]['data']['label'])
-                    ;
-            }
-            for (var l = 0; l < links.length; l++) {
-                cy.getElementById(links[l]['data']['id'])
-                    .data("faveColor", links[l]['data']['faveColor'])
-                    .data("label", links[l]['data']['label'])
-                    ;
-            }
-        });
-        cy.layout.run();
+    catch (e) {
+        return null;
     }
 }
 
+function applyUtilization(utilization) {
+    if (cy == null)
+        return;
+    var elements = utilization['servers'].concat(utilization['links']);
+    if (elements.length == 0)
+        return;
+    cy.batch(function () {
+        for (var i = 0; i < elements.length; i++) {
+            cy.getElementById(elements[i]['data']['id'])
+                .data("faveColor", elements[i]['data']['faveColor'])
+                .data("label", elements[i]['data']['label'])
+                ;
+        }
+    });
+}
+
 function getNodes() {
     try {
         var message = null;
@@ -131,8 +142,9 @@ function getServers() {
                 url: "server",
                 type: "GET",
                 async: false,
-                success: function (ans) {
+                success: function (ans, status, xhr) {
                     message = ans;
+                    recordVersion(xhr);
                 }
             });
         return message;
@@ -150,8 +162,9 @@ function getLinks() {
                 url: "link",
                 type: "GET",
                 async: false,
-                success: function (ans) {
+                success: function (ans, status, xhr) {
                     message = ans;
+                    recordVersion(xhr);
                 }
             });
         return message;
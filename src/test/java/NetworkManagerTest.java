@@ -0,0 +1,108 @@
+import optimizer.Manager;
+import optimizer.Parameters;
+import optimizer.algorithms.NetworkManager;
+import optimizer.algorithms.VariablesAlg;
+import optimizer.results.Auxiliary;
+import optimizer.utils.ConfigFiles;
+import org.graphstream.graph.Edge;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static optimizer.Definitions.*;
+
+public class NetworkManagerTest {
+
+   @Test
+   public void admitAndReleaseDemand() {
+      Parameters pm = readParameters();
+      VariablesAlg vars = new VariablesAlg(pm, null, UTILIZATION);
+      NetworkManager networkManager = new NetworkManager(pm, vars);
+
+      assertTrue(networkManager.admitDemand(0, 0));
+      assertTrue(networkManager.isDemandAdmitted(0, 0));
+      int pUsed = usedPath(pm, vars, 0, 0);
+      for (Edge link : pm.getServices().get(0).getTrafficFlow().getPaths().get(pUsed).getEdgePath())
+         assertTrue(vars.uL.get(link.getId()) > 0);
+      for (int v = 0; v < pm.getServices().get(0).getFunctions().size(); v++)
+         assertTrue(networkManager.getUsedServerForFunction(0, 0, v) != -1);
+
+      assertTrue(networkManager.releaseDemand(0, 0));
+      assertFalse(networkManager.isDemandAdmitted(0, 0));
+      assertFalse(networkManager.releaseDemand(0, 0));
+      assertEmpty(vars);
+   }
+
+   @Test
+   public void admitDemandsWithinCapacity() {
+      Parameters pm = readParameters();
+      VariablesAlg vars = new VariablesAlg(pm, null, UTILIZATION);
+      NetworkManager networkManager = new NetworkManager(pm, vars);
+
+      for (int s = 0; s < pm.getServices().size(); s++)
+         for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++)
+            networkManager.admitDemand(s, d);
+      for (double u : vars.uL.values())
+         assertTrue(u < 1.0);
+      for (double u : vars.uX.values())
+         assertTrue(u <= 1.0);
+
+      // releasing every demand must leave the network empty
+      for (int s = 0; s < pm.getServices().size(); s++)
+         for (int d = 0; d < pm.getServices().get(s).getTrafficFlow().getDemands().size(); d++) {
+            networkManager.releaseDemand(s, d);
+            assertFalse(networkManager.isDemandAdmitted(s, d));
+         }
+      assertEmpty(vars);
+   }
+
+   @Test
+   public void rejectDemandsBeyondCapacity() {
+      Parameters pm = readParameters();
+      VariablesAlg vars = new VariablesAlg(pm, null, UTILIZATION);
+      NetworkManager networkManager = new NetworkManager(pm, vars);
+      int maxLinkCapacity = 0;
+      for (Edge link : pm.getLinks())
+         maxLinkCapacity = Math.max(maxLinkCapacity, (int) link.getAttribute(LINK_CAPACITY));
+
+      // overwrites the demand in the parameters of this test only
+      assertFalse(networkManager.admitDemand(0, 0, maxLinkCapacity));
+      assertFalse(networkManager.isDemandAdmitted(0, 0));
+      assertEmpty(vars);
+
+      // the same demand does not fit on a given path and servers either, and nothing is left allocated
+      List<Integer> servers = new ArrayList<>();
+      for (int v = 0; v < pm.getServices().get(0).getFunctions().size(); v++)
+         servers.add(0);
+      assertFalse(networkManager.admitDemand(0, 0, 0, servers));
+      assertEmpty(vars);
+   }
+
+   // fresh parameters for every test, since admitting demands with a given traffic overwrites them
+   private Parameters readParameters() {
+      final String graphName = "example";
+      String path = Auxiliary.getResourcesPath(graphName + ".yml");
+      Parameters pm = ConfigFiles.readParameters(path + graphName + ".yml");
+      pm.initialize(path + graphName + ".dgs", path + graphName + ".txt", (boolean) pm.getGlobal(DIRECTED_EDGES));
+      Manager.determineUsedDemands(pm, false);
+      return pm;
+   }
+
+   private int usedPath(Parameters pm, VariablesAlg vars, int s, int d) {
+      for (int p = 0; p < pm.getServices().get(s).getTrafficFlow().getPaths().size(); p++)
+         if (vars.zSPD[s][p][d])
+            return p;
+      return -1;
+   }
+
+   private void assertEmpty(VariablesAlg vars) {
+      for (double u : vars.uL.values())
+         assertEquals(0.0, u, 1e-6);
+      for (double u : vars.uX.values())
+         assertEquals(0.0, u, 1e-6);
+   }
+}
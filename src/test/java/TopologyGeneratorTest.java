@@ -0,0 +1,48 @@
+import optimizer.Manager;
+import optimizer.Parameters;
+import optimizer.algorithms.NetworkManager;
+import optimizer.algorithms.VariablesAlg;
+import optimizer.algorithms.heuristics.HeuristicAlgorithm;
+import optimizer.gui.ResultsGUI;
+import optimizer.utils.ConfigFiles;
+import optimizer.utils.TopologyGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.URISyntaxException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static optimizer.Definitions.*;
+
+public class TopologyGeneratorTest {
+
+   @Test
+   public void generateTopologies() throws URISyntaxException {
+      final int numNodes = 50;
+      final int numTrafficFlows = 200;
+      final int numPaths = 3;
+      String path = new File(ConfigFiles.class.getProtectionDomain().getCodeSource().getLocation().toURI().getPath())
+            .getParent() + "/";
+      new ResultsGUI();
+
+      for (String topologyType : new String[] { GRID, WAXMAN, BARABASI_ALBERT, FAT_TREE }) {
+         String graphName = "generated-" + topologyType;
+         TopologyGenerator.run(path, graphName, topologyType, numNodes, numTrafficFlows, numPaths, 0);
+
+         // generated files must load and all demands must fit with first-fit
+         Parameters pm = ConfigFiles.readParameters(path + graphName + ".yml");
+         assertTrue(pm.initialize(path + graphName + ".dgs", path + graphName + ".txt",
+               (boolean) pm.getGlobal(DIRECTED_EDGES)));
+         Manager.determineUsedDemands(pm, false);
+         assertEquals(numTrafficFlows, pm.getServices().size());
+         for (int s = 0; s < pm.getServices().size(); s++)
+            assertFalse(pm.getServices().get(s).getTrafficFlow().getPaths().isEmpty());
+         VariablesAlg vars = new VariablesAlg(pm, null, UTILIZATION);
+         new HeuristicAlgorithm(pm, vars, new NetworkManager(pm, vars)).allocateServices(FF);
+         for (double u : vars.uL.values())
+            assertTrue(u <= 1.0);
+      }
+   }
+}
@@ -0,0 +1,101 @@
+package optimizer.algorithms.learning;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReplayBufferTest {
+
+   private static final int CAPACITY = 3;
+   private static final int INPUT_LENGTH = 2;
+
+   @Test
+   public void overwriteOldestExperience() {
+      ReplayBuffer replayBuffer = new ReplayBuffer(CAPACITY, INPUT_LENGTH);
+      for (int i = 0; i < CAPACITY; i++)
+         assertEquals(i, add(replayBuffer, i));
+      assertEquals(CAPACITY, replayBuffer.size());
+
+      // the ring is full, so the next experiences go to the first slots again
+      assertEquals(0, add(replayBuffer, CAPACITY));
+      assertEquals(1, add(replayBuffer, CAPACITY + 1));
+      assertEquals(CAPACITY, replayBuffer.size());
+      assertEquals(CAPACITY, replayBuffer.getAction(0));
+      assertEquals(CAPACITY + 1, replayBuffer.getAction(1));
+      assertEquals(2, replayBuffer.getAction(2));
+      // overwritten slots get the serial of their new experience
+      assertEquals(CAPACITY + 2, replayBuffer.getAdded());
+      assertEquals(CAPACITY, replayBuffer.getSerial(0));
+      assertEquals(CAPACITY + 1, replayBuffer.getSerial(1));
+      assertEquals(2, replayBuffer.getSerial(2));
+
+      float[] batchInputs = new float[2 * INPUT_LENGTH];
+      float[] batchNextInputs = new float[2 * INPUT_LENGTH];
+      replayBuffer.gather(new int[] { 0, 2 }, batchInputs, batchNextInputs);
+      assertArrayEquals(new float[] { CAPACITY, CAPACITY, 2, 2 }, batchInputs);
+      // slot 0 now holds a terminal experience, whose next input is zeros
+      assertArrayEquals(new float[] { 0, 0, -2, -2 }, batchNextInputs);
+   }
+
+   @Test
+   public void writeAndReadExperiences() throws IOException {
+      ReplayBuffer replayBuffer = new ReplayBuffer(CAPACITY, INPUT_LENGTH);
+      for (int i = 0; i < CAPACITY + 1; i++)
+         add(replayBuffer, i);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      replayBuffer.write(new DataOutputStream(bytes));
+
+      ReplayBuffer readBuffer = new ReplayBuffer(CAPACITY, INPUT_LENGTH);
+      assertTrue(readBuffer.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+      assertEquals(replayBuffer.size(), readBuffer.size());
+      for (int slot = 0; slot < replayBuffer.size(); slot++) {
+         assertEquals(replayBuffer.getAction(slot), readBuffer.getAction(slot));
+         assertEquals(replayBuffer.getReward(slot), readBuffer.getReward(slot));
+         assertEquals(replayBuffer.isTerminal(slot), readBuffer.isTerminal(slot));
+         assertArrayEquals(replayBuffer.getNextActionMask(slot), readBuffer.getNextActionMask(slot));
+      }
+      int[] slots = { 0, 1, 2 };
+      float[] inputs = new float[slots.length * INPUT_LENGTH], readInputs = new float[slots.length * INPUT_LENGTH];
+      float[] nextInputs = new float[inputs.length], readNextInputs = new float[inputs.length];
+      replayBuffer.gather(slots, inputs, nextInputs);
+      readBuffer.gather(slots, readInputs, readNextInputs);
+      assertArrayEquals(inputs, readInputs);
+      assertArrayEquals(nextInputs, readNextInputs);
+
+      // the ring continues where it was written
+      assertEquals(1, add(readBuffer, CAPACITY + 1));
+   }
+
+   @Test
+   public void rejectExperiencesOfAnotherBuffer() throws IOException {
+      ReplayBuffer replayBuffer = new ReplayBuffer(CAPACITY, INPUT_LENGTH);
+      add(replayBuffer, 0);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      replayBuffer.write(new DataOutputStream(bytes));
+
+      ReplayBuffer otherCapacity = new ReplayBuffer(CAPACITY + 1, INPUT_LENGTH);
+      assertFalse(otherCapacity.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+      assertEquals(0, otherCapacity.size());
+      ReplayBuffer otherInputLength = new ReplayBuffer(CAPACITY, INPUT_LENGTH + 1);
+      assertFalse(otherInputLength.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+      assertEquals(0, otherInputLength.size());
+   }
+
+   // experience i has inputs i, next inputs -i, action i and reward i, odd ones are terminal
+   private int add(ReplayBuffer replayBuffer, int i) {
+      float[] input = { i, i };
+      boolean isTerminal = i % 2 == 1;
+      float[] nextInput = isTerminal ? null : new float[] { -i, -i };
+      int[] nextActionMask = isTerminal ? null : new int[] { 1, 0, 1 };
+      return replayBuffer.add(input, nextInput, i, i, nextActionMask);
+   }
+}
@@ -0,0 +1,65 @@
+package optimizer.algorithms.learning;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SumTreeTest {
+
+   @Test
+   public void findSlotOfPrefixSum() {
+      // capacity that is not a power of two, so that the last leaves are never used
+      SumTree sumTree = new SumTree(5);
+      double[] priorities = { 1, 2, 0, 3, 4 };
+      for (int slot = 0; slot < priorities.length; slot++)
+         sumTree.set(slot, priorities[slot]);
+      assertEquals(10, sumTree.total(), 1e-9);
+      assertEquals(4, sumTree.getMaxPriority(), 1e-9);
+
+      // every value in [0, total) falls in the slot whose priority interval contains it
+      double prefixSum = 0;
+      for (int slot = 0; slot < priorities.length; slot++) {
+         if (priorities[slot] > 0) {
+            assertEquals(slot, sumTree.find(prefixSum));
+            assertEquals(slot, sumTree.find(prefixSum + priorities[slot] / 2));
+            assertEquals(slot, sumTree.find(Math.nextDown(prefixSum + priorities[slot])));
+         }
+         prefixSum += priorities[slot];
+      }
+   }
+
+   @Test
+   public void skipSlotsWithoutPriority() {
+      SumTree sumTree = new SumTree(4);
+      sumTree.set(0, 0);
+      sumTree.set(1, 1);
+      sumTree.set(2, 0);
+      sumTree.set(3, 0);
+      assertEquals(1, sumTree.find(0));
+      // rounding up to the total must not reach the empty slots on the right
+      assertEquals(1, sumTree.find(sumTree.total()));
+
+      // updating a priority updates the sums above it
+      sumTree.set(1, 0.5);
+      sumTree.set(3, 2);
+      assertEquals(2.5, sumTree.total(), 1e-9);
+      assertEquals(1, sumTree.find(0.25));
+      assertEquals(3, sumTree.find(0.5));
+      assertEquals(3, sumTree.find(2.5));
+   }
+
+   @Test
+   public void sampleProportionallyToPriorities() {
+      SumTree sumTree = new SumTree(3);
+      double[] priorities = { 1, 3, 6 };
+      for (int slot = 0; slot < priorities.length; slot++)
+         sumTree.set(slot, priorities[slot]);
+      int samples = 10000;
+      int[] counts = new int[priorities.length];
+      // evenly spread values, as the stratified sampling of DeepQ does
+      for (int i = 0; i < samples; i++)
+         counts[sumTree.find((i + 0.5) * sumTree.total() / samples)]++;
+      for (int slot = 0; slot < priorities.length; slot++)
+         assertEquals(priorities[slot] / sumTree.total(), (double) counts[slot] / samples, 1e-3);
+   }
+}